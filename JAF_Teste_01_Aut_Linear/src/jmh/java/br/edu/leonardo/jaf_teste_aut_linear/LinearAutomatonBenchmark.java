@@ -0,0 +1,158 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import br.edu.leonardo.jaf.AgentException;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The JMH benchmarks of the engines of LinearCellularAutomaton. Each invocation computes one
+ * generation of a BenchmarkAutomaton, through the iteration sensor of the automaton, so the score
+ * is the number of generations per second (the cell updates per second are the score times the
+ * number of cells). The automata of cell agents are measured with smaller sizes than the other
+ * engines. The allocation rate and the garbage collections are reported by the profiler gc:
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar LinearAutomatonBenchmark -prof gc
+ * </pre>
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinearAutomatonBenchmark {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method computes a generation of an automaton of cell agents.
+     *
+     * @param state The automaton.
+     */
+    @Benchmark
+    public void agents(AgentState state) {
+        state.automaton.nextGeneration();
+    }
+
+    /**
+     * This method computes a generation of an automaton with an engine.
+     *
+     * @param state The automaton.
+     */
+    @Benchmark
+    public void engines(EngineState state) {
+        state.automaton.nextGeneration();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * An automaton of cell agents, running during a trial.
+     */
+    @State(Scope.Benchmark)
+    public static class AgentState {
+
+        /**
+         * The number of cells.
+         */
+        @Param({"256", "1024", "4096"})
+        public int cells;
+
+        /**
+         * The automaton.
+         */
+        BenchmarkAutomaton automaton;
+
+        /**
+         * This method creates and initializes the automaton.
+         *
+         * @throws SensorException If an error occured during sensor initialization.
+         * @throws AgentException If an error occurred during agent initialization.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws SensorException, AgentException {
+            automaton = new BenchmarkAutomaton(cells, AutomatonEngine.AGENTS, SEED);
+            automaton.init();
+        }
+
+        /**
+         * This method stops the automaton.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            automaton.stop();
+        }
+    }
+
+    /**
+     * An automaton with an engine, running during a trial.
+     */
+    @State(Scope.Benchmark)
+    public static class EngineState {
+
+        /**
+         * The engine.
+         */
+        @Param({"BIT_PACKED", "PARALLEL", "ARRAY", "HASHLIFE"})
+        public AutomatonEngine engine;
+
+        /**
+         * The number of cells.
+         */
+        @Param({"1024", "65536", "4194304"})
+        public int cells;
+
+        /**
+         * The automaton.
+         */
+        BenchmarkAutomaton automaton;
+
+        /**
+         * This method creates and initializes the automaton.
+         *
+         * @throws SensorException If an error occured during sensor initialization.
+         * @throws AgentException If an error occurred during agent initialization.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws SensorException, AgentException {
+            automaton = new BenchmarkAutomaton(cells, engine, SEED);
+            automaton.init();
+        }
+
+        /**
+         * This method stops the automaton.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            automaton.stop();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The seed of the initial configurations.
+     */
+    private static final long SEED = 49;
+}
@@ -0,0 +1,144 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import java.util.Arrays;
+
+/**
+ * The blocks of a line whose cells changed in the last generation, which the engines use to
+ * compute only the active region of the line. A block whose neighbourhood did not change would be
+ * computed from the same states as in the previous generation, so its next states are its current
+ * states and it can be skipped; the cost of a generation is proportional to the activity of the
+ * line instead of its size.
+ * <p>
+ * The changes are stored in two bitmaps, one bit per block: the changes of the current generation,
+ * which are read while the next generation is computed, and the changes of the next generation,
+ * which are written by the engine, one word of the bitmap at a time. The words of the bitmap can
+ * be written by different threads, as long as each word is written by a single thread.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+final class ActivityMap {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new ActivityMap where all blocks have changed, so the first
+     * generation is computed entirely.
+     *
+     * @param numBlocks The number of blocks of the line.
+     */
+    ActivityMap(int numBlocks) {
+        int words = (numBlocks + 63) >>> 6;
+        changes = new long[words];
+        nextChanges = new long[words];
+        lastMask = (numBlocks & 63) == 0 ? -1L : (1L << (numBlocks & 63)) - 1;
+        markAll();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the number of words of the bitmaps.
+     *
+     * @return The number of words.
+     */
+    int getNumOfWords() {
+        return changes.length;
+    }
+
+    /**
+     * This method obtains the blocks of a word of the bitmap that must be computed in the next
+     * generation: the blocks that changed in the current generation or that have a block at the
+     * given distance that changed.
+     *
+     * @param m The index of the word of the bitmap (the blocks 64m to 64m + 63).
+     * @param reach The number of blocks at each side of a block that influence its next state.
+     * @return The bits of the blocks that must be computed.
+     */
+    long getActive(int m, int reach) {
+        if(reach >= Long.SIZE)
+            return m == changes.length - 1 ? lastMask : -1L;
+        long c = changes[m];
+        long previous = m > 0 ? changes[m - 1] : 0;
+        long next = m < changes.length - 1 ? changes[m + 1] : 0;
+        long active = c;
+        for(int d = 1; d <= reach; d++) {
+            active |= (c << d) | (previous >>> (Long.SIZE - d)) | (c >>> d) | (next << (Long.SIZE - d));
+        }
+        return m == changes.length - 1 ? active & lastMask : active;
+    }
+
+    /**
+     * This method informs the blocks of a word of the bitmap that changed in the next generation.
+     * Each word must be informed in each generation.
+     *
+     * @param m The index of the word of the bitmap.
+     * @param blocks The bits of the blocks that changed.
+     */
+    void setChanges(int m, long blocks) {
+        nextChanges[m] = blocks;
+    }
+
+    /**
+     * This method informs if a block changed in the next generation, after its word was informed.
+     *
+     * @param block The index of the block.
+     * @param changed True if the block changed; false otherwise.
+     */
+    void setChange(int block, boolean changed) {
+        if(changed)
+            nextChanges[block >>> 6] |= 1L << block;
+        else
+            nextChanges[block >>> 6] &= ~(1L << block);
+    }
+
+    /**
+     * This method marks a block of the current generation as changed, because one of its cells was
+     * changed outside the computation of the generations.
+     *
+     * @param block The index of the block.
+     */
+    void mark(int block) {
+        changes[block >>> 6] |= 1L << block;
+    }
+
+    /**
+     * This method marks all blocks of the current generation as changed.
+     */
+    void markAll() {
+        Arrays.fill(changes, -1L);
+        changes[changes.length - 1] = lastMask;
+    }
+
+    /**
+     * This method makes the changes of the next generation the changes of the current one, after
+     * the next generation is computed.
+     */
+    void swap() {
+        long[] swap = changes;
+        changes = nextChanges;
+        nextChanges = swap;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The mask of the valid bits of the last word of the bitmaps.
+     */
+    private final long lastMask;
+
+    /**
+     * The blocks that changed in the current generation.
+     */
+    private long[] changes;
+
+    /**
+     * The blocks that changed in the next generation.
+     */
+    private long[] nextChanges;
+}
@@ -0,0 +1,511 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An engine for automata with a finite set of states that stores the line as a structure of
+ * arrays: the index of the state of each cell is an element of a primitive array (a byte array,
+ * if the automaton has up to 127 states, or an int array otherwise), and the next generation is
+ * computed into a second array of the same type. The neighbours of a cell are the adjacent
+ * elements, so each generation is a sequential scan of the array.
+ * <p>
+ * Before the first generation, the rule of the automaton is compiled into a lookup table: the rule
+ * is probed once over all neighbourhoods (the 2r+1 cells centred in a cell, where r is the radius
+ * of the rule), and each generation is computed by indexing the table, without executing the code
+ * of the automaton. The index of a neighbourhood packs the indices of its states in fixed-width
+ * fields (one more value represents a position outside the line), so the index of the next cell
+ * is obtained from the index of the previous one with a shift, an or and a mask. The probing uses
+ * the CellRule of the automaton (see LinearCellularAutomaton.getCellRule), if it has one, or the
+ * method generateNextCellState.
+ * <p>
+ * If the table would be larger than 4 MiB (too many states or a large radius), the rule is not
+ * compiled and the engine executes it for each cell, as a CellRule or, for rules with a radius
+ * greater than 1, with the neighbourhood of each cell.
+ * <p>
+ * Only the active region of the line is computed: the line is divided into blocks of 64 cells, the
+ * engine records which blocks changed in each generation (see ActivityMap), and a block is
+ * computed only if a block within the radius of the rule changed. The consecutive active blocks are
+ * computed by a single scan.
+ *
+ * @author Leonardo Vianna do Nascimento
+ * @param <T> The type used to represent states.
+ */
+class ArrayLineEngine<T> implements LineEngine<T> {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new ArrayLineEngine with all cells in the first state.
+     *
+     * @param automaton The automaton whose rule is computed.
+     * @param numCells The number of cells.
+     * @param states The states of the automaton. Each state is stored as its index in this array.
+     * @throws IllegalArgumentException If the number of cells is not positive, there are no states
+     *                                  or the states are not distinct.
+     */
+    ArrayLineEngine(LinearCellularAutomaton<T> automaton, int numCells, T[] states) {
+        if(numCells < 1)
+            throw new IllegalArgumentException("The number of cells must be positive.");
+        if(states.length == 0)
+            throw new IllegalArgumentException("The automaton must have at least one state.");
+        this.automaton = automaton;
+        this.numCells = numCells;
+        this.states = states.clone();
+        for(int i = 0; i < states.length; i++) {
+            if(states[i] == null || indices.put(states[i], i) != null)
+                throw new IllegalArgumentException("The states of the automaton must be distinct and not null.");
+        }
+        if(states.length <= Byte.MAX_VALUE) {
+            currentBytes = new byte[numCells];
+            nextBytes = new byte[numCells];
+        } else {
+            currentInts = new int[numCells];
+            nextInts = new int[numCells];
+        }
+        activity = new ActivityMap(((numCells - 1) >>> BLOCK_SHIFT) + 1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getNumOfCells() {
+        return numCells;
+    }
+
+    @Override
+    public T getCellState(int i) {
+        return states[currentBytes != null ? currentBytes[i] : currentInts[i]];
+    }
+
+    @Override
+    public void setCellState(int i, T state) {
+        Integer index = state == null ? null : indices.get(state);
+        if(index == null)
+            throw new IllegalArgumentException("The state " + state + " is not a state of the automaton.");
+        if(currentBytes != null)
+            currentBytes[i] = (byte) (int) index;
+        else
+            currentInts[i] = index;
+        activity.mark(i >>> BLOCK_SHIFT);
+    }
+
+    @Override
+    public void step() {
+        if(!compiled)
+            compileRule();
+        ActivityMap map = activity;
+        int reach = ((radius - 1) >>> BLOCK_SHIFT) + 1;
+        for(int m = 0; m < map.getNumOfWords(); m++) {
+            long active = map.getActive(m, reach);
+            long changes = 0;
+            while(active != 0) {
+                // Compute the run of consecutive active blocks that starts at the first one.
+                int first = Long.numberOfTrailingZeros(active);
+                int length = Long.numberOfTrailingZeros(~(active >>> first));
+                long firstCell = (long) ((m << 6) + first) << BLOCK_SHIFT;
+                stepRange((int) firstCell, (int) Math.min(numCells, firstCell + ((long) length << BLOCK_SHIFT)));
+                for(int b = 0; b < length; b++) {
+                    long from = firstCell + ((long) b << BLOCK_SHIFT);
+                    if(hasChanged((int) from, (int) Math.min(numCells, from + (1 << BLOCK_SHIFT))))
+                        changes |= 1L << (first + b);
+                }
+                active &= length == Long.SIZE ? 0 : ~(((1L << length) - 1) << first);
+            }
+            map.setChanges(m, changes);
+        }
+        map.swap();
+        if(currentBytes != null) {
+            byte[] swap = currentBytes;
+            currentBytes = nextBytes;
+            nextBytes = swap;
+        } else {
+            int[] swap = currentInts;
+            currentInts = nextInts;
+            nextInts = swap;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the rule of the automaton and compiles it into a lookup table, if the
+     * table is small enough.
+     *
+     * @throws IllegalStateException If the radius of the rule is not positive, or if the rule
+     *                               produces a state that is not a state of the automaton.
+     */
+    private void compileRule() {
+        radius = automaton.getRadius();
+        if(radius < 1)
+            throw new IllegalStateException("The radius of the rule must be positive.");
+        CellRule cellRule = radius == 1 ? automaton.getCellRule() : null;
+        rule = cellRule != null ? cellRule : this::generateNextState;
+        int width = 2 * radius + 1;
+        fieldBits = 32 - Integer.numberOfLeadingZeros(states.length);
+        if(currentBytes != null && (long) fieldBits * width <= MAX_TABLE_BITS) {
+            table = new byte[1 << (fieldBits * width)];
+            indexMask = table.length - 1;
+            int[] digits = new int[width];
+            for(int index = 0; index < table.length; index++) {
+                if(decode(index, digits))
+                    table[index] = (byte) probe(digits);
+            }
+        }
+        compiled = true;
+    }
+
+    /**
+     * This method decodes the index of a neighbourhood in the lookup table and checks if the
+     * neighbourhood can occur in a line: the cell must exist and, at each side, the positions
+     * outside the line must be the farthest ones.
+     *
+     * @param index The index.
+     * @param digits The array where the index of the state of each position is stored (from the
+     *               leftmost position); the number of states for positions outside the line.
+     * @return True if the neighbourhood can occur; false otherwise.
+     */
+    private boolean decode(int index, int[] digits) {
+        int mask = (1 << fieldBits) - 1;
+        for(int j = digits.length - 1; j >= 0; j--) {
+            digits[j] = index & mask;
+            if(digits[j] > states.length)
+                return false;
+            index >>>= fieldBits;
+        }
+        if(digits[radius] == states.length)
+            return false;
+        for(int j = 1; j < radius; j++) {
+            if(digits[j - 1] != states.length && digits[j] == states.length)
+                return false;
+            if(digits[digits.length - j] != states.length && digits[digits.length - j - 1] == states.length)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method executes the rule of the automaton over a neighbourhood.
+     *
+     * @param digits The index of the state of each position of the neighbourhood; the number of
+     *               states for positions outside the line.
+     * @return The index of the next state of the cell.
+     * @throws IllegalStateException If the rule produces a state that is not a state of the
+     *                               automaton.
+     */
+    private int probe(int[] digits) {
+        int next;
+        if(radius == 1) {
+            next = rule.next(toRuleIndex(digits[0]), digits[1], toRuleIndex(digits[2]));
+        } else {
+            T[] neighbourhood = Arrays.copyOf(states, digits.length);
+            for(int j = 0; j < digits.length; j++) {
+                neighbourhood[j] = digits[j] == states.length ? null : states[digits[j]];
+            }
+            next = indexOf(automaton.generateNextCellState(neighbourhood));
+        }
+        if(next < 0 || next >= states.length)
+            throw new IllegalStateException("The rule of the automaton produced the state index " + next + ", which is not a state of the automaton.");
+        return next;
+    }
+
+    /**
+     * This method converts the index of a state in the lookup table to the index informed to a
+     * CellRule.
+     *
+     * @param digit The index in the table.
+     * @return The index of the state, or NONE for a position outside the line.
+     */
+    private int toRuleIndex(int digit) {
+        return digit == states.length ? CellRule.NONE : digit;
+    }
+
+    /**
+     * This method computes the next generation of a range of cells.
+     *
+     * @param from The index of the first cell of the range, inclusive.
+     * @param to The index of the last cell of the range, exclusive.
+     */
+    private void stepRange(int from, int to) {
+        if(table != null) {
+            stepTable(currentBytes, nextBytes, from, to);
+        } else if(radius > 1) {
+            stepNeighbourhoods(from, to);
+        } else if(currentBytes != null) {
+            stepBytes(rule, currentBytes, nextBytes, from, to);
+        } else {
+            stepInts(rule, currentInts, nextInts, from, to);
+        }
+    }
+
+    /**
+     * This method checks if the next state of a range of cells is different from its current
+     * state.
+     *
+     * @param from The index of the first cell of the range, inclusive.
+     * @param to The index of the last cell of the range, exclusive.
+     * @return True if a cell of the range changed; false otherwise.
+     */
+    private boolean hasChanged(int from, int to) {
+        if(currentBytes != null) {
+            byte[] cur = currentBytes;
+            byte[] nxt = nextBytes;
+            for(int i = from; i < to; i++) {
+                if(cur[i] != nxt[i])
+                    return true;
+            }
+        } else {
+            int[] cur = currentInts;
+            int[] nxt = nextInts;
+            for(int i = from; i < to; i++) {
+                if(cur[i] != nxt[i])
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method computes the next generation of a range of cells with the lookup table. The
+     * index of each neighbourhood is obtained from the previous one by shifting in the state of
+     * the rightmost cell.
+     *
+     * @param cur The current generation.
+     * @param nxt The array where the next generation is computed.
+     * @param from The index of the first cell of the range, inclusive.
+     * @param to The index of the last cell of the range, exclusive.
+     */
+    private void stepTable(byte[] cur, byte[] nxt, int from, int to) {
+        byte[] t = table;
+        int bits = fieldBits;
+        int mask = indexMask;
+        int none = states.length;
+        int n = numCells;
+        int index = 0;
+        for(int j = from - radius; j < from + radius; j++) {
+            index = (index << bits) | (j < 0 || j >= n ? none : cur[j]);
+        }
+        int end = Math.min(to, Math.max(0, n - radius));
+        for(int i = from; i < end; i++) {
+            index = ((index << bits) | cur[i + radius]) & mask;
+            nxt[i] = t[index];
+        }
+        for(int i = Math.max(from, end); i < to; i++) {
+            index = ((index << bits) | (i + radius < n ? cur[i + radius] : none)) & mask;
+            nxt[i] = t[index];
+        }
+    }
+
+    /**
+     * This method computes the next generation of a range of cells of a line stored in byte
+     * arrays.
+     *
+     * @param rule The rule.
+     * @param cur The current generation.
+     * @param nxt The array where the next generation is computed.
+     * @param from The index of the first cell of the range, inclusive.
+     * @param to The index of the last cell of the range, exclusive.
+     */
+    private static void stepBytes(CellRule rule, byte[] cur, byte[] nxt, int from, int to) {
+        int last = cur.length - 1;
+        int end = Math.min(to, last);
+        for(int i = Math.max(from, 1); i < end; i++) {
+            nxt[i] = (byte) rule.next(cur[i - 1], cur[i], cur[i + 1]);
+        }
+        if(from == 0)
+            nxt[0] = (byte) rule.next(CellRule.NONE, cur[0], last == 0 ? CellRule.NONE : cur[1]);
+        if(to == last + 1 && last > 0)
+            nxt[last] = (byte) rule.next(cur[last - 1], cur[last], CellRule.NONE);
+    }
+
+    /**
+     * This method computes the next generation of a range of cells of a line stored in int
+     * arrays.
+     *
+     * @param rule The rule.
+     * @param cur The current generation.
+     * @param nxt The array where the next generation is computed.
+     * @param from The index of the first cell of the range, inclusive.
+     * @param to The index of the last cell of the range, exclusive.
+     */
+    private static void stepInts(CellRule rule, int[] cur, int[] nxt, int from, int to) {
+        int last = cur.length - 1;
+        int end = Math.min(to, last);
+        for(int i = Math.max(from, 1); i < end; i++) {
+            nxt[i] = rule.next(cur[i - 1], cur[i], cur[i + 1]);
+        }
+        if(from == 0)
+            nxt[0] = rule.next(CellRule.NONE, cur[0], last == 0 ? CellRule.NONE : cur[1]);
+        if(to == last + 1 && last > 0)
+            nxt[last] = rule.next(cur[last - 1], cur[last], CellRule.NONE);
+    }
+
+    /**
+     * This method computes the next generation of a range of cells with a rule with a radius
+     * greater than 1 that was not compiled, executing the rule with the neighbourhood of each
+     * cell.
+     *
+     * @param from The index of the first cell of the range, inclusive.
+     * @param to The index of the last cell of the range, exclusive.
+     */
+    private void stepNeighbourhoods(int from, int to) {
+        T[] neighbourhood = Arrays.copyOf(states, 2 * radius + 1);
+        for(int i = from; i < to; i++) {
+            for(int j = -radius; j <= radius; j++) {
+                int k = i + j;
+                neighbourhood[j + radius] = k < 0 || k >= numCells ? null : getCellState(k);
+            }
+            int next = indexOf(automaton.generateNextCellState(neighbourhood));
+            if(currentBytes != null)
+                nextBytes[i] = (byte) next;
+            else
+                nextInts[i] = next;
+        }
+    }
+
+    /**
+     * This method computes the rule of the automaton over the indices of the states, used when the
+     * automaton does not have a CellRule. The automaton is executed with the neighbourhood of the
+     * cell, so a subclass that overrides generateNextCellState(T[]) is also supported.
+     *
+     * @param left The index of the state of the cell at the left side; NONE if there is no
+     *             previous cell.
+     * @param self The index of the state of the cell.
+     * @param right The index of the state of the cell at the right side; NONE if there is no next
+     *              cell.
+     * @return The index of the next state.
+     * @throws IllegalStateException If the rule produces a state that is not a state of the
+     *                               automaton.
+     */
+    private int generateNextState(int left, int self, int right) {
+        if(window == null)
+            window = Arrays.copyOf(states, 3);
+        window[0] = left == CellRule.NONE ? null : states[left];
+        window[1] = states[self];
+        window[2] = right == CellRule.NONE ? null : states[right];
+        return indexOf(automaton.generateNextCellState(window));
+    }
+
+    /**
+     * This method obtains the index of a state produced by the rule of the automaton.
+     *
+     * @param state The state.
+     * @return The index of the state.
+     * @throws IllegalStateException If the state is not a state of the automaton.
+     */
+    private int indexOf(T state) {
+        Integer index = state == null ? null : indices.get(state);
+        if(index == null)
+            throw new IllegalStateException("The rule of the automaton produced the state " + state + ", which is not a state of the automaton.");
+        return index;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum number of bits of the index of the lookup table (a table of 4 MiB).
+     */
+    private static final int MAX_TABLE_BITS = 22;
+
+    /**
+     * The base 2 logarithm of the number of cells of a block of the activity map.
+     */
+    private static final int BLOCK_SHIFT = 6;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The automaton whose rule is computed.
+     */
+    private final LinearCellularAutomaton<T> automaton;
+
+    /**
+     * The number of cells.
+     */
+    private final int numCells;
+
+    /**
+     * The states of the automaton, indexed by their indices.
+     */
+    private final T[] states;
+
+    /**
+     * The index of each state.
+     */
+    private final Map<T, Integer> indices = new HashMap<>();
+
+    /**
+     * True if the rule has been compiled.
+     */
+    private boolean compiled;
+
+    /**
+     * The radius of the rule.
+     */
+    private int radius;
+
+    /**
+     * The rule over the indices of the states, used to probe the rule of radius 1 or, if it was
+     * not compiled, to compute each cell.
+     */
+    private CellRule rule;
+
+    /**
+     * The neighbourhood informed to the rule of radius 1 by the method generateNextState.
+     */
+    private T[] window;
+
+    /**
+     * The lookup table of the rule, indexed by the packed indices of the states of the
+     * neighbourhoods; null if the rule was not compiled.
+     */
+    private byte[] table;
+
+    /**
+     * The number of bits of the index of each state in the index of the lookup table.
+     */
+    private int fieldBits;
+
+    /**
+     * The mask of the valid bits of the index of the lookup table.
+     */
+    private int indexMask;
+
+    /**
+     * The current generation, if the automaton has up to 127 states; null otherwise.
+     */
+    private byte[] currentBytes;
+
+    /**
+     * The array where the next generation is computed, if the automaton has up to 127 states;
+     * null otherwise.
+     */
+    private byte[] nextBytes;
+
+    /**
+     * The current generation, if the automaton has more than 127 states; null otherwise.
+     */
+    private int[] currentInts;
+
+    /**
+     * The array where the next generation is computed, if the automaton has more than 127 states;
+     * null otherwise.
+     */
+    private int[] nextInts;
+
+    /**
+     * The blocks of the line that changed in the last generation.
+     */
+    private final ActivityMap activity;
+}
@@ -0,0 +1,42 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+/**
+ * The engines that can compute the generations of a LinearCellularAutomaton.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public enum AutomatonEngine {
+
+    /**
+     * Each cell is an agent that computes its next state in a behaviour executed on each
+     * iteration. Any type of state is supported.
+     */
+    AGENTS,
+
+    /**
+     * The line is stored as a bitset and each generation is computed 64 cells at a time from the
+     * table of the rule. Only automata with two states are supported.
+     */
+    BIT_PACKED,
+
+    /**
+     * Like BIT_PACKED, but the segments of the line are computed in parallel in the common
+     * fork-join pool. It is intended for large automata; small lines have a single segment.
+     */
+    PARALLEL,
+
+    /**
+     * The index of the state of each cell is stored in a primitive array, and each generation is
+     * computed by a sequential scan with a lookup table compiled from the rule of the automaton.
+     * Any finite set of states and rules of any radius are supported.
+     */
+    ARRAY,
+
+    /**
+     * The line is stored as a tree of blocks of cells whose evolution is memoised, so the method
+     * advance of the automaton can compute a large number of generations in jumps of powers of
+     * two. It is intended for long runs of lines with repeated patterns. Only automata with two
+     * states are supported.
+     */
+    HASHLIFE
+}
@@ -2,19 +2,32 @@ package br.edu.leonardo.jaf_teste_aut_linear;
 
 import br.edu.leonardo.jaf.AgentException;
 import br.edu.leonardo.jaf.sensors.SensorException;
-import java.awt.Color;
+import java.awt.DisplayMode;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import javax.swing.JComponent;
+import javax.swing.Timer;
 
 /**
  * A component that shows an automaton.
- * 
+ * <p>
+ * The generations are drawn off-screen, one pixel per cell, in an image that keeps the last
+ * generations and scrolls when it is full. Only the last MAX_VISIBLE_ITERATIONS (1000) generations
+ * are kept and shown; the older ones are discarded. The onUpdate method of the automaton only copies the
+ * cells of the generation; a background thread writes them in the pixels of the image, and the
+ * component is repainted at most once per refresh of the display, so the painting does not
+ * throttle the automaton.
+ *
  * @author Leonardo Vianna do Nascimento
  */
 public class AutomatonLineComponent extends JComponent {
-    
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P U B L I C   C O N S T R U C T O R S
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -22,91 +35,213 @@ public class AutomatonLineComponent extends JComponent {
     /**
      * This constructor builds a new AutomatonLineComponent containing an automaton with the given
      * number of cells, number of iterations, and initial configuration.
-     * 
+     *
      * @param numberOfCells The number of cells in the automaton.
      * @param numberOfIterations The number of iterations of the automaton.
      * @param initialConfig The initial configuration of the automaton in a String, where "*" indicates
      *                      a living cell and "-" indicates a dead cell.
+     * @throws IllegalArgumentException If the number of cells or the number of iterations is not
+     *                                  positive.
      */
     public AutomatonLineComponent(int numberOfCells, int numberOfIterations, String initialConfig) {
+        if(numberOfCells <= 0)
+            throw new IllegalArgumentException("The number of cells must be positive.");
+        if(numberOfIterations <= 0)
+            throw new IllegalArgumentException("The number of iterations must be positive.");
+        this.numberOfIterations = numberOfIterations;
+
+        // Create the image with the last generations.
+        int rows = Math.min(numberOfIterations, MAX_VISIBLE_ITERATIONS);
+        image = new BufferedImage(numberOfCells, rows, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, DEAD_RGB);
+
         // Configure the component size.
-        setSize(numberOfCells * CELL_WIDTH, numberOfIterations * CELL_HEIGHT);
-        
-        // Create the states matrix.
-        states = new GameOfLifeStates[numberOfIterations][numberOfCells];
-        
+        setSize(numberOfCells * CELL_WIDTH, rows * CELL_HEIGHT);
+
         // Create the automaton.
         automata = new GameOfLifeLinearAutomaton(numberOfCells, Duration.ofMillis(500), initialConfig){
             @Override
             protected void onUpdate() {
+                byte[] row = new byte[numberOfCells];
                 for(int i = 0; i < numberOfCells; i++) {
-                    states[currentIteration][i] = getCellState(i);
+                    if(getCellState(i) == GameOfLifeStates.ALIVE)
+                        row[i] = 1;
                 }
+                pendingRows.add(row);
                 currentIteration++;
-                if(currentIteration == states.length)
+                if(currentIteration == numberOfIterations)
                     stop();
-                repaint();
             }
         };
+
+        // Create the renderer and the timer that repaints the component.
+        renderer = new Thread(this::render, "AutomatonLineComponent renderer");
+        renderer.setDaemon(true);
+        repaintTimer = new Timer(1000 / refreshRate(), e -> repaintNewRows());
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   C O N S T A N T S
     ///////////////////////////////////////////////////////////////////////////////////////////////
-    
+
     /**
      * The width in pixels of each automaton cell.
      */
     private static final int CELL_WIDTH = 10;
-    
+
     /**
      * The height in pixels of each automaton cell.
      */
     private static final int CELL_HEIGHT = 10;
-    
+
+    /**
+     * The maximum number of generations shown by the component.
+     */
+    private static final int MAX_VISIBLE_ITERATIONS = 1000;
+
+    /**
+     * The refresh rate, in hertz, used when the refresh rate of the display is unknown.
+     */
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    /**
+     * The color of a living cell.
+     */
+    private static final int ALIVE_RGB = 0x000000;
+
+    /**
+     * The color of a dead cell.
+     */
+    private static final int DEAD_RGB = 0xFFFFFF;
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P U B L I C   M E T H O D S
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * This methd initializes this component and the internal automaton.
+     * This methd initializes this component and the internal automaton. A component is initialized
+     * only once; the next calls have no effect.
      */
     public void init() {
+        if(started)
+            return;
+        started = true;
+        renderer.start();
+        repaintTimer.start();
         try {
             automata.init();
         } catch (SensorException | AgentException ex) {
             ex.printStackTrace();
         }
     }
-    
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R O T E C T E D   M E T H O D S
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
     protected void paintComponent(Graphics g) {
-        Graphics2D graphics = (Graphics2D) g;
-        for(int i = 0; i < states.length; i++) {
-            for(int j = 0; j < states[i].length; j++) {
-                if(states[i][j] == GameOfLifeStates.ALIVE)
-                    graphics.setPaint(Color.BLACK);
-                else
-                    graphics.setPaint(Color.WHITE);
-                graphics.fillRect(j * CELL_HEIGHT, i * CELL_WIDTH, CELL_WIDTH, CELL_HEIGHT);
+        long drawn = rowsDrawn;
+        int width = image.getWidth();
+        int rows = image.getHeight();
+        if(drawn <= rows) {
+            g.drawImage(image, 0, 0, width * CELL_WIDTH, rows * CELL_HEIGHT, null);
+        } else {
+            // The oldest generation is in the row that receives the next one.
+            int oldest = (int) (drawn % rows);
+            int split = (rows - oldest) * CELL_HEIGHT;
+            g.drawImage(image, 0, 0, width * CELL_WIDTH, split, 0, oldest, width, rows, null);
+            g.drawImage(image, 0, split, width * CELL_WIDTH, rows * CELL_HEIGHT, 0, 0, width, oldest, null);
+        }
+        rowsPainted = drawn;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method writes the generations copied by the automaton in the image, until the last
+     * iteration. It is executed by the renderer thread.
+     */
+    private void render() {
+        int width = image.getWidth();
+        int rows = image.getHeight();
+        try {
+            while(rowsDrawn < numberOfIterations) {
+                byte[] row = pendingRows.take();
+                int offset = (int) (rowsDrawn % rows) * width;
+                for(int i = 0; i < width; i++) {
+                    pixels[offset + i] = row[i] != 0 ? ALIVE_RGB : DEAD_RGB;
+                }
+                rowsDrawn++;
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         }
     }
-    
+
+    /**
+     * This method requests a repaint of the component if there are generations that were not
+     * painted yet, and stops the repaint timer after the last iteration is painted. It is
+     * executed by the repaint timer.
+     */
+    private void repaintNewRows() {
+        if(rowsDrawn != rowsPainted)
+            repaint();
+        else if(rowsPainted == numberOfIterations)
+            repaintTimer.stop();
+    }
+
+    /**
+     * This method obtains the refresh rate of the default display.
+     *
+     * @return The refresh rate in hertz; DEFAULT_REFRESH_RATE if it is unknown.
+     */
+    private static int refreshRate() {
+        if(!GraphicsEnvironment.isHeadless()) {
+            DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+            if(mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN)
+                return mode.getRefreshRate();
+        }
+        return DEFAULT_REFRESH_RATE;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   A T T R I B U T E S
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
-    // The states matrix that saves the history of states of each automaton cell.
-    private GameOfLifeStates[][] states;
-    
+    // The number of iterations of the automaton.
+    private final int numberOfIterations;
+
+    // The image with the last generations, one pixel per cell and one row per generation.
+    private final BufferedImage image;
+
+    // The pixels of the image.
+    private final int[] pixels;
+
+    // The generations copied by the automaton and not yet written in the image.
+    private final BlockingQueue<byte[]> pendingRows = new LinkedBlockingQueue<>();
+
+    // The number of generations written in the image.
+    private volatile long rowsDrawn = 0;
+
+    // The number of generations written in the image when it was last painted.
+    private volatile long rowsPainted = 0;
+
+    // The thread that writes the generations in the image.
+    private final Thread renderer;
+
+    // The timer that repaints the component at the refresh rate of the display.
+    private final Timer repaintTimer;
+
+    // True if the component was initialized.
+    private boolean started = false;
+
     // The number of current iteration.
     private int currentIteration = 0;
-    
+
     // The inner automaton.
     private final GameOfLifeLinearAutomaton automata;
 }
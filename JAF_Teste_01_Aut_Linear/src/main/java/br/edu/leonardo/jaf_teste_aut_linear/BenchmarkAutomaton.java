@@ -0,0 +1,93 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A Game of Life linear automaton used to measure the engines. It runs its iterations at full
+ * speed, but each iteration waits in the method onUpdate until the next generation is requested
+ * with the method nextGeneration (the first generation is computed by the initialization), so the
+ * generations are measured through the same path used by a running automaton (the iteration
+ * sensor, the agents and the engine), one at a time.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class BenchmarkAutomaton extends GameOfLifeLinearAutomaton {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new BenchmarkAutomaton where each cell is alive with probability
+     * one half.
+     *
+     * @param numCells The number of cells in the automaton.
+     * @param engine The engine that computes the generations of the automaton.
+     * @param seed The seed of the random initial configuration.
+     */
+    public BenchmarkAutomaton(int numCells, AutomatonEngine engine, long seed) {
+        super(numCells, Duration.ZERO, "", engine);
+        SplittableRandom random = new SplittableRandom(seed);
+        for(int i = 0; i < numCells; i++) {
+            if(random.nextBoolean())
+                setCellState(i, GameOfLifeStates.ALIVE);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method waits for the current generation to be computed and requests the next one.
+     */
+    public void nextGeneration() {
+        computed.acquireUninterruptibly();
+        requested.release();
+    }
+
+    /**
+     * This method stops the automaton and releases the iteration that is waiting.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        requested.release(Integer.MAX_VALUE / 2);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onUpdate() {
+        // The first execution is made by init, before the first iteration.
+        if(!initialized) {
+            initialized = true;
+            return;
+        }
+        computed.release();
+        requested.acquireUninterruptibly();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The generations that were computed and not yet consumed by nextGeneration.
+     */
+    private final Semaphore computed = new Semaphore(0);
+
+    /**
+     * The generations that were requested and not yet started.
+     */
+    private final Semaphore requested = new Semaphore(0);
+
+    /**
+     * True after the execution of onUpdate by init; false otherwise.
+     */
+    private boolean initialized;
+}
@@ -0,0 +1,200 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import br.edu.leonardo.jaf.AgentException;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A headless program that measures the engines of LinearCellularAutomaton, without the user
+ * interface. Each engine runs a BenchmarkAutomaton of each size for a number of warm-up
+ * generations and then for the measured generations, and a line is printed with:
+ * <ul>
+ * <li>the generations per second and the cell updates per second;</li>
+ * <li>the allocation rate of all threads, in MB/s (-1 if the virtual machine cannot measure it);
+ * the bytes allocated by threads that end during the measure are not counted;</li>
+ * <li>the number of garbage collections and their total time, in milliseconds.</li>
+ * </ul>
+ * <p>
+ * The options are (default values in brackets):
+ * <pre>
+ * --engines=AGENTS,BIT_PACKED,...  the engines [AGENTS,BIT_PACKED,PARALLEL]
+ * --sizes=1024,65536,...           the numbers of cells [1024,16384,262144,4194304]
+ * --generations=N                  the measured generations [200]
+ * --warmup=N                       the warm-up generations [50]
+ * --max-agent-cells=N              the largest automaton run with AGENTS [65536]
+ * </pre>
+ * The program exits with status 1 if an option is invalid, and with status 0 after the last
+ * measure.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class BenchmarkRunner {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The options of the benchmark.
+     * @throws SensorException If an error occured during the initialization of an automaton.
+     * @throws AgentException If an error occurred during the initialization of an automaton.
+     */
+    public static void main(String[] args) throws SensorException, AgentException {
+        List<AutomatonEngine> engines = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        int generations = 200;
+        int warmup = 50;
+        int maxAgentCells = 65536;
+        try {
+            for(String arg : args) {
+                String value = arg.substring(arg.indexOf('=') + 1);
+                if(arg.startsWith("--engines=")) {
+                    for(String engine : value.split(",")) {
+                        engines.add(AutomatonEngine.valueOf(engine.trim()));
+                    }
+                } else if(arg.startsWith("--sizes=")) {
+                    for(String size : value.split(",")) {
+                        sizes.add(Integer.parseInt(size.trim()));
+                    }
+                } else if(arg.startsWith("--generations=")) {
+                    generations = Integer.parseInt(value);
+                } else if(arg.startsWith("--warmup=")) {
+                    warmup = Integer.parseInt(value);
+                } else if(arg.startsWith("--max-agent-cells=")) {
+                    maxAgentCells = Integer.parseInt(value);
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        }
+        if(engines.isEmpty()) {
+            engines.add(AutomatonEngine.AGENTS);
+            engines.add(AutomatonEngine.BIT_PACKED);
+            engines.add(AutomatonEngine.PARALLEL);
+        }
+        if(sizes.isEmpty()) {
+            sizes.add(1024);
+            sizes.add(16384);
+            sizes.add(262144);
+            sizes.add(4194304);
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10s %10s %11s %10s %14s %11s %8s %8s",
+                "engine", "cells", "generations", "gen/s", "cell-updates/s", "alloc MB/s", "gc count", "gc ms"));
+        for(AutomatonEngine engine : engines) {
+            for(int size : sizes) {
+                if(engine == AutomatonEngine.AGENTS && size > maxAgentCells)
+                    continue;
+                run(engine, size, warmup, generations);
+            }
+        }
+        // The threads of the agents are not daemons.
+        System.exit(0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method measures an engine with an automaton of a size and prints the results.
+     *
+     * @param engine The engine.
+     * @param size The number of cells.
+     * @param warmup The number of warm-up generations.
+     * @param generations The number of measured generations.
+     * @throws SensorException If an error occured during the initialization of the automaton.
+     * @throws AgentException If an error occurred during the initialization of the automaton.
+     */
+    private static void run(AutomatonEngine engine, int size, int warmup, int generations) throws SensorException, AgentException {
+        BenchmarkAutomaton automaton = new BenchmarkAutomaton(size, engine, SEED);
+        automaton.init();
+        try {
+            for(int g = 0; g < warmup; g++) {
+                automaton.nextGeneration();
+            }
+            long allocatedBefore = allocatedBytes();
+            long gcCountBefore = gcCount();
+            long gcTimeBefore = gcTime();
+            long start = System.nanoTime();
+            for(int g = 0; g < generations; g++) {
+                automaton.nextGeneration();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long allocatedAfter = allocatedBytes();
+            double allocationRate = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : (allocatedAfter - allocatedBefore) / 1e6 / seconds;
+            System.out.println(String.format(Locale.ROOT, "%-10s %10d %11d %10.1f %14.4g %11.1f %8d %8d",
+                    engine, size, generations, generations / seconds, (double) size * generations / seconds,
+                    allocationRate, gcCount() - gcCountBefore, gcTime() - gcTimeBefore));
+        } finally {
+            automaton.stop();
+        }
+    }
+
+    /**
+     * This method obtains the number of bytes allocated by the live threads.
+     *
+     * @return The number of bytes; -1 if the virtual machine cannot measure it.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if(!(threads instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if(!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled())
+            return -1;
+        long total = 0;
+        for(long bytes : allocations.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if(bytes > 0)
+                total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * This method obtains the number of garbage collections since the start of the virtual
+     * machine.
+     *
+     * @return The number of collections.
+     */
+    private static long gcCount() {
+        long count = 0;
+        for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * This method obtains the total time of the garbage collections since the start of the
+     * virtual machine.
+     *
+     * @return The time, in milliseconds.
+     */
+    private static long gcTime() {
+        long time = 0;
+        for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The seed of the initial configurations, so all runs compute the same generations.
+     */
+    private static final long SEED = 49;
+}
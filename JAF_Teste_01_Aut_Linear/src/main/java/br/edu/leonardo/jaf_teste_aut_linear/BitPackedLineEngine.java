@@ -0,0 +1,372 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An engine for automata with two states that stores the line as a bitset, one bit per cell, and
+ * computes each generation 64 cells at a time. The rule of the automaton is compiled once (see
+ * BitRule), and each word of the next generation is computed from the words of the current one
+ * with shifts and masks. The first and the last cells, whose missing neighbour is informed as null
+ * to the rule, are computed separately.
+ * <p>
+ * The line is split into segments of 32 KiB, each one with a copy of the last word of the previous
+ * segment and of the first word of the next one (the halo). Each segment has its own buffers for
+ * the current and the next generations, so the segments of a generation are computed
+ * independently; if the engine has a fork-join pool, they are computed in parallel, and only the
+ * halos are exchanged between generations.
+ * <p>
+ * Only the active region of the line is computed: the engine records which words changed in each
+ * generation (see ActivityMap), and a word is computed only if it or one of its neighbour words
+ * changed, so lines that converge to stable or empty regions are computed in a time proportional
+ * to the words that still change.
+ *
+ * @author Leonardo Vianna do Nascimento
+ * @param <T> The type used to represent states.
+ */
+class BitPackedLineEngine<T> implements LineEngine<T> {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new BitPackedLineEngine with all cells in the first state, which
+     * computes the segments in the current thread.
+     *
+     * @param automaton The automaton whose rule is computed.
+     * @param numCells The number of cells.
+     * @param states The two states of the automaton. The first state is stored as the bit 0 and
+     *               the second one as the bit 1.
+     * @throws IllegalArgumentException If the number of cells is not positive or the number of
+     *                                  states is not two.
+     */
+    BitPackedLineEngine(LinearCellularAutomaton<T> automaton, int numCells, T[] states) {
+        this(automaton, numCells, states, null);
+    }
+
+    /**
+     * This constructor builds a new BitPackedLineEngine with all cells in the first state.
+     *
+     * @param automaton The automaton whose rule is computed.
+     * @param numCells The number of cells.
+     * @param states The two states of the automaton. The first state is stored as the bit 0 and
+     *               the second one as the bit 1.
+     * @param pool The pool that computes the segments in parallel; null to compute them in the
+     *             thread that steps the engine.
+     * @throws IllegalArgumentException If the number of cells is not positive or the number of
+     *                                  states is not two.
+     */
+    BitPackedLineEngine(LinearCellularAutomaton<T> automaton, int numCells, T[] states, ForkJoinPool pool) {
+        if(numCells < 1)
+            throw new IllegalArgumentException("The number of cells must be positive.");
+        if(states.length != 2 || states[0] == null || states[1] == null || states[0].equals(states[1]))
+            throw new IllegalArgumentException("A bit-packed automaton must have two distinct states.");
+        this.automaton = automaton;
+        this.numCells = numCells;
+        this.states = states.clone();
+        this.pool = pool;
+        int words = (numCells + 63) >>> 6;
+        int segments = (words + SEGMENT_WORDS - 1) / SEGMENT_WORDS;
+        current = new long[segments][];
+        next = new long[segments][];
+        for(int s = 0; s < segments; s++) {
+            int length = Math.min(SEGMENT_WORDS, words - s * SEGMENT_WORDS) + 2;
+            current[s] = new long[length];
+            next[s] = new long[length];
+        }
+        tailMask = (numCells & 63) == 0 ? -1L : (1L << (numCells & 63)) - 1;
+        activity = new ActivityMap(words);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getNumOfCells() {
+        return numCells;
+    }
+
+    @Override
+    public T getCellState(int i) {
+        return states[getBit(current, i)];
+    }
+
+    @Override
+    public void setCellState(int i, T state) {
+        if(i < 0 || i >= numCells)
+            throw new IndexOutOfBoundsException("Invalid cell index: " + i + ".");
+        if(states[1].equals(state))
+            setBit(current, i, 1);
+        else if(states[0].equals(state))
+            setBit(current, i, 0);
+        else
+            throw new IllegalArgumentException("The state " + state + " is not a state of the automaton.");
+        activity.mark(i >>> 6);
+    }
+
+    @Override
+    public void step() {
+        if(rule == null)
+            rule = new BitRule<>(automaton, states);
+        long[][] cur = current;
+        long[][] nxt = next;
+        exchangeHalos(cur);
+        if(pool == null || cur.length == 1) {
+            for(int s = 0; s < cur.length; s++) {
+                stepSegment(s);
+            }
+        } else {
+            pool.invoke(new StepTask(0, cur.length));
+        }
+        long[] tail = nxt[nxt.length - 1];
+        tail[tail.length - 2] &= tailMask;
+        if(numCells == 1) {
+            setBit(nxt, 0, rule.nextSingle(getBit(cur, 0)));
+        } else {
+            setBit(nxt, 0, rule.nextFirst(getBit(cur, 0), getBit(cur, 1)));
+            setBit(nxt, numCells - 1, rule.nextLast(getBit(cur, numCells - 2), getBit(cur, numCells - 1)));
+        }
+        // The words of the ends were changed after their changes were recorded.
+        activity.setChange(0, getWord(nxt, 0) != getWord(cur, 0));
+        int lastWord = (numCells - 1) >>> 6;
+        activity.setChange(lastWord, getWord(nxt, lastWord) != getWord(cur, lastWord));
+        activity.swap();
+        current = nxt;
+        next = cur;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method copies the first and the last words of each segment to the halos of its
+     * neighbours. The halos at the ends of the line are always zero.
+     *
+     * @param segments The segments of the current generation.
+     */
+    private static void exchangeHalos(long[][] segments) {
+        for(int s = 0; s < segments.length; s++) {
+            long[] segment = segments[s];
+            int last = segment.length - 1;
+            segment[0] = s > 0 ? segments[s - 1][segments[s - 1].length - 2] : 0;
+            segment[last] = s < segments.length - 1 ? segments[s + 1][1] : 0;
+        }
+    }
+
+    /**
+     * This method computes the next generation of the active words of a segment and records the
+     * words that changed. The words that are not active are not written, because their next state
+     * is their current state, which is already in the buffer of the next generation. The masks of
+     * the rule are copied to local variables, so they are kept in registers during the loop.
+     *
+     * @param s The index of the segment.
+     */
+    private void stepSegment(int s) {
+        long[] cur = current[s];
+        long[] nxt = next[s];
+        BitRule<T> r = rule;
+        long t0 = r.m0, t1 = r.m1, t2 = r.m2, t3 = r.m3, t4 = r.m4, t5 = r.m5, t6 = r.m6, t7 = r.m7;
+        ActivityMap map = activity;
+        int firstMapWord = s * (SEGMENT_WORDS >>> 6);
+        int words = cur.length - 2;
+        for(int m = 0; (m << 6) < words; m++) {
+            long active = map.getActive(firstMapWord + m, 1);
+            long changes = 0;
+            if(active == -1L) {
+                // All the 64 words are active: stream them, keeping the neighbour words in registers.
+                int k = (m << 6) + 1;
+                long previousWord = cur[k - 1];
+                long word = cur[k];
+                for(int j = 0; j < Long.SIZE; j++, k++) {
+                    long nextWord = cur[k + 1];
+                    long left = (word << 1) | (previousWord >>> 63);
+                    long right = (word >>> 1) | (nextWord << 63);
+                    long c0 = (right & t1) | (~right & t0);
+                    long c1 = (right & t3) | (~right & t2);
+                    long c2 = (right & t5) | (~right & t4);
+                    long c3 = (right & t7) | (~right & t6);
+                    long l0 = (word & c1) | (~word & c0);
+                    long l1 = (word & c3) | (~word & c2);
+                    long result = (left & l1) | (~left & l0);
+                    nxt[k] = result;
+                    if(result != word)
+                        changes |= 1L << j;
+                    previousWord = word;
+                    word = nextWord;
+                }
+                active = 0;
+            }
+            while(active != 0) {
+                int j = Long.numberOfTrailingZeros(active);
+                active &= active - 1;
+                int k = (m << 6) + j + 1;
+                long word = cur[k];
+                long left = (word << 1) | (cur[k - 1] >>> 63);
+                long right = (word >>> 1) | (cur[k + 1] << 63);
+                // Shannon expansion of the rule on the right neighbour, the cell and the left neighbour.
+                long c0 = (right & t1) | (~right & t0);
+                long c1 = (right & t3) | (~right & t2);
+                long c2 = (right & t5) | (~right & t4);
+                long c3 = (right & t7) | (~right & t6);
+                long l0 = (word & c1) | (~word & c0);
+                long l1 = (word & c3) | (~word & c2);
+                long nextWord = (left & l1) | (~left & l0);
+                nxt[k] = nextWord;
+                if(nextWord != word)
+                    changes |= 1L << j;
+            }
+            map.setChanges(firstMapWord + m, changes);
+        }
+    }
+
+    /**
+     * This method obtains a word of the line.
+     *
+     * @param segments The segments of the line.
+     * @param w The index of the word in the line.
+     * @return The word.
+     */
+    private static long getWord(long[][] segments, int w) {
+        return segments[w >>> (SEGMENT_CELLS_SHIFT - 6)][(w & (SEGMENT_WORDS - 1)) + 1];
+    }
+
+    /**
+     * This method obtains the bit of a cell.
+     *
+     * @param segments The segments of the line.
+     * @param i The cell index.
+     * @return The bit of the cell.
+     */
+    private static int getBit(long[][] segments, int i) {
+        long[] segment = segments[i >>> SEGMENT_CELLS_SHIFT];
+        return (int) (segment[((i >>> 6) & (SEGMENT_WORDS - 1)) + 1] >>> i) & 1;
+    }
+
+    /**
+     * This method changes the bit of a cell.
+     *
+     * @param segments The segments of the line.
+     * @param i The cell index.
+     * @param bit The new bit of the cell.
+     */
+    private static void setBit(long[][] segments, int i, int bit) {
+        long[] segment = segments[i >>> SEGMENT_CELLS_SHIFT];
+        int k = ((i >>> 6) & (SEGMENT_WORDS - 1)) + 1;
+        segment[k] = (segment[k] & ~(1L << i)) | ((long) bit << i);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The base 2 logarithm of the number of cells of a segment.
+     */
+    private static final int SEGMENT_CELLS_SHIFT = 18;
+
+    /**
+     * The number of words of a segment (32 KiB).
+     */
+    private static final int SEGMENT_WORDS = 1 << (SEGMENT_CELLS_SHIFT - 6);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The automaton whose rule is computed.
+     */
+    private final LinearCellularAutomaton<T> automaton;
+
+    /**
+     * The number of cells.
+     */
+    private final int numCells;
+
+    /**
+     * The two states of the automaton, indexed by their bits.
+     */
+    private final T[] states;
+
+    /**
+     * The pool that computes the segments in parallel; null if they are computed in the thread
+     * that steps the engine.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The mask of the valid bits of the last word.
+     */
+    private final long tailMask;
+
+    /**
+     * The segments of the current generation. The first and the last words of each segment are
+     * its halos; the cell i is the bit (i mod 64) of the word (i / 64) of the line.
+     */
+    private long[][] current;
+
+    /**
+     * The segments where the next generation is computed.
+     */
+    private long[][] next;
+
+    /**
+     * The compiled rule of the automaton; null until the first generation is computed.
+     */
+    private BitRule<T> rule;
+
+    /**
+     * The words of the line that changed in the last generation.
+     */
+    private final ActivityMap activity;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A task that computes the next generation of a range of segments, splitting the range in
+     * halves until each task has a single segment.
+     */
+    private class StepTask extends RecursiveAction {
+
+        /**
+         * The serialization version of the task.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * This constructor builds a new StepTask.
+         *
+         * @param start The index of the first segment of the range, inclusive.
+         * @param end The index of the last segment of the range, exclusive.
+         */
+        StepTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start == 1) {
+                stepSegment(start);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new StepTask(start, middle), new StepTask(middle, end));
+        }
+
+        /**
+         * The index of the first segment of the range, inclusive.
+         */
+        private final int start;
+
+        /**
+         * The index of the last segment of the range, exclusive.
+         */
+        private final int end;
+    }
+}
@@ -0,0 +1,204 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+/**
+ * The rule of an automaton with two states, compiled into masks that compute the next state of
+ * 64 cells at a time. The rule is probed once, over the eight combinations of states of a cell and
+ * its neighbours, and over the combinations where a neighbour is missing (informed as null to the
+ * rule), which are used for the cells at the ends of the line.
+ *
+ * @author Leonardo Vianna do Nascimento
+ * @param <T> The type used to represent states.
+ */
+class BitRule<T> {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new BitRule, probing the rule of the given automaton.
+     *
+     * @param automaton The automaton.
+     * @param states The two states of the automaton. The first state is the bit 0 and the second
+     *               one is the bit 1.
+     * @throws IllegalStateException If the radius of the rule is not 1, or if the rule produces a
+     *                               state that is not one of the two states of the automaton.
+     */
+    BitRule(LinearCellularAutomaton<T> automaton, T[] states) {
+        if(automaton.getRadius() != 1)
+            throw new IllegalStateException("A bit-packed automaton supports only rules of radius 1.");
+        this.automaton = automaton;
+        this.states = states;
+        long[] masks = new long[8];
+        for(int i = 0; i < 8; i++) {
+            masks[i] = -probe(states[i >>> 2], states[(i >>> 1) & 1], states[i & 1]);
+        }
+        m0 = masks[0];
+        m1 = masks[1];
+        m2 = masks[2];
+        m3 = masks[3];
+        m4 = masks[4];
+        m5 = masks[5];
+        m6 = masks[6];
+        m7 = masks[7];
+        for(int i = 0; i < 4; i++) {
+            firstCell[i] = probe(null, states[i >>> 1], states[i & 1]);
+            lastCell[i] = probe(states[i >>> 1], states[i & 1], null);
+        }
+        for(int i = 0; i < 2; i++) {
+            singleCell[i] = probe(null, states[i], null);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method computes the next state of 64 cells that have both neighbours.
+     *
+     * @param left The states of the left neighbours of the cells.
+     * @param cells The states of the cells.
+     * @param right The states of the right neighbours of the cells.
+     * @return The next states of the cells.
+     */
+    long next(long left, long cells, long right) {
+        // Shannon expansion of the rule on the right neighbour, the cell and the left neighbour.
+        long c0 = (right & m1) | (~right & m0);
+        long c1 = (right & m3) | (~right & m2);
+        long c2 = (right & m5) | (~right & m4);
+        long c3 = (right & m7) | (~right & m6);
+        long l0 = (cells & c1) | (~cells & c0);
+        long l1 = (cells & c3) | (~cells & c2);
+        return (left & l1) | (~left & l0);
+    }
+
+    /**
+     * This method computes the next state of 64 cells whose neighbours can be missing.
+     *
+     * @param left The states of the left neighbours of the cells.
+     * @param cells The states of the cells.
+     * @param right The states of the right neighbours of the cells.
+     * @param noLeft The cells that do not have a left neighbour.
+     * @param noRight The cells that do not have a right neighbour.
+     * @return The next states of the cells.
+     */
+    long next(long left, long cells, long right, long noLeft, long noRight) {
+        long both = next(left, cells, right);
+        long first = select(cells, right, firstCell);
+        long last = select(left, cells, lastCell);
+        long single = (cells & -singleCell[1]) | (~cells & -singleCell[0]);
+        return (~noLeft & ~noRight & both) | (noLeft & ~noRight & first)
+                | (~noLeft & noRight & last) | (noLeft & noRight & single);
+    }
+
+    /**
+     * This method obtains the next bit of the first cell of a line.
+     *
+     * @param cell The bit of the cell.
+     * @param right The bit of its right neighbour.
+     * @return The next bit of the cell.
+     */
+    int nextFirst(int cell, int right) {
+        return firstCell[cell << 1 | right];
+    }
+
+    /**
+     * This method obtains the next bit of the last cell of a line.
+     *
+     * @param left The bit of its left neighbour.
+     * @param cell The bit of the cell.
+     * @return The next bit of the cell.
+     */
+    int nextLast(int left, int cell) {
+        return lastCell[left << 1 | cell];
+    }
+
+    /**
+     * This method obtains the next bit of the cell of a line with a single cell.
+     *
+     * @param cell The bit of the cell.
+     * @return The next bit of the cell.
+     */
+    int nextSingle(int cell) {
+        return singleCell[cell];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method computes a function of two bits for 64 pairs of bits at a time.
+     *
+     * @param a The first bits.
+     * @param b The second bits.
+     * @param table The values of the function, indexed by (a &lt;&lt; 1 | b).
+     * @return The values of the function.
+     */
+    private static long select(long a, long b, int[] table) {
+        long b0 = (b & -table[1]) | (~b & -table[0]);
+        long b1 = (b & -table[3]) | (~b & -table[2]);
+        return (a & b1) | (~a & b0);
+    }
+
+    /**
+     * This method computes the rule of the automaton for a cell and its neighbours.
+     *
+     * @param previousCellState The state of the cell at the left side; null if there is no
+     *                          previous cell.
+     * @param cellState The state of the cell.
+     * @param nextCellState The state of the cell at the right side; null if there is no next cell.
+     * @return The bit of the next state.
+     * @throws IllegalStateException If the rule produces a state that is not one of the two
+     *                               states of the automaton.
+     */
+    private int probe(T previousCellState, T cellState, T nextCellState) {
+        T state = automaton.generateNextCellState(previousCellState, cellState, nextCellState);
+        if(states[1].equals(state))
+            return 1;
+        if(states[0].equals(state))
+            return 0;
+        throw new IllegalStateException("The rule of the automaton produced the state " + state + ", which is not a state of the automaton.");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The masks of the rule: the mask mN has all bits set if the next state of a cell whose left
+     * neighbour, state and right neighbour are the bits of N is 1, and no bits set otherwise.
+     * They are read directly by the loops that copy them to local variables.
+     */
+    final long m0, m1, m2, m3, m4, m5, m6, m7;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The automaton whose rule is compiled.
+     */
+    private final LinearCellularAutomaton<T> automaton;
+
+    /**
+     * The two states of the automaton, indexed by their bits.
+     */
+    private final T[] states;
+
+    /**
+     * The next bit of the first cell, indexed by the bits of the cell and of its right neighbour.
+     */
+    private final int[] firstCell = new int[4];
+
+    /**
+     * The next bit of the last cell, indexed by the bits of its left neighbour and of the cell.
+     */
+    private final int[] lastCell = new int[4];
+
+    /**
+     * The next bit of the cell of a line with a single cell, indexed by the bit of the cell.
+     */
+    private final int[] singleCell = new int[2];
+}
@@ -121,12 +121,15 @@ public abstract class CellAgent<T> extends Agent {
                 new Behaviour() {
                     @Override
                     public void execute(SensorNotification notification) {
-                        nextState = generateNextState(
-                                previousAgent == null ? null : previousAgent.currentState, 
-                                currentState, 
-                                nextAgent == null ? null : nextAgent.currentState
-                        );
-                        onNextStateGenerated();
+                        try {
+                            nextState = generateNextState(
+                                    previousAgent == null ? null : previousAgent.currentState, 
+                                    currentState, 
+                                    nextAgent == null ? null : nextAgent.currentState
+                            );
+                        } finally {
+                            onNextStateGenerated();
+                        }
                     }
                 }, 
                 sensor
@@ -147,7 +150,8 @@ public abstract class CellAgent<T> extends Agent {
     
     /**
      * This method should be implemented if subclasses want to specify something to be done after the 
-     * agent generates his next state.
+     * agent generates his next state. It is executed even if the generation of the next state
+     * throws an exception.
      */
     protected abstract void onNextStateGenerated();
     
@@ -0,0 +1,32 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+/**
+ * The rule of a linear cellular automaton with a finite set of states, expressed over the indices
+ * of the states instead of the states themselves. It is used by the engine ARRAY, which stores the
+ * index of the state of each cell in a primitive array, so the rule is computed without boxing
+ * and can be inlined in the loop that computes each generation.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+@FunctionalInterface
+public interface CellRule {
+
+    /**
+     * The value informed as the state of a missing neighbour (the left neighbour of the first cell
+     * and the right neighbour of the last one).
+     */
+    int NONE = -1;
+
+    /**
+     * This method computes the next state of a cell.
+     *
+     * @param left The index of the state of the cell at the left side; NONE if there is no
+     *             previous cell.
+     * @param self The index of the current state of the cell.
+     * @param right The index of the state of the cell at the right side; NONE if there is no next
+     *              cell.
+     * @return The index of the next state of the cell, which must be a valid index of a state of
+     *         the automaton.
+     */
+    int next(int left, int self, int right);
+}
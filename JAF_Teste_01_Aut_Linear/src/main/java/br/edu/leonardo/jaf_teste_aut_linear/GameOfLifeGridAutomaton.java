@@ -0,0 +1,48 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import java.time.Duration;
+
+/**
+ * The implementation of Conway's Game of Life: a dead cell with three live neighbours becomes
+ * alive, and a live cell with two or three live neighbours stays alive.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class GameOfLifeGridAutomaton extends GridCellularAutomaton {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new GameOfLifeGridAutomaton with the given width, height,
+     * updatePeriod and initialConfig.
+     *
+     * @param width The number of columns of the grid.
+     * @param height The number of rows of the grid.
+     * @param updatePeriod The time period between successive updates.
+     * @param initialConfig The initial configuration of the rows at the top of the grid, one String
+     *                      per row, where "*" indicates a living cell and "-" indicates a dead
+     *                      cell. The cells outside the configuration are dead.
+     */
+    public GameOfLifeGridAutomaton(int width, int height, Duration updatePeriod, String... initialConfig) {
+        super(width, height, updatePeriod, GridNeighbourhood.MOORE);
+
+        for(int y = 0; y < initialConfig.length && y < height; y++) {
+            String row = initialConfig[y];
+            for(int x = 0; x < row.length() && x < width; x++) {
+                if(row.charAt(x) == '*')
+                    setCellState(x, y, true);
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected boolean generateNextCellState(boolean alive, int liveNeighbours) {
+        return liveNeighbours == 3 || (alive && liveNeighbours == 2);
+    }
+}
@@ -23,7 +23,21 @@ public abstract class GameOfLifeLinearAutomaton extends LinearCellularAutomaton<
      *                      a living cell and "-" indicates a dead cell.
      */
     public GameOfLifeLinearAutomaton(int numCells, Duration updatePeriod, String initialConfig) {
-        super(numCells, updatePeriod);
+        this(numCells, updatePeriod, initialConfig, AutomatonEngine.AGENTS);
+    }
+
+    /**
+     * This constructor builds a new GameOfLifeLinearAutomaton with the given numCells, updatePeriod,
+     * initialConfig and engine.
+     * 
+     * @param numCells The number of cells in the automaton.
+     * @param updatePeriod The time period between successive updates.
+     * @param initialConfig The initial configuration of the automaton in a String, where "*" indicates
+     *                      a living cell and "-" indicates a dead cell.
+     * @param engine The engine that computes the generations of the automaton.
+     */
+    public GameOfLifeLinearAutomaton(int numCells, Duration updatePeriod, String initialConfig, AutomatonEngine engine) {
+        super(numCells, updatePeriod, engine, new GameOfLifeStates[] {GameOfLifeStates.DEAD, GameOfLifeStates.ALIVE});
         
         for(int i = 0; i < numCells; i++) {
             if(i >= initialConfig.length() || initialConfig.charAt(i) == '-')
@@ -55,5 +69,15 @@ public abstract class GameOfLifeLinearAutomaton extends LinearCellularAutomaton<
             else
                 return GameOfLifeStates.DEAD;
         }
+    }
+
+    @Override
+    protected CellRule getCellRule() {
+        // The indices of the states DEAD and ALIVE are 0 and 1, so a missing neighbour is dead.
+        return (left, self, right) -> {
+            int previous = left == CellRule.NONE ? 0 : left;
+            int next = right == CellRule.NONE ? 0 : right;
+            return self == 1 ? previous ^ next : previous | next;
+        };
     }    
 }
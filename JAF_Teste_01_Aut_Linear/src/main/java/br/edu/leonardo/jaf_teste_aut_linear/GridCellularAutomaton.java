@@ -0,0 +1,247 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import br.edu.leonardo.jaf.Agent;
+import br.edu.leonardo.jaf.AgentException;
+import br.edu.leonardo.jaf.Behaviour;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A generic two-dimensional cellular automaton whose cells are dead or alive, such as Conway's
+ * Game of Life. The next state of a cell depends on its state and on the number of live cells of
+ * its neighbourhood (see GridNeighbourhood); the cells outside the grid are dead.
+ * <p>
+ * The grid is stored in bit-packed tiles (see TiledGridEngine), which are computed in parallel by
+ * an agent on each iteration. As in LinearCellularAutomaton, the iterations are lock-step and are
+ * notified by an IterationSensor: the method onUpdate is executed after each generation is
+ * computed, and the next iteration only starts after onUpdate.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class GridCellularAutomaton {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new GridCellularAutomaton with all cells dead, which computes the
+     * tiles in the common fork-join pool.
+     *
+     * @param width The number of columns of the grid.
+     * @param height The number of rows of the grid.
+     * @param updatePeriod The time period between successive updates.
+     * @param neighbourhood The neighbourhood of the cells.
+     * @throws IllegalArgumentException If the width or the height is not positive, or if the grid
+     *                                  is too large.
+     */
+    public GridCellularAutomaton(int width, int height, Duration updatePeriod, GridNeighbourhood neighbourhood) {
+        this(width, height, updatePeriod, neighbourhood, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This constructor builds a new GridCellularAutomaton with all cells dead.
+     *
+     * @param width The number of columns of the grid.
+     * @param height The number of rows of the grid.
+     * @param updatePeriod The time period between successive updates.
+     * @param neighbourhood The neighbourhood of the cells.
+     * @param pool The pool that computes the tiles in parallel; null to compute them in the thread
+     *             of the agent of the automaton.
+     * @throws IllegalArgumentException If the width or the height is not positive, or if the grid
+     *                                  is too large.
+     */
+    public GridCellularAutomaton(int width, int height, Duration updatePeriod, GridNeighbourhood neighbourhood, ForkJoinPool pool) {
+        internalSensor = new IterationSensor(updatePeriod) {
+            @Override
+            protected void onTickCommitted(long tick) {
+                onUpdate();
+            }
+        };
+        this.neighbourhood = neighbourhood;
+        engine = new TiledGridEngine(this, width, height, neighbourhood, pool);
+        this.width = width;
+        this.height = height;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method initializes the automaton. The onUpdate method is executed, the agent that
+     * computes the generations is initialized, and the iteration sensor of the automaton is
+     * initialized too. An automaton can be initialized only once.
+     *
+     * @throws SensorException If an error occured during sensor initialization.
+     * @throws AgentException If an error occurred during agent initialization.
+     */
+    public void init() throws SensorException, AgentException {
+        onUpdate();
+        int party = internalSensor.register();
+        Agent stepper = new Agent(true) {
+            @Override
+            protected void setup() throws AgentException {
+                addBehaviour(
+                        new Behaviour() {
+                            @Override
+                            public void execute(SensorNotification notification) {
+                                internalSensor.computeAndArrive(party, engine::step);
+                            }
+                        },
+                        internalSensor
+                );
+            }
+        };
+        stepper.init(false);
+        internalSensor.init();
+    }
+
+    /**
+     * This method stops the automaton iterations.
+     */
+    public void stop() {
+        internalSensor.stop();
+    }
+
+    /**
+     * This method obtains the state of the cell at the given column and row.
+     *
+     * @param x The column of the cell (the first column is zero).
+     * @param y The row of the cell (the first row is zero).
+     * @return True if the cell is alive; false otherwise.
+     * @throws IndexOutOfBoundsException If the cell is outside the grid.
+     */
+    public boolean getCellState(int x, int y) {
+        return engine.getCellState(x, y);
+    }
+
+    /**
+     * This method changes the state of the cell at the given column and row.
+     *
+     * @param x The column of the cell (the first column is zero).
+     * @param y The row of the cell (the first row is zero).
+     * @param alive True if the cell must be alive; false otherwise.
+     * @throws IndexOutOfBoundsException If the cell is outside the grid.
+     */
+    public void setCellState(int x, int y, boolean alive) {
+        engine.setCellState(x, y, alive);
+    }
+
+    /**
+     * This method obtains the number of live cells of the grid.
+     *
+     * @return The number of live cells.
+     */
+    public long getPopulation() {
+        return engine.getPopulation();
+    }
+
+    /**
+     * This method computes the given number of generations in the current thread, without
+     * executing the onUpdate method. It must not be called while the automaton is initialized.
+     *
+     * @param generations The number of generations.
+     * @throws IllegalArgumentException If the number of generations is negative.
+     */
+    public void advance(long generations) {
+        if(generations < 0)
+            throw new IllegalArgumentException("The number of generations cannot be negative.");
+        for(long g = 0; g < generations; g++) {
+            engine.step();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the number of columns of the grid.
+     *
+     * @return The number of columns.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * This method obtains the number of rows of the grid.
+     *
+     * @return The number of rows.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * This method obtains the neighbourhood of the cells.
+     *
+     * @return The neighbourhood.
+     */
+    public GridNeighbourhood getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    /**
+     * This method obtains the reference to the sensor used by this automaton to notify iterations.
+     *
+     * @return The sensor reference.
+     */
+    public IterationSensor getInternalSensor() {
+        return internalSensor;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method must be implemented in concrete subclasses to specify how to obtain a cell's next
+     * state from its current state and the number of live cells of its neighbourhood. The rule is
+     * probed once, before the first generation, for each state and number of live neighbours, so
+     * it must depend only on its arguments.
+     *
+     * @param alive True if the cell is alive; false otherwise.
+     * @param liveNeighbours The number of live cells of the neighbourhood of the cell.
+     * @return True if the cell is alive in the next generation; false otherwise.
+     */
+    protected abstract boolean generateNextCellState(boolean alive, int liveNeighbours);
+
+    /**
+     * This method must be implemented in concrete subclasses to specify what will be done after each
+     * automaton update.
+     */
+    protected abstract void onUpdate();
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of columns of the grid.
+     */
+    private final int width;
+
+    /**
+     * The number of rows of the grid.
+     */
+    private final int height;
+
+    /**
+     * The neighbourhood of the cells.
+     */
+    private final GridNeighbourhood neighbourhood;
+
+    /**
+     * The engine that stores the cells and computes the generations.
+     */
+    private final TiledGridEngine engine;
+
+    /**
+     * The reference to the sensor used by this automaton to notify iterations.
+     */
+    private final IterationSensor internalSensor;
+}
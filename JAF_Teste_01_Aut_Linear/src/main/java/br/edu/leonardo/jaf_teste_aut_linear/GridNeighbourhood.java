@@ -0,0 +1,56 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+/**
+ * The neighbourhoods of the cells of a GridCellularAutomaton.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public enum GridNeighbourhood {
+
+    /**
+     * The eight cells around a cell: the cells at its sides, above and below it, and at its
+     * diagonals (used by Conway's Game of Life).
+     */
+    MOORE(8),
+
+    /**
+     * The four cells at the sides of a cell, above it and below it.
+     */
+    VON_NEUMANN(4);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new GridNeighbourhood.
+     *
+     * @param numOfNeighbours The number of neighbours of a cell.
+     */
+    private GridNeighbourhood(int numOfNeighbours) {
+        this.numOfNeighbours = numOfNeighbours;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the number of neighbours of a cell that is not at the border of the
+     * grid.
+     *
+     * @return The number of neighbours.
+     */
+    public int getNumOfNeighbours() {
+        return numOfNeighbours;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of neighbours of a cell.
+     */
+    private final int numOfNeighbours;
+}
@@ -0,0 +1,622 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+/**
+ * An engine for automata with two states that memoises the evolution of blocks of cells, in the
+ * manner of the HashLife algorithm, so it can compute a large number of generations in jumps of
+ * powers of two. It is intended for long runs of automata whose lines have repeated patterns
+ * (empty, stable or periodic regions), where only the final state is observed.
+ * <p>
+ * The line is a binary tree of nodes: a leaf is a block of 64 cells and a node of level k is a
+ * block of 2^k cells, formed by two nodes of level k - 1. The nodes are hash-consed in a canonical
+ * table, so equal blocks are the same node, wherever and whenever they occur. The result of a node
+ * of level k is the node of level k - 1 at its centre after 2^(k-2) generations (or fewer, for a
+ * smaller jump), which depends only on the node because a cell is influenced by at most one cell
+ * at each side per generation. The result is computed recursively from the results of the
+ * overlapping halves of the node and memoised in the node, so it is computed once for each
+ * distinct block. The blocks of 128 cells are computed directly, 64 cells at a time (see
+ * BitRule).
+ * <p>
+ * The positions outside the line are represented by a third kind of cell, the wall, which never
+ * changes and is seen by its neighbours as a missing cell (null), so the ends of the line follow
+ * exactly the rule of the automaton.
+ * <p>
+ * The canonical table is bounded: when it reaches its maximum number of nodes, it is flushed, and
+ * only the nodes of the current line are kept, without their memoised results. If the table fills
+ * up again during the same jump, the nodes needed by the jump do not fit in the table; it is not
+ * flushed again, which would discard the results the jump is computing, but grows until the end
+ * of the jump, and it is flushed at the next jump. The cells can be
+ * read and changed between jumps; the line is converted between the tree and a bitset when needed.
+ *
+ * @author Leonardo Vianna do Nascimento
+ * @param <T> The type used to represent states.
+ */
+class HashLifeLineEngine<T> implements LineEngine<T> {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The default maximum number of nodes of the canonical table (about 60 MiB).
+     */
+    static final int DEFAULT_MAX_NODES = 1 << 20;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new HashLifeLineEngine with all cells in the first state.
+     *
+     * @param automaton The automaton whose rule is computed.
+     * @param numCells The number of cells.
+     * @param states The two states of the automaton. The first state is stored as the bit 0 and
+     *               the second one as the bit 1.
+     * @param maxNodes The maximum number of nodes of the canonical table. A jump that needs more
+     *                 nodes than this limit exceeds it until the jump ends.
+     * @throws IllegalArgumentException If the number of cells is not positive, the number of
+     *                                  states is not two or the maximum number of nodes is too
+     *                                  small.
+     */
+    HashLifeLineEngine(LinearCellularAutomaton<T> automaton, int numCells, T[] states, int maxNodes) {
+        if(numCells < 1)
+            throw new IllegalArgumentException("The number of cells must be positive.");
+        if(states.length != 2 || states[0] == null || states[1] == null || states[0].equals(states[1]))
+            throw new IllegalArgumentException("A HashLife automaton must have two distinct states.");
+        setMaxNodes(maxNodes);
+        this.automaton = automaton;
+        this.numCells = numCells;
+        this.states = states.clone();
+        flat = new long[(numCells + 63) >>> 6];
+        tailMask = (numCells & 63) == 0 ? -1L : (1L << (numCells & 63)) - 1;
+        flatValid = true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getNumOfCells() {
+        return numCells;
+    }
+
+    @Override
+    public T getCellState(int i) {
+        if(i < 0 || i >= numCells)
+            throw new IndexOutOfBoundsException("Invalid cell index: " + i + ".");
+        ensureFlat();
+        return states[(int) (flat[i >>> 6] >>> i) & 1];
+    }
+
+    @Override
+    public void setCellState(int i, T state) {
+        if(i < 0 || i >= numCells)
+            throw new IndexOutOfBoundsException("Invalid cell index: " + i + ".");
+        ensureFlat();
+        if(states[1].equals(state))
+            flat[i >>> 6] |= 1L << i;
+        else if(states[0].equals(state))
+            flat[i >>> 6] &= ~(1L << i);
+        else
+            throw new IllegalArgumentException("The state " + state + " is not a state of the automaton.");
+        root = null;
+    }
+
+    @Override
+    public void step() {
+        step(1);
+    }
+
+    @Override
+    public void step(long generations) {
+        if(generations < 0)
+            throw new IllegalArgumentException("The number of generations cannot be negative.");
+        if(generations == 0)
+            return;
+        if(rule == null)
+            rule = new BitRule<>(automaton, states);
+        ensureTree();
+        for(int exp = 62; exp >= 0; exp--) {
+            if((generations >>> exp & 1) != 0)
+                jump(exp);
+        }
+        flatValid = false;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method changes the maximum number of nodes of the canonical table. Each node uses
+     * about 60 bytes. A jump that needs more nodes than this limit exceeds it until the jump
+     * ends.
+     *
+     * @param maxNodes The maximum number of nodes.
+     * @throws IllegalArgumentException If the maximum number of nodes is less than 4096.
+     */
+    final void setMaxNodes(int maxNodes) {
+        if(maxNodes < MIN_NODES)
+            throw new IllegalArgumentException("The maximum number of nodes must be at least " + MIN_NODES + ".");
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * This method obtains the number of nodes of the canonical table.
+     *
+     * @return The number of nodes.
+     */
+    int getNumOfNodes() {
+        return size;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method advances the line 2^exp generations.
+     *
+     * @param exp The base 2 logarithm of the number of generations.
+     */
+    private void jump(int exp) {
+        flushedInJump = false;
+        while(root.level < exp + 1) {
+            root = join(root, wall(root.level));
+        }
+        Node w = wall(root.level - 1);
+        Node expanded = join(join(w, root.left), join(root.right, w));
+        root = result(expanded, exp);
+    }
+
+    /**
+     * This method obtains the result of a node: the node at its centre after 2^e generations,
+     * where e is the smallest of exp and (level - 2).
+     *
+     * @param node The node, of level 7 or more.
+     * @param exp The base 2 logarithm of the number of generations of the jump.
+     * @return The result.
+     */
+    private Node result(Node node, int exp) {
+        int e = Math.min(exp, node.level - 2);
+        if(node.result != null && node.resultExp == e)
+            return node.result;
+        Node r;
+        if(node.level == LEAF_LEVEL + 1) {
+            r = computeBlock(node, 1 << e);
+        } else {
+            Node a = node.left;
+            Node b = node.right;
+            Node c = join(a.right, b.left);
+            Node r1, r2, r3;
+            if(e == node.level - 2) {
+                r1 = result(a, exp);
+                r2 = result(c, exp);
+                r3 = result(b, exp);
+            } else {
+                r1 = centre(a);
+                r2 = centre(c);
+                r3 = centre(b);
+            }
+            r = join(result(join(r1, r2), exp), result(join(r2, r3), exp));
+        }
+        node.result = r;
+        node.resultExp = e;
+        return r;
+    }
+
+    /**
+     * This method computes the result of a node of 128 cells directly.
+     *
+     * @param node The node.
+     * @param generations The number of generations (at most 32).
+     * @return The 64 cells at the centre of the node after the generations.
+     */
+    private Node computeBlock(Node node, int generations) {
+        long b0 = node.left.bits;
+        long b1 = node.right.bits;
+        long w0 = node.left.walls;
+        long w1 = node.right.walls;
+        // The cells at the borders of the block are wrong after each generation, but they are
+        // not needed to compute the centre.
+        if((w0 | w1) == 0) {
+            for(int g = 0; g < generations; g++) {
+                long n0 = rule.next(b0 << 1, b0, (b0 >>> 1) | (b1 << 63));
+                long n1 = rule.next((b1 << 1) | (b0 >>> 63), b1, b1 >>> 1);
+                b0 = n0;
+                b1 = n1;
+            }
+        } else {
+            long lw0 = w0 << 1;
+            long lw1 = (w1 << 1) | (w0 >>> 63);
+            long rw0 = (w0 >>> 1) | (w1 << 63);
+            long rw1 = w1 >>> 1;
+            for(int g = 0; g < generations; g++) {
+                long n0 = rule.next(b0 << 1, b0, (b0 >>> 1) | (b1 << 63), lw0, rw0) & ~w0;
+                long n1 = rule.next((b1 << 1) | (b0 >>> 63), b1, b1 >>> 1, lw1, rw1) & ~w1;
+                b0 = n0;
+                b1 = n1;
+            }
+        }
+        return leaf((b0 >>> 32) | (b1 << 32), (w0 >>> 32) | (w1 << 32));
+    }
+
+    /**
+     * This method obtains the node at the centre of a node, without advancing generations.
+     *
+     * @param node The node, of level 7 or more.
+     * @return The node of the previous level formed by the cells at the centre of the node.
+     */
+    private Node centre(Node node) {
+        if(node.level == LEAF_LEVEL + 1)
+            return leaf((node.left.bits >>> 32) | (node.right.bits << 32),
+                    (node.left.walls >>> 32) | (node.right.walls << 32));
+        return join(node.left.right, node.right.left);
+    }
+
+    /**
+     * This method obtains the node formed only by walls of a level.
+     *
+     * @param level The level.
+     * @return The node.
+     */
+    private Node wall(int level) {
+        Node w = wallNodes[level];
+        if(w == null) {
+            w = level == LEAF_LEVEL ? leaf(0, -1L) : join(wall(level - 1), wall(level - 1));
+            wallNodes[level] = w;
+        }
+        return w;
+    }
+
+    /**
+     * This method builds the tree of the line from its bitset, if the tree is not valid.
+     */
+    private void ensureTree() {
+        if(root != null)
+            return;
+        int level = LEAF_LEVEL + 1;
+        while((1L << (level - LEAF_LEVEL)) < flat.length) {
+            level++;
+        }
+        Node[] nodes = new Node[1 << (level - LEAF_LEVEL)];
+        for(int q = 0; q < nodes.length; q++) {
+            if(q < flat.length)
+                nodes[q] = leaf(flat[q], q == flat.length - 1 ? ~tailMask : 0);
+            else
+                nodes[q] = wall(LEAF_LEVEL);
+        }
+        for(int count = nodes.length / 2; count >= 1; count /= 2) {
+            for(int i = 0; i < count; i++) {
+                nodes[i] = join(nodes[2 * i], nodes[2 * i + 1]);
+            }
+        }
+        root = nodes[0];
+    }
+
+    /**
+     * This method copies the cells of the tree to the bitset, if the bitset is not valid.
+     */
+    private void ensureFlat() {
+        if(flatValid)
+            return;
+        collect(root, 0);
+        flat[flat.length - 1] &= tailMask;
+        flatValid = true;
+    }
+
+    /**
+     * This method copies the cells of a node to the bitset.
+     *
+     * @param node The node.
+     * @param firstWord The index of the word of the first cell of the node.
+     */
+    private void collect(Node node, long firstWord) {
+        if(firstWord >= flat.length)
+            return;
+        if(node.level == LEAF_LEVEL) {
+            flat[(int) firstWord] = node.bits;
+            return;
+        }
+        collect(node.left, firstWord);
+        collect(node.right, firstWord + (1L << (node.level - LEAF_LEVEL - 1)));
+    }
+
+    /**
+     * This method obtains the canonical leaf with the given cells.
+     *
+     * @param bits The states of the cells.
+     * @param walls The cells that are walls (whose bits are zero).
+     * @return The leaf.
+     */
+    private Node leaf(long bits, long walls) {
+        long h = (bits * 0x9E3779B97F4A7C15L) ^ (walls * 0xC2B2AE3D27D4EB4FL);
+        int hash = (int) (h ^ (h >>> 32));
+        for(Node n = buckets[hash & (buckets.length - 1)]; n != null; n = n.chain) {
+            if(n.level == LEAF_LEVEL && n.bits == bits && n.walls == walls)
+                return n;
+        }
+        Node n = new Node(bits, walls, hash);
+        insert(n);
+        return n;
+    }
+
+    /**
+     * This method obtains the canonical node formed by two nodes of the same level.
+     *
+     * @param left The node at the left side.
+     * @param right The node at the right side.
+     * @return The node.
+     */
+    private Node join(Node left, Node right) {
+        int hash = left.hash * 0x9E3779B1 + right.hash;
+        hash ^= hash >>> 15;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        for(Node n = buckets[hash & (buckets.length - 1)]; n != null; n = n.chain) {
+            if(n.left == left && n.right == right)
+                return n;
+        }
+        Node n = new Node(left, right, hash);
+        insert(n);
+        return n;
+    }
+
+    /**
+     * This method inserts a new node in the canonical table, flushing the table if it is full and
+     * it has not been flushed in the current jump.
+     *
+     * @param node The node.
+     */
+    private void insert(Node node) {
+        if(size >= maxNodes && !flushedInJump) {
+            flush();
+            flushedInJump = true;
+        }
+        if(size >= buckets.length - (buckets.length >>> 2))
+            resize();
+        add(node);
+    }
+
+    /**
+     * This method adds a node to the canonical table.
+     *
+     * @param node The node.
+     */
+    private void add(Node node) {
+        int i = node.hash & (buckets.length - 1);
+        node.chain = buckets[i];
+        buckets[i] = node;
+        size++;
+    }
+
+    /**
+     * This method doubles the number of buckets of the canonical table.
+     */
+    private void resize() {
+        Node[] old = buckets;
+        buckets = new Node[old.length * 2];
+        size = 0;
+        for(Node first : old) {
+            Node n = first;
+            while(n != null) {
+                Node next = n.chain;
+                add(n);
+                n = next;
+            }
+        }
+    }
+
+    /**
+     * This method flushes the canonical table: all nodes are removed, except the nodes of the
+     * current line and the walls, whose memoised results are discarded.
+     */
+    private void flush() {
+        buckets = new Node[INITIAL_BUCKETS];
+        size = 0;
+        for(Node w : wallNodes) {
+            if(w != null)
+                keep(w);
+        }
+        if(root != null)
+            keep(root);
+    }
+
+    /**
+     * This method keeps a node and its descendants in the canonical table after a flush.
+     *
+     * @param node The node.
+     */
+    private void keep(Node node) {
+        for(Node n = buckets[node.hash & (buckets.length - 1)]; n != null; n = n.chain) {
+            if(n == node)
+                return;
+        }
+        if(node.level > LEAF_LEVEL) {
+            keep(node.left);
+            keep(node.right);
+        }
+        node.result = null;
+        if(size >= buckets.length - (buckets.length >>> 2))
+            resize();
+        add(node);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The level of the leaves (blocks of 64 cells).
+     */
+    private static final int LEAF_LEVEL = 6;
+
+    /**
+     * The smallest maximum number of nodes of the canonical table.
+     */
+    private static final int MIN_NODES = 4096;
+
+    /**
+     * The initial number of buckets of the canonical table.
+     */
+    private static final int INITIAL_BUCKETS = 1 << 12;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The automaton whose rule is computed.
+     */
+    private final LinearCellularAutomaton<T> automaton;
+
+    /**
+     * The number of cells.
+     */
+    private final int numCells;
+
+    /**
+     * The two states of the automaton, indexed by their bits.
+     */
+    private final T[] states;
+
+    /**
+     * The mask of the valid bits of the last word of the bitset.
+     */
+    private final long tailMask;
+
+    /**
+     * The cells of the line, as a bitset; valid only if flatValid is true.
+     */
+    private final long[] flat;
+
+    /**
+     * True if the bitset has the current cells of the line.
+     */
+    private boolean flatValid;
+
+    /**
+     * The tree of the line, whose first cells are the cells of the line and the other cells are
+     * walls; null if the tree is not valid.
+     */
+    private Node root;
+
+    /**
+     * The compiled rule of the automaton; null until the first generation is computed.
+     */
+    private BitRule<T> rule;
+
+    /**
+     * The maximum number of nodes of the canonical table.
+     */
+    private int maxNodes;
+
+    /**
+     * True if the canonical table was flushed in the current jump; false otherwise.
+     */
+    private boolean flushedInJump;
+
+    /**
+     * The buckets of the canonical table; the nodes of a bucket are linked by their chains.
+     */
+    private Node[] buckets = new Node[INITIAL_BUCKETS];
+
+    /**
+     * The number of nodes of the canonical table.
+     */
+    private int size;
+
+    /**
+     * The nodes formed only by walls, indexed by level.
+     */
+    private final Node[] wallNodes = new Node[Long.SIZE + LEAF_LEVEL + 2];
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A canonical block of cells: a leaf of 64 cells or a node formed by two nodes of the previous
+     * level.
+     */
+    private static final class Node {
+
+        /**
+         * This constructor builds a new leaf.
+         *
+         * @param bits The states of the cells.
+         * @param walls The cells that are walls.
+         * @param hash The hash of the leaf.
+         */
+        Node(long bits, long walls, int hash) {
+            this.level = LEAF_LEVEL;
+            this.left = null;
+            this.right = null;
+            this.bits = bits;
+            this.walls = walls;
+            this.hash = hash;
+        }
+
+        /**
+         * This constructor builds a new node.
+         *
+         * @param left The node at the left side.
+         * @param right The node at the right side.
+         * @param hash The hash of the node.
+         */
+        Node(Node left, Node right, int hash) {
+            this.level = left.level + 1;
+            this.left = left;
+            this.right = right;
+            this.bits = 0;
+            this.walls = 0;
+            this.hash = hash;
+        }
+
+        /**
+         * The level of the node: the node has 2^level cells.
+         */
+        final int level;
+
+        /**
+         * The node at the left side; null for a leaf.
+         */
+        final Node left;
+
+        /**
+         * The node at the right side; null for a leaf.
+         */
+        final Node right;
+
+        /**
+         * The states of the cells of a leaf.
+         */
+        final long bits;
+
+        /**
+         * The cells of a leaf that are walls.
+         */
+        final long walls;
+
+        /**
+         * The hash of the node.
+         */
+        final int hash;
+
+        /**
+         * The memoised result of the node; null if it has not been computed.
+         */
+        Node result;
+
+        /**
+         * The base 2 logarithm of the number of generations of the memoised result.
+         */
+        int resultExp;
+
+        /**
+         * The next node of the same bucket of the canonical table.
+         */
+        Node chain;
+    }
+}
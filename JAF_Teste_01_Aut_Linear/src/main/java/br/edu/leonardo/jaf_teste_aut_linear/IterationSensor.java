@@ -1,20 +1,15 @@
 package br.edu.leonardo.jaf_teste_aut_linear;
 
-import br.edu.leonardo.jaf.sensors.Sensor;
-import br.edu.leonardo.jaf.sensors.SensorException;
-import br.edu.leonardo.jaf.sensors.SensorValue;
+import br.edu.leonardo.jaf.simulation.TickSensor;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
- * A sensor that periodically sends a notification.
+ * A sensor that notifies the iterations of an automaton. An iteration starts only after the
+ * previous one is complete, and at least one period after the start of the previous one.
  * 
  * @author Leonardo Vianna do Nascimento
  */
-public class IterationSensor extends Sensor {
+public class IterationSensor extends TickSensor {
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P U B L I C   C O N S T R U C T O R S
@@ -22,46 +17,13 @@ public class IterationSensor extends Sensor {
 
     /**
      * This constructor builds a new IterationSensor that sends notifications after each amount of
-     * time specified in period.
+     * time specified in period. If an iteration takes longer than the period, the next one starts
+     * as soon as it is complete.
      * 
-     * @param period The amount of time between each notification.
+     * @param period The minimum amount of time between each notification; zero to run the
+     *               iterations at full speed.
      */
     public IterationSensor(Duration period) {
-        this.period = period;
+        super(period);
     }
-    
-    ///////////////////////////////////////////////////////////////////////////////////////////////
-    // P U B L I C   M E T H O D S
-    ///////////////////////////////////////////////////////////////////////////////////////////////
-
-    @Override
-    public void init() throws SensorException {
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                newReading(new SensorValue(){});
-            }
-        }, Date.from(Instant.now().plusMillis(500)), period.toMillis());
-    }
-    
-    /**
-     * This method stops the sensor notifications.
-     */
-    public void stop() {
-        timer.cancel();
-    }
-
-    ///////////////////////////////////////////////////////////////////////////////////////////////
-    // P R I V A T E   A T T R I B U T E S
-    ///////////////////////////////////////////////////////////////////////////////////////////////
-
-    /**
-     * The internal timer used to trigger notifications.
-     */
-    private final Timer timer = new Timer();
-    
-    /**
-     * The amount of time between each notification.
-     */
-    private final Duration period;
-}
\ No newline at end of file
+}
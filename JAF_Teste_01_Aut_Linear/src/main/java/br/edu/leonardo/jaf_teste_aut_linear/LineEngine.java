@@ -0,0 +1,56 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+/**
+ * An engine that stores the cells of a LinearCellularAutomaton and computes its generations
+ * without agents. The generations are computed synchronously, in the thread that calls the method
+ * step.
+ *
+ * @author Leonardo Vianna do Nascimento
+ * @param <T> The type used to represent states.
+ */
+interface LineEngine<T> {
+
+    /**
+     * This method obtains the number of cells of the line.
+     *
+     * @return The number of cells.
+     */
+    int getNumOfCells();
+
+    /**
+     * This method obtains the state of a cell.
+     *
+     * @param i The cell index (the first cell is in the index zero).
+     * @return The cell state.
+     */
+    T getCellState(int i);
+
+    /**
+     * This method changes the state of a cell.
+     *
+     * @param i The cell index (the first cell is in the index zero).
+     * @param state The new cell state.
+     * @throws IllegalArgumentException If the engine does not support the state.
+     */
+    void setCellState(int i, T state);
+
+    /**
+     * This method computes the next generation of the line and makes it the current one.
+     */
+    void step();
+
+    /**
+     * This method computes the given number of generations of the line. The default
+     * implementation executes the method step once for each generation.
+     *
+     * @param generations The number of generations.
+     * @throws IllegalArgumentException If the number of generations is negative.
+     */
+    default void step(long generations) {
+        if(generations < 0)
+            throw new IllegalArgumentException("The number of generations cannot be negative.");
+        for(long g = 0; g < generations; g++) {
+            step();
+        }
+    }
+}
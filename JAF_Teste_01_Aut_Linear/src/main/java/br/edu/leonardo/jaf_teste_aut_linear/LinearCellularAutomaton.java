@@ -1,13 +1,23 @@
 package br.edu.leonardo.jaf_teste_aut_linear;
 
+import br.edu.leonardo.jaf.Agent;
 import br.edu.leonardo.jaf.AgentException;
+import br.edu.leonardo.jaf.Behaviour;
 import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * A generic linear cellular automaton. 
+ * A generic linear cellular automaton. By default, each cell is an agent; automata with a finite
+ * set of states can use other engines (see AutomatonEngine), which compute the generations in a
+ * single behaviour executed on each iteration.
+ * <p>
+ * The iterations are lock-step: in each iteration, all cells compute their next states from the
+ * current ones, then all cells change to their next states and the method onUpdate is executed.
+ * The next iteration only starts after onUpdate, so the iterations never overlap.
  * 
  * @author Leonardo Vianna do Nascimento
  * @param <T> The type used to represent states.
@@ -27,31 +37,50 @@ public abstract class LinearCellularAutomaton<T> {
      */
     public LinearCellularAutomaton(int numCells, Duration updatePeriod) {
         
-        internalSensor = new IterationSensor(updatePeriod);
-        
-        // Create the automaton cells.
-        cells = new ArrayList(numCells); 
-        for(int i = 0; i < numCells; i++) {
-            CellAgent<T> c = new CellAgent<T>(internalSensor) {
-                @Override
-                protected T generateNextState(T previousCellState, T cellState, T nextCellState) {
-                   return generateNextCellState(previousCellState, cellState, nextCellState);
-                }
+        internalSensor = createInternalSensor(updatePeriod);
+        engine = null;
+        createCellAgents(numCells);
+    }
 
-                @Override
-                protected void onNextStateGenerated() {
-                    notifyCellUpdate();
+    /**
+     * This constructor builds a new LinearCellularAutomaton with the given number of cells, update
+     * period and engine. All cells start in the first state.
+     * 
+     * @param numCells Number of cells in the automaton.
+     * @param updatePeriod The time period between successive updates.
+     * @param engine The engine that computes the generations of the automaton.
+     * @param states The states of the automaton. The engine AGENTS only uses the first one, as
+     *               the initial state of the cells, and the engine BIT_PACKED, PARALLEL and
+     *               HASHLIFE require exactly two states. The engine ARRAY stores each state as its
+     *               index in this array.
+     * @throws IllegalArgumentException If the engine does not support the number of cells or the
+     *                                  states.
+     */
+    public LinearCellularAutomaton(int numCells, Duration updatePeriod, AutomatonEngine engine, T[] states) {
+        
+        internalSensor = createInternalSensor(updatePeriod);
+        switch(engine) {
+            case BIT_PACKED:
+                this.engine = new BitPackedLineEngine<>(this, numCells, states);
+                break;
+            case PARALLEL:
+                this.engine = new BitPackedLineEngine<>(this, numCells, states, ForkJoinPool.commonPool());
+                break;
+            case ARRAY:
+                this.engine = new ArrayLineEngine<>(this, numCells, states);
+                break;
+            case HASHLIFE:
+                this.engine = new HashLifeLineEngine<>(this, numCells, states, HashLifeLineEngine.DEFAULT_MAX_NODES);
+                break;
+            default:
+                if(states.length == 0)
+                    throw new IllegalArgumentException("An automaton of cell agents must have at least one state.");
+                this.engine = null;
+                createCellAgents(numCells);
+                for(CellAgent<T> c : cells) {
+                    c.setCurrentState(states[0]);
                 }
-                
-            };
-            cells.add(c);
-            
-            // Update the references to the previous and next agents.
-            if(i > 0) {
-                CellAgent<T> prevCell = cells.get(i - 1);
-                c.setPreviousAgent(prevCell);
-                prevCell.setNextAgent(c);
-            }
+                break;
         }
     }
     
@@ -61,15 +90,39 @@ public abstract class LinearCellularAutomaton<T> {
 
     /**
      * This method initializes the automaton. The onUpdate method is executed, all cell agents
-     * are initializes, and the iteration sensor of the automaton is initialized too.
+     * (or the agent that steps the engine of the automaton) are initializes, and the iteration
+     * sensor of the automaton is initialized too. An automaton can be initialized only once.
      * 
      * @throws SensorException If an error occured during sensor initialization.
      * @throws AgentException If an error occurred during agent initialization.
+     * @throws IllegalStateException If the automaton uses cell agents and its rule has a radius
+     *                               greater than 1.
      */
     public void init() throws SensorException, AgentException {
+        if(engine == null && getRadius() != 1)
+            throw new IllegalStateException("Cell agents support only rules of radius 1.");
         onUpdate();
-        for(CellAgent c : cells) {
-            c.init(false);
+        if(engine == null) {
+            for(CellAgent c : cells) {
+                c.init(false);
+            }
+        } else {
+            int party = internalSensor.register();
+            Agent stepper = new Agent(true) {
+                @Override
+                protected void setup() throws AgentException {
+                    addBehaviour(
+                            new Behaviour() {
+                                @Override
+                                public void execute(SensorNotification notification) {
+                                    internalSensor.computeAndArrive(party, engine::step);
+                                }
+                            },
+                            internalSensor
+                    );
+                }
+            };
+            stepper.init(false);
         }
         internalSensor.init();
     }
@@ -86,7 +139,7 @@ public abstract class LinearCellularAutomaton<T> {
      * @return 
      */
     public int getNumOfCells() {
-        return cells.size();
+        return engine == null ? cells.size() : engine.getNumOfCells();
     }
     
     /**
@@ -96,7 +149,7 @@ public abstract class LinearCellularAutomaton<T> {
      * @return The cell state.
      */
     public T getCellState(int i) {
-        return cells.get(i).getCurrentState();
+        return engine == null ? cells.get(i).getCurrentState() : engine.getCellState(i);
     }
 
     /**
@@ -104,9 +157,42 @@ public abstract class LinearCellularAutomaton<T> {
      * 
      * @param i The cell index (the first cell is in the index zero).
      * @param state The new cell state.
+     * @throws IllegalArgumentException If the engine of the automaton does not support the state.
      */
     public void setCellState(int i, T state) {
-        cells.get(i).setCurrentState(state);
+        if(engine == null)
+            cells.get(i).setCurrentState(state);
+        else
+            engine.setCellState(i, state);
+    }
+
+    /**
+     * This method computes the given number of generations in the current thread, without
+     * executing the onUpdate method. The engine HASHLIFE computes them in jumps of powers of two,
+     * so a large number of generations can be computed at once; the other engines compute one
+     * generation at a time. It must not be called while the automaton is initialized.
+     * 
+     * @param generations The number of generations.
+     * @throws IllegalArgumentException If the number of generations is negative.
+     * @throws IllegalStateException If the automaton uses cell agents.
+     */
+    public void advance(long generations) {
+        if(engine == null)
+            throw new IllegalStateException("An automaton of cell agents can only be advanced by its iterations.");
+        engine.step(generations);
+    }
+
+    /**
+     * This method changes the maximum number of blocks of cells whose evolution is memoised by
+     * the engine HASHLIFE. Each block uses about 60 bytes; when the maximum is reached, the
+     * memoised blocks are discarded. Other engines ignore this limit.
+     * 
+     * @param maxNodes The maximum number of memoised blocks.
+     * @throws IllegalArgumentException If the maximum is less than 4096.
+     */
+    public void setMaxMemoisedNodes(int maxNodes) {
+        if(engine instanceof HashLifeLineEngine)
+            ((HashLifeLineEngine<T>) engine).setMaxNodes(maxNodes);
     }
     
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -139,34 +225,112 @@ public abstract class LinearCellularAutomaton<T> {
      */
     protected abstract T generateNextCellState(T previousCellState, T cellState, T nextCellState);
     
+    /**
+     * This method obtains a cell's next state from the states of its neighbourhood: the cells from
+     * i - r to i + r, where i is the index of the cell and r is the radius of the rule (see
+     * getRadius). The default implementation, for rules of radius 1, executes the method
+     * generateNextCellState with the previous cell, the cell and the next cell. Rules with a larger
+     * radius must override this method.
+     * 
+     * @param neighbourhood The states of the cells of the neighbourhood, from the leftmost one; null
+     *                      for the positions outside the line. The array must not be changed or
+     *                      kept after the method returns.
+     * @return The next cell state.
+     */
+    protected T generateNextCellState(T[] neighbourhood) {
+        return generateNextCellState(neighbourhood[0], neighbourhood[1], neighbourhood[2]);
+    }
+    
+    /**
+     * This method can be overridden by subclasses whose rule depends on more than one cell at each
+     * side of a cell. Those subclasses must also override generateNextCellState(T[]) and can only
+     * use the engine ARRAY.
+     * 
+     * @return The number of cells at each side of a cell that determine its next state (1 by
+     *         default).
+     */
+    protected int getRadius() {
+        return 1;
+    }
+    
     /**
      * This method must be implemented in concrete subclasses to specify what will be done after each
      * automaton update.
      */
     protected abstract void onUpdate();
     
+    /**
+     * This method can be overridden by subclasses to specify the rule of the automaton over the
+     * indices of its states (see the constructor with states), which is used by the engine ARRAY
+     * instead of generateNextCellState to compile the rule. Both rules must produce the same
+     * states. It is only used for rules of radius 1.
+     * 
+     * @return The rule over the indices of the states; null if the engine must use
+     *         generateNextCellState (the default).
+     */
+    protected CellRule getCellRule() {
+        return null;
+    }
+    
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   M E T H O D S
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * This method updates all cells in the automaton.
+     * This method creates the sensor that notifies the iterations of the automaton. The method
+     * onUpdate is executed after each iteration is committed.
+     * 
+     * @param updatePeriod The time period between successive updates.
+     * @return The sensor.
      */
-    private void updateCells() {
-        for(CellAgent c : cells) {
-            c.updateState();
-        }
-        onUpdate();
+    private IterationSensor createInternalSensor(Duration updatePeriod) {
+        return new IterationSensor(updatePeriod) {
+            @Override
+            protected void onTickCommitted(long tick) {
+                onUpdate();
+            }
+        };
     }
-    
+
     /**
-     * This method is used to notify the automaton that one of its cells updated his next state.
+     * This method creates the cell agents of the automaton. Each cell is a party of the iteration
+     * sensor, which changes the cell to its next state in the commit phase of each iteration.
+     * 
+     * @param numCells Number of cells in the automaton.
      */
-    private synchronized void notifyCellUpdate() {
-        internalCounter++;
-        if(internalCounter == cells.size()) {
-            updateCells();
-            internalCounter = 0;
+    private void createCellAgents(int numCells) {
+        // Create the automaton cells.
+        cells = new ArrayList(numCells); 
+        for(int i = 0; i < numCells; i++) {
+            // The cells are the only parties of the sensor, so the party of a cell is its index.
+            final int party = i;
+            CellAgent<T> c = new CellAgent<T>(internalSensor) {
+                @Override
+                protected T generateNextState(T previousCellState, T cellState, T nextCellState) {
+                    try {
+                        return generateNextCellState(previousCellState, cellState, nextCellState);
+                    } catch (RuntimeException ex) {
+                        // The cell keeps its state, so the iteration goes on.
+                        internalSensor.fail(party, ex);
+                        return cellState;
+                    }
+                }
+
+                @Override
+                protected void onNextStateGenerated() {
+                    internalSensor.arrive(party);
+                }
+                
+            };
+            cells.add(c);
+            internalSensor.register(tick -> c.updateState());
+            
+            // Update the references to the previous and next agents.
+            if(i > 0) {
+                CellAgent<T> prevCell = cells.get(i - 1);
+                c.setPreviousAgent(prevCell);
+                prevCell.setNextAgent(c);
+            }
         }
     }
     
@@ -175,18 +339,17 @@ public abstract class LinearCellularAutomaton<T> {
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * The cells of the automaton.
+     * The cells of the automaton; null if the automaton uses an engine.
      */   
     private List<CellAgent<T>> cells;
     
     /**
-     * The reference to the sensor used by this automaton to notify iterations to the cell agents.
+     * The engine that computes the generations of the automaton; null if each cell is an agent.
      */
-    private final IterationSensor internalSensor;
+    private final LineEngine<T> engine;
     
     /**
-     * The internal counter used to count the number of agents that notified updates in each iteration.
-     * This counter is set to zero when a new iteration starts.
+     * The reference to the sensor used by this automaton to notify iterations to the cell agents.
      */
-    private int internalCounter;
+    private final IterationSensor internalSensor;
 }
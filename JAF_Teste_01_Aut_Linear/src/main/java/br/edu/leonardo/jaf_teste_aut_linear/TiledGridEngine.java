@@ -0,0 +1,497 @@
+package br.edu.leonardo.jaf_teste_aut_linear;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The engine of a GridCellularAutomaton. The grid is divided into tiles of 64 x 64 cells, and
+ * each tile is stored as 64 words, one bit per cell: the cell (x, y) is the bit (x mod 64) of the
+ * word (y mod 64) of its tile. An empty tile (without live cells) is not stored, so the memory
+ * used by the grid is proportional to its live region; a full grid of 65536 x 65536 cells uses
+ * about 1 GiB (two buffers of 512 MiB).
+ * <p>
+ * Each generation is computed tile by tile, 64 cells at a time: the tile reads the border rows and
+ * columns of its eight neighbour tiles of the current generation (its halo), which are not changed
+ * until all tiles are computed, and the number of live cells of each neighbourhood is computed by
+ * bit-sliced adders. The rule of the automaton is probed once, for each state and number of live
+ * neighbours. The tiles whose neighbour tiles are all empty are skipped (unless the rule gives
+ * birth to cells without live neighbours), and the rows of tiles are computed in parallel in a
+ * fork-join pool.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class TiledGridEngine {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TiledGridEngine with all cells dead.
+     *
+     * @param automaton The automaton whose rule is computed.
+     * @param width The number of columns of the grid.
+     * @param height The number of rows of the grid.
+     * @param neighbourhood The neighbourhood of the cells.
+     * @param pool The pool that computes the rows of tiles in parallel; null to compute them in the
+     *             thread that steps the engine.
+     * @throws IllegalArgumentException If the width or the height is not positive, or if the grid
+     *                                  has too many tiles.
+     */
+    TiledGridEngine(GridCellularAutomaton automaton, int width, int height, GridNeighbourhood neighbourhood, ForkJoinPool pool) {
+        if(width < 1 || height < 1)
+            throw new IllegalArgumentException("The width and the height of the grid must be positive.");
+        long tiles = (long) (((width - 1) >>> TILE_SHIFT) + 1) * (((height - 1) >>> TILE_SHIFT) + 1);
+        if(tiles > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("The grid is too large.");
+        this.automaton = automaton;
+        this.width = width;
+        this.height = height;
+        this.neighbourhood = neighbourhood;
+        this.pool = pool;
+        tilesX = ((width - 1) >>> TILE_SHIFT) + 1;
+        tilesY = ((height - 1) >>> TILE_SHIFT) + 1;
+        lastColumnMask = (width & (TILE_SIZE - 1)) == 0 ? -1L : (1L << (width & (TILE_SIZE - 1))) - 1;
+        lastTileRows = height - ((tilesY - 1) << TILE_SHIFT);
+        current = new long[(int) tiles][];
+        next = new long[(int) tiles][];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the state of a cell.
+     *
+     * @param x The column of the cell (the first column is zero).
+     * @param y The row of the cell (the first row is zero).
+     * @return True if the cell is alive; false otherwise.
+     * @throws IndexOutOfBoundsException If the cell is outside the grid.
+     */
+    boolean getCellState(int x, int y) {
+        long[] tile = current[tileIndex(x, y)];
+        return tile != null && (tile[y & (TILE_SIZE - 1)] >>> x & 1) != 0;
+    }
+
+    /**
+     * This method changes the state of a cell.
+     *
+     * @param x The column of the cell (the first column is zero).
+     * @param y The row of the cell (the first row is zero).
+     * @param alive True if the cell must be alive; false otherwise.
+     * @throws IndexOutOfBoundsException If the cell is outside the grid.
+     */
+    void setCellState(int x, int y, boolean alive) {
+        int t = tileIndex(x, y);
+        long[] tile = current[t];
+        if(tile == null) {
+            if(!alive)
+                return;
+            tile = new long[TILE_SIZE];
+            current[t] = tile;
+        }
+        if(alive) {
+            tile[y & (TILE_SIZE - 1)] |= 1L << x;
+        } else {
+            tile[y & (TILE_SIZE - 1)] &= ~(1L << x);
+            if(isEmpty(tile))
+                current[t] = null;
+        }
+    }
+
+    /**
+     * This method obtains the number of live cells of the grid.
+     *
+     * @return The number of live cells.
+     */
+    long getPopulation() {
+        long population = 0;
+        for(long[] tile : current) {
+            if(tile != null) {
+                for(long row : tile) {
+                    population += Long.bitCount(row);
+                }
+            }
+        }
+        return population;
+    }
+
+    /**
+     * This method obtains the number of tiles that are stored (the tiles with live cells).
+     *
+     * @return The number of tiles.
+     */
+    int getNumOfTiles() {
+        int count = 0;
+        for(long[] tile : current) {
+            if(tile != null)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * This method computes the next generation of the grid and makes it the current one.
+     */
+    void step() {
+        if(ruleSums == null)
+            compileRule();
+        if(pool == null || tilesY == 1)
+            stepRows(0, tilesY, new long[TILE_SIZE]);
+        else
+            pool.invoke(new StepTask(0, tilesY));
+        long[][] swap = current;
+        current = next;
+        next = swap;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method probes the rule of the automaton for each state and number of live neighbours.
+     * The rule is stored as the sums (the number of live cells of the neighbourhood, including the
+     * cell) for which a cell is alive in the next generation.
+     */
+    private void compileRule() {
+        int neighbours = neighbourhood.getNumOfNeighbours();
+        int[] sums = new int[neighbours + 2];
+        long[] dead = new long[neighbours + 2];
+        long[] alive = new long[neighbours + 2];
+        int count = 0;
+        for(int sum = 0; sum <= neighbours + 1; sum++) {
+            boolean birth = sum <= neighbours && automaton.generateNextCellState(false, sum);
+            boolean survival = sum >= 1 && automaton.generateNextCellState(true, sum - 1);
+            if(birth || survival) {
+                sums[count] = sum;
+                dead[count] = birth ? -1L : 0;
+                alive[count] = survival ? -1L : 0;
+                count++;
+            }
+        }
+        skipEmpty = !automaton.generateNextCellState(false, 0);
+        ruleDead = Arrays.copyOf(dead, count);
+        ruleAlive = Arrays.copyOf(alive, count);
+        ruleSums = Arrays.copyOf(sums, count);
+    }
+
+    /**
+     * This method computes the next generation of the tiles of a range of rows of tiles.
+     *
+     * @param start The index of the first row of tiles of the range, inclusive.
+     * @param end The index of the last row of tiles of the range, exclusive.
+     * @param scratch A buffer of a tile, where the tiles that are empty in the next buffer are
+     *                computed.
+     */
+    private void stepRows(int start, int end, long[] scratch) {
+        for(int ty = start; ty < end; ty++) {
+            for(int tx = 0; tx < tilesX; tx++) {
+                stepTile(tx, ty, scratch);
+            }
+        }
+    }
+
+    /**
+     * This method computes the next generation of a tile. A tile that would be empty is not
+     * stored.
+     *
+     * @param tx The column of the tile.
+     * @param ty The row of the tile.
+     * @param scratch A buffer of a tile, used if the tile has no buffer for the next generation.
+     */
+    private void stepTile(int tx, int ty, long[] scratch) {
+        long[][] cur = current;
+        int t = ty * tilesX + tx;
+        boolean hasNorth = ty > 0;
+        boolean hasSouth = ty < tilesY - 1;
+        long[] c = cur[t];
+        long[] n = hasNorth ? cur[t - tilesX] : null;
+        long[] s = hasSouth ? cur[t + tilesX] : null;
+        long[] w = null, nw = null, sw = null, e = null, ne = null, se = null;
+        if(tx > 0) {
+            w = cur[t - 1];
+            nw = hasNorth ? cur[t - tilesX - 1] : null;
+            sw = hasSouth ? cur[t + tilesX - 1] : null;
+        }
+        if(tx < tilesX - 1) {
+            e = cur[t + 1];
+            ne = hasNorth ? cur[t - tilesX + 1] : null;
+            se = hasSouth ? cur[t + tilesX + 1] : null;
+        }
+        if(skipEmpty && c == null && n == null && s == null && w == null && e == null
+                && nw == null && ne == null && sw == null && se == null) {
+            next[t] = null;
+            return;
+        }
+        long[] out = next[t] != null ? next[t] : scratch;
+        long columnMask = tx == tilesX - 1 ? lastColumnMask : -1L;
+        int rows = ty == tilesY - 1 ? lastTileRows : TILE_SIZE;
+        boolean moore = neighbourhood == GridNeighbourhood.MOORE;
+        int[] sums = ruleSums;
+        long[] dead = ruleDead;
+        long[] alive = ruleAlive;
+
+        // The rows above, at and below the current row, with the cells at their left and right
+        // sides aligned to the cells (the halo columns come from the tiles at the west and east).
+        long upC = word(n, TILE_SIZE - 1);
+        long upL = (upC << 1) | (word(nw, TILE_SIZE - 1) >>> 63);
+        long upR = (upC >>> 1) | (word(ne, TILE_SIZE - 1) << 63);
+        long midC = word(c, 0);
+        long midL = (midC << 1) | (word(w, 0) >>> 63);
+        long midR = (midC >>> 1) | (word(e, 0) << 63);
+        long any = 0;
+        for(int r = 0; r < rows; r++) {
+            long downC, downL, downR;
+            if(r < TILE_SIZE - 1) {
+                downC = word(c, r + 1);
+                downL = (downC << 1) | (word(w, r + 1) >>> 63);
+                downR = (downC >>> 1) | (word(e, r + 1) << 63);
+            } else {
+                downC = word(s, 0);
+                downL = (downC << 1) | (word(sw, 0) >>> 63);
+                downR = (downC >>> 1) | (word(se, 0) << 63);
+            }
+            // The number of live cells of each neighbourhood, including the cell, in four bit
+            // planes (s0 to s3).
+            long s0, s1, s2, s3;
+            long m0 = midL ^ midC ^ midR;
+            long m1 = (midL & midC) | (midR & (midL ^ midC));
+            if(moore) {
+                long u0 = upL ^ upC ^ upR;
+                long u1 = (upL & upC) | (upR & (upL ^ upC));
+                long d0 = downL ^ downC ^ downR;
+                long d1 = (downL & downC) | (downR & (downL ^ downC));
+                s0 = u0 ^ m0 ^ d0;
+                long carry = (u0 & m0) | (d0 & (u0 ^ m0));
+                long p = u1 ^ m1;
+                long q = d1 ^ carry;
+                s1 = p ^ q;
+                long a1 = u1 & m1;
+                long a2 = d1 & carry;
+                long a3 = p & q;
+                s2 = a1 ^ a2 ^ a3;
+                s3 = (a1 & a2) | (a3 & (a1 | a2));
+            } else {
+                s0 = m0 ^ upC ^ downC;
+                long carry = (m0 & upC) | (downC & (m0 ^ upC));
+                s1 = m1 ^ carry;
+                s2 = m1 & carry;
+                s3 = 0;
+            }
+            long result = 0;
+            for(int k = 0; k < sums.length; k++) {
+                int sum = sums[k];
+                long equal = ~((s0 ^ -(sum & 1)) | (s1 ^ -((sum >>> 1) & 1))
+                        | (s2 ^ -((sum >>> 2) & 1)) | (s3 ^ -((sum >>> 3) & 1)));
+                result |= equal & ((midC & alive[k]) | (~midC & dead[k]));
+            }
+            result &= columnMask;
+            out[r] = result;
+            any |= result;
+            upC = midC;
+            upL = midL;
+            upR = midR;
+            midC = downC;
+            midL = downL;
+            midR = downR;
+        }
+        for(int r = rows; r < TILE_SIZE; r++) {
+            out[r] = 0;
+        }
+        if(any == 0)
+            next[t] = null;
+        else if(out == scratch)
+            next[t] = scratch.clone();
+        else
+            next[t] = out;
+    }
+
+    /**
+     * This method obtains a row of a tile.
+     *
+     * @param tile The tile; null for an empty tile or a position outside the grid.
+     * @param r The index of the row in the tile.
+     * @return The cells of the row.
+     */
+    private static long word(long[] tile, int r) {
+        return tile == null ? 0 : tile[r];
+    }
+
+    /**
+     * This method checks if a tile has no live cells.
+     *
+     * @param tile The tile.
+     * @return True if the tile is empty; false otherwise.
+     */
+    private static boolean isEmpty(long[] tile) {
+        for(long row : tile) {
+            if(row != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method obtains the index of the tile of a cell.
+     *
+     * @param x The column of the cell.
+     * @param y The row of the cell.
+     * @return The index of the tile.
+     * @throws IndexOutOfBoundsException If the cell is outside the grid.
+     */
+    private int tileIndex(int x, int y) {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+            throw new IndexOutOfBoundsException("Invalid cell: (" + x + ", " + y + ").");
+        return (y >>> TILE_SHIFT) * tilesX + (x >>> TILE_SHIFT);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The base 2 logarithm of the number of columns and rows of a tile.
+     */
+    private static final int TILE_SHIFT = 6;
+
+    /**
+     * The number of columns and rows of a tile.
+     */
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The automaton whose rule is computed.
+     */
+    private final GridCellularAutomaton automaton;
+
+    /**
+     * The number of columns of the grid.
+     */
+    private final int width;
+
+    /**
+     * The number of rows of the grid.
+     */
+    private final int height;
+
+    /**
+     * The neighbourhood of the cells.
+     */
+    private final GridNeighbourhood neighbourhood;
+
+    /**
+     * The pool that computes the rows of tiles in parallel; null if they are computed in the
+     * thread that steps the engine.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of columns of tiles.
+     */
+    private final int tilesX;
+
+    /**
+     * The number of rows of tiles.
+     */
+    private final int tilesY;
+
+    /**
+     * The mask of the valid cells of the rows of the last column of tiles.
+     */
+    private final long lastColumnMask;
+
+    /**
+     * The number of valid rows of the last row of tiles.
+     */
+    private final int lastTileRows;
+
+    /**
+     * The tiles of the current generation, indexed by (row * tilesX + column); null for an empty
+     * tile.
+     */
+    private long[][] current;
+
+    /**
+     * The tiles where the next generation is computed. The tiles of two generations before are
+     * reused as buffers.
+     */
+    private long[][] next;
+
+    /**
+     * The sums of live cells of a neighbourhood (including the cell) for which the cell can be
+     * alive in the next generation; null until the rule is compiled.
+     */
+    private int[] ruleSums;
+
+    /**
+     * For each sum, all bits set if a dead cell with that sum becomes alive, and no bits set
+     * otherwise.
+     */
+    private long[] ruleDead;
+
+    /**
+     * For each sum, all bits set if a live cell with that sum stays alive, and no bits set
+     * otherwise.
+     */
+    private long[] ruleAlive;
+
+    /**
+     * True if the tiles whose neighbour tiles are all empty can be skipped (the rule does not give
+     * birth to cells without live neighbours).
+     */
+    private boolean skipEmpty;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A task that computes the next generation of a range of rows of tiles, splitting the range in
+     * halves until each task has a single row.
+     */
+    private class StepTask extends RecursiveAction {
+
+        /**
+         * The serialization version of the task.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * This constructor builds a new StepTask.
+         *
+         * @param start The index of the first row of tiles of the range, inclusive.
+         * @param end The index of the last row of tiles of the range, exclusive.
+         */
+        StepTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start == 1) {
+                stepRows(start, end, new long[TILE_SIZE]);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new StepTask(start, middle), new StepTask(middle, end));
+        }
+
+        /**
+         * The index of the first row of tiles of the range, inclusive.
+         */
+        private final int start;
+
+        /**
+         * The index of the last row of tiles of the range, exclusive.
+         */
+        private final int end;
+    }
+}
@@ -1,20 +1,16 @@
 package br.edu.leonardo.jaf_moving_simulation;
 
 import br.edu.leonardo.jaf.sensors.BooleanSensorValue;
-import br.edu.leonardo.jaf.sensors.Sensor;
-import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.PeriodicSensor;
+import br.edu.leonardo.jaf.sensors.SensorValue;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * A sensor that periodically sends a notification.
  * 
  * @author Leonardo Vianna do Nascimento
  */
-public class IterationSensor extends Sensor {
+public class IterationSensor extends PeriodicSensor {
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P U B L I C   C O N S T R U C T O R S
@@ -30,49 +26,27 @@ public class IterationSensor extends Sensor {
      * @param environment The environment where the sensor is in.
      */
     public IterationSensor(SimulatedRobot agent, Duration period, Environment environment) {
-        this.period = period;
+        super(Duration.ofMillis(500), period, true);
         this.environment = environment;
         this.agent = agent;
     }
     
     ///////////////////////////////////////////////////////////////////////////////////////////////
-    // P U B L I C   M E T H O D S
+    // P R O T E C T E D   M E T H O D S
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
-    public void init() throws SensorException {
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if(environment.isWall(agent.getNextX(), agent.getNextY()))
-                    newReading(BooleanSensorValue.TRUE);
-                else
-                    newReading(BooleanSensorValue.FALSE);
-            }
-        }, Date.from(Instant.now().plusMillis(500)), period.toMillis());
-    }
-    
-    /**
-     * This method stops the sensor notifications.
-     */
-    public void stop() {
-        timer.cancel();
+    protected SensorValue poll() {
+        if(environment.isWall(agent.getNextX(), agent.getNextY()))
+            return BooleanSensorValue.TRUE;
+        else
+            return BooleanSensorValue.FALSE;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   A T T R I B U T E S
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
-    /**
-     * The internal timer used to trigger notifications.
-     */
-    private final Timer timer = new Timer();
-    
-    /**
-     * The amount of time between each notification.
-     */
-    private final Duration period;
-    
     /**
      * The environment where the sensor is in.
      */
@@ -4,6 +4,7 @@ import br.edu.leonardo.jaf.sensors.BooleanSensorValue;
 import br.edu.leonardo.jaf.Agent;
 import br.edu.leonardo.jaf.Behaviour;
 import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -102,6 +103,38 @@ public class SimulatedRobot extends Agent {
         return y + currentDirection.getIncY();
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method writes the position and the direction of the robot in checkpoints.
+     * 
+     * @param buffer The buffer.
+     */
+    @Override
+    protected void writeState(ByteBuffer buffer) {
+        buffer.putInt(x).putInt(y);
+        buffer.put((byte) currentDirection.getIncX()).put((byte) currentDirection.getIncY());
+    }
+
+    /**
+     * This method restores the position and the direction of the robot from a checkpoint.
+     * 
+     * @param buffer The buffer.
+     */
+    @Override
+    protected void readState(ByteBuffer buffer) {
+        x = buffer.getInt();
+        y = buffer.getInt();
+        int incX = buffer.get();
+        int incY = buffer.get();
+        for(MovementDirection d : DIRECTIONS) {
+            if(d.getIncX() == incX && d.getIncY() == incY)
+                currentDirection = d;
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   M E T H O D S
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -132,6 +165,17 @@ public class SimulatedRobot extends Agent {
             currentDirection = MovementDirection.TO_LEFT;
     }
     
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The directions a robot can follow.
+     */
+    private static final MovementDirection[] DIRECTIONS = {
+        MovementDirection.TO_LEFT, MovementDirection.TO_UP, MovementDirection.TO_RIGHT, MovementDirection.TO_DOWN
+    };
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   A T T R I B U T E S
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,77 @@
+package br.edu.leonardo.jaf_teste_03_iot_mqtt;
+
+import br.edu.leonardo.jaf.sensors.SensorValueCodecRegistry;
+import br.edu.leonardo.jaf.sensors.SensorValueTypeCodec;
+import java.nio.ByteBuffer;
+import javax.measure.Quantity;
+
+/**
+ * The binary encoding of KhompNITZSensorValue, which can be registered in a
+ * SensorValueCodecRegistry to record the readings of Khomp sensors.
+ *
+ * @author Leonardo Vianna do Nascimento (lvianna@gmail.com)
+ */
+public class KhompNITZSensorValueCodec implements SensorValueTypeCodec<KhompNITZSensorValue> {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void encode(KhompNITZSensorValue value, SensorValueCodecRegistry registry, ByteBuffer buffer) {
+        registry.writeQuantity(value.getTemperature(), buffer);
+        registry.writeQuantity(value.getHumidity(), buffer);
+        writeSwitcher(value.getSwitcher1(), buffer);
+        writeSwitcher(value.getSwitcher2(), buffer);
+    }
+
+    @Override
+    public KhompNITZSensorValue decode(SensorValueCodecRegistry registry, ByteBuffer buffer) {
+        Quantity temperature = registry.readQuantity(buffer);
+        Quantity humidity = registry.readQuantity(buffer);
+        KhompSwitcherData switcher1 = readSwitcher(buffer);
+        KhompSwitcherData switcher2 = readSwitcher(buffer);
+        return new KhompNITZSensorValue(temperature, humidity, switcher1, switcher2);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method writes the state of a switcher: a byte with its presence and state, followed by
+     * its count as a varint.
+     *
+     * @param switcher The state of the switcher; it can be null.
+     * @param buffer The buffer.
+     */
+    private static void writeSwitcher(KhompSwitcherData switcher, ByteBuffer buffer) {
+        if(switcher == null) {
+            buffer.put(ABSENT);
+        } else {
+            buffer.put(switcher.isOn() ? ON : OFF);
+            SensorValueCodecRegistry.writeVarInt(switcher.getCount(), buffer);
+        }
+    }
+
+    /**
+     * This method reads the state of a switcher.
+     *
+     * @param buffer The buffer.
+     * @return The state of the switcher; null if it was absent.
+     */
+    private static KhompSwitcherData readSwitcher(ByteBuffer buffer) {
+        byte state = buffer.get();
+        if(state == ABSENT)
+            return null;
+        return new KhompSwitcherData(state == ON, SensorValueCodecRegistry.readVarInt(buffer));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final byte ABSENT = 0;
+    private static final byte OFF = 1;
+    private static final byte ON = 2;
+}
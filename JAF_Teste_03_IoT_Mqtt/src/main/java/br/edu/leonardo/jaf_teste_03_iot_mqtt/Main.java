@@ -8,6 +8,7 @@ import br.edu.leonardo.jaf.sensors.BooleanSensorValue;
 import br.edu.leonardo.jaf.net.NetworkException;
 import br.edu.leonardo.jaf.sensors.SensorNotification;
 import br.edu.leonardo.jaf.sensors.SingleSensorValue;
+import br.edu.leonardo.jaf.sensors.filter.ChangeOnlySensor;
 import java.awt.EventQueue;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
@@ -84,11 +85,12 @@ public class Main {
                             }
                         }, sensorCHum);
 
-                        // Create parking sensors and add them to the agent
+                        // Create parking sensors and add them to the agent. Parking sensors report
+                        // their state in every message, so only the state changes are processed.
                         ParkingSensor[] pSensors = new ParkingSensor[7];
                         for(int i = 0; i < pSensors.length; i++) {
                             pSensors[i] = new ParkingSensor("PARKING"+(i+1), subscriber);
-                            agent1.addBehaviour(new ParkingProcess(frame, i+1), pSensors[i]);
+                            agent1.addBehaviour(new ParkingProcess(frame, i+1), new ChangeOnlySensor(pSensors[i]));
                         }
                         
                         // Initialize the agent
@@ -1,17 +1,29 @@
 package br.edu.leonardo.jaf;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import br.edu.leonardo.jaf.metrics.LatencyStatistics;
 import br.edu.leonardo.jaf.sensors.NotificationListener;
 import br.edu.leonardo.jaf.sensors.Sensor;
 import br.edu.leonardo.jaf.sensors.SensorException;
 import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import br.edu.leonardo.jaf.sensors.SensorValueCodec;
 
 /**
  * An agent in the platform.
@@ -89,6 +101,11 @@ public class Agent {
                     sensors.remove(sensor);
                     onRemoveSensor(exception);
                 }
+
+                @Override
+                public boolean hasDemand() {
+                    return pendingBehaviours.get() < maxPendingBehaviours;
+                }
             };
             sensors.put(sensor, new SensorEntry(sensor));
             sensor.addListener(obs);
@@ -98,7 +115,8 @@ public class Agent {
     /**
      * This method adds a new Behaviour to this agent that will be executed when the sensor s notifies
      * new values. If the sensor s has not been added to the agent, this method adds s as a new
-     * sensor.
+     * sensor. A behaviour that must be executed when readings of different sensors are correlated
+     * can be related to a join sensor (see br.edu.leonardo.jaf.sensors.join.JoinSensor).
      *
      * @param b The reference to the new behaviour.
      * @param s The Sensor reference related to the behaviour.
@@ -115,7 +133,9 @@ public class Agent {
     /**
      * This method initializes an Agent. The method "setup" is executed and,
      * if the initSensors argument is true, all sensors in the agent
-     * are initialized (the method "init" of each sensor is invoked).
+     * are initialized (the method "init" of each sensor is invoked). If a checkpoint of the agent
+     * was restored (see Checkpoint), the state of the agent is restored after "setup" and before
+     * the initialization of the sensors.
      *
      * @param initSensors true if all sensors in the agent should be initialized;
      *                    false otherwise.
@@ -124,6 +144,8 @@ public class Agent {
     public void init(boolean initSensors) throws AgentException {
         try {
             setup();
+            if(restoredState != null)
+                restoreState();
             if(initSensors)
                 initializeSensors();
         } catch (SensorException ex) {
@@ -144,6 +166,78 @@ public class Agent {
         this.init(true);
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the last value notified by a sensor of this agent. After a checkpoint is
+     * restored, it is the last value notified before the checkpoint, until the sensor notifies a
+     * new one.
+     *
+     * @param sensor The sensor.
+     * @return The last value; null if the sensor has not notified a value or has not been added
+     *         to this agent.
+     */
+    public SensorValue getLastValue(Sensor sensor) {
+        SensorEntry entry = sensors.get(sensor);
+        return entry == null ? null : entry.lastValue;
+    }
+
+    /**
+     * This method obtains the latency statistics of the behaviours executed by this agent. The
+     * statistics are updated without locks by the threads of the agent.
+     *
+     * @return The latency statistics.
+     */
+    public LatencyStatistics getLatencyStatistics() {
+        LatencyStatistics statistics = latencyStatistics;
+        if(statistics == null) {
+            synchronized(this) {
+                if(latencyStatistics == null)
+                    latencyStatistics = new LatencyStatistics();
+                statistics = latencyStatistics;
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * This method sets the latency statistics updated by this agent. The statistics are created
+     * when the agent executes its first behaviour; deployments with many agents can share the same
+     * statistics among them, which also saves the memory of the histograms of each agent.
+     *
+     * @param latencyStatistics The latency statistics.
+     */
+    public void setLatencyStatistics(LatencyStatistics latencyStatistics) {
+        this.latencyStatistics = latencyStatistics;
+    }
+
+    /**
+     * This method obtains the number of behaviours submitted for execution that have not finished
+     * yet.
+     *
+     * @return The number of pending behaviours.
+     */
+    public int getNumOfPendingBehaviours() {
+        return pendingBehaviours.get();
+    }
+
+    /**
+     * This method sets the number of pending behaviours above which this agent reports to its
+     * sensors that it has no demand for new notifications. Sensors that can delay or skip their
+     * readings (like periodic sensors) stop producing readings while the limit is reached. The
+     * notifications sent by other sensors are still processed. There is no limit by default.
+     *
+     * @param maxPendingBehaviours The limit of pending behaviours (the value must be positive).
+     * @throws IllegalArgumentException If the limit is not positive.
+     */
+    public void setMaxPendingBehaviours(int maxPendingBehaviours) {
+        if(maxPendingBehaviours < 1)
+            throw new IllegalArgumentException("The limit of pending behaviours must be positive.");
+        this.maxPendingBehaviours = maxPendingBehaviours;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R O T E C T E D   M E T H O D S
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -166,10 +260,129 @@ public class Agent {
     protected void onRemoveSensor(SensorException exception) { 
     }
 
+    /**
+     * This method should be overridden by subclasses that have state to be saved in checkpoints
+     * (see Checkpoint). It writes the state of the agent at the current position of the given
+     * buffer. It is executed while the agent does not execute behaviours.
+     *
+     * @param buffer The buffer.
+     * @throws java.nio.BufferOverflowException If the buffer does not have enough space for the
+     *                                          state. The checkpoint retries with a larger buffer.
+     */
+    protected void writeState(ByteBuffer buffer) {
+    }
+
+    /**
+     * This method should be overridden by subclasses that have state to be saved in checkpoints.
+     * It reads the state written by <code>writeState</code>. It is executed during the
+     * initialization of the agent, after the method "setup".
+     *
+     * @param buffer The buffer, positioned at the state written by <code>writeState</code>.
+     * @throws AgentException If the state could not be restored.
+     */
+    protected void readState(ByteBuffer buffer) throws AgentException {
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method writes a checkpoint of this agent: the last value of each sensor, in the order
+     * the sensors were added, followed by the state written by <code>writeState</code>. The
+     * dispatch of new behaviours is suspended and the pending behaviours are finished before the
+     * state is written, so the state is consistent with the processed notifications. The
+     * notifications received while the dispatch is suspended are deferred and dispatched, in
+     * order, after the checkpoint; the sensors that notify the agent are never blocked.
+     *
+     * @param buffer The buffer.
+     * @param codec The codec used to encode the sensor values.
+     * @param timeout The maximum time, in nanoseconds, to wait for the pending behaviours.
+     * @throws AgentException If the pending behaviours did not finish before the timeout.
+     * @throws java.nio.BufferOverflowException If the buffer does not have enough space for the
+     *                                          checkpoint.
+     */
+    void writeCheckpoint(ByteBuffer buffer, SensorValueCodec codec, long timeout) throws AgentException {
+        dispatchLock.writeLock().lock();
+        try {
+            checkpoints++;
+        } finally {
+            dispatchLock.writeLock().unlock();
+        }
+        try {
+            long deadline = System.nanoTime() + timeout;
+            while(pendingBehaviours.get() > 0) {
+                if(System.nanoTime() - deadline >= 0)
+                    throw new AgentException("The pending behaviours of the agent did not finish before the timeout of the checkpoint.");
+                LockSupport.parkNanos(QUIESCE_WAIT);
+            }
+            buffer.putInt(sensors.size());
+            for(SensorEntry entry : sensors.values()) {
+                SensorValue value = entry.lastValue;
+                if(value == null) {
+                    buffer.put((byte) 0);
+                } else {
+                    buffer.put((byte) 1);
+                    codec.encode(value, buffer);
+                }
+            }
+            writeState(buffer);
+        } finally {
+            dispatchLock.writeLock().lock();
+            try {
+                checkpoints--;
+                if(checkpoints == 0) {
+                    SensorNotification notification;
+                    while((notification = deferredNotifications.poll()) != null) {
+                        dispatch(notification);
+                    }
+                }
+            } finally {
+                dispatchLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * This method sets a checkpoint to be restored when this agent is initialized.
+     *
+     * @param state The buffer with the checkpoint written by <code>writeCheckpoint</code>.
+     * @param codec The codec used to decode the sensor values.
+     */
+    void setRestoredState(ByteBuffer state, SensorValueCodec codec) {
+        this.restoredState = state;
+        this.restoredCodec = codec;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   M E T H O D S
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * This method restores the checkpoint set by <code>setRestoredState</code>. The values of
+     * sensors that were not added to the agent yet are ignored.
+     *
+     * @throws AgentException If the checkpoint could not be restored.
+     */
+    private void restoreState() throws AgentException {
+        ByteBuffer state = restoredState;
+        restoredState = null;
+        try {
+            int count = state.getInt();
+            Iterator<SensorEntry> entries = sensors.values().iterator();
+            for(int i = 0; i < count; i++) {
+                SensorValue value = state.get() == 0 ? null : restoredCodec.decode(state);
+                if(entries.hasNext())
+                    entries.next().lastValue = value;
+            }
+            readState(state);
+        } catch (RuntimeException ex) {
+            throw new AgentException("It is not possible to restore the checkpoint of the agent.", ex);
+        } finally {
+            restoredCodec = null;
+        }
+    }
+
     /**
      * This internal method initialize all sensors added to this agent.
      *
@@ -183,15 +396,37 @@ public class Agent {
 
     /**
      * The agent uses this internal method to process a new notification received from a sensor.
-     * This method execute all behaviours related to the sensor that sends the notification.
+     * The notification is dispatched, unless a checkpoint is in progress; in this case, it is
+     * deferred until the end of the checkpoint.
      *
      * @param notification The received notification.
      */
     private void notifyNewSensorReading(SensorNotification notification) {
+        dispatchLock.readLock().lock();
+        try {
+            if(checkpoints > 0)
+                deferredNotifications.add(notification);
+            else
+                dispatch(notification);
+        } finally {
+            dispatchLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method dispatches a notification: it executes all behaviours related to the sensor
+     * that sent the notification.
+     *
+     * @param notification The notification.
+     */
+    private void dispatch(SensorNotification notification) {
         // Search behavious related to the sensor that sent the notification.
         Set<Behaviour> filteredBehaviours = searchBehaviours(notification);
 
-        // Execute each behaviour
+        // Execute each behaviour.
+        SensorEntry entry = sensors.get(notification.getSensor());
+        if(entry != null)
+            entry.lastValue = notification.getValue();
         for (Behaviour b : filteredBehaviours) {
             executeBehaviour(b, notification);
         }
@@ -219,11 +454,19 @@ public class Agent {
      * @param notification The received sensor notification.
      */
     private void executeBehaviour(Behaviour b, SensorNotification notification) {
+        long dispatchTime = System.nanoTime();
+
         // Create a Runnable to execute the behaviour in a separated thread.
         Runnable r = new Runnable() {
             @Override
             public void run() {
-                b.execute(notification);
+                long startTime = System.nanoTime();
+                try {
+                    b.execute(notification);
+                } finally {
+                    getLatencyStatistics().record(notification.getIngestTime(), dispatchTime, startTime, System.nanoTime());
+                    pendingBehaviours.decrementAndGet();
+                }
 
                 // Remove the behaviour Future from the behaviours map when the runnable finishes.
                 behavioursThreads.remove(b);
@@ -231,6 +474,7 @@ public class Agent {
         };
 
         // Add the behaviour runnable to the thread pool for execution.
+        pendingBehaviours.incrementAndGet();
         Future<?> f = threadExecService.submit(r);
 
         // Put the returned Future object in the behaviours map. This object allows future
@@ -238,6 +482,15 @@ public class Agent {
         behavioursThreads.put(b, f);
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The time between the checks of the pending behaviours while a checkpoint waits for them.
+     */
+    private static final long QUIESCE_WAIT = TimeUnit.MICROSECONDS.toNanos(100);
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   A T T R I B U T E S
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -246,7 +499,7 @@ public class Agent {
      * The map of sensors in the agent. The map allows that the agent can access sensor data from
      * a sensor reference that is usually informed in a notification.
      */
-    private final Map<Sensor,SensorEntry> sensors = new HashMap<>();
+    private final Map<Sensor,SensorEntry> sensors = new LinkedHashMap<>();
 
     /**
      * The executor service that manage the thread pool used to execute the agent behaviours.
@@ -259,6 +512,48 @@ public class Agent {
      */
     private final Map<Behaviour, Future<?>> behavioursThreads = new HashMap<>();
 
+    /**
+     * The latency statistics of the behaviours executed by the agent.
+     */
+    private volatile LatencyStatistics latencyStatistics;
+
+    /**
+     * The number of behaviours submitted for execution that have not finished yet.
+     */
+    private final AtomicInteger pendingBehaviours = new AtomicInteger();
+
+    /**
+     * The number of pending behaviours above which the agent has no demand for new notifications.
+     */
+    private volatile int maxPendingBehaviours = Integer.MAX_VALUE;
+
+    /**
+     * The lock that guards the suspension of the dispatch of behaviours by checkpoints. The
+     * notifications hold the read lock while they are dispatched or deferred, and the checkpoints
+     * hold the write lock only to suspend and to resume the dispatch.
+     */
+    private final ReentrantReadWriteLock dispatchLock = new ReentrantReadWriteLock();
+
+    /**
+     * The number of checkpoints in progress; the dispatch is suspended while it is positive.
+     */
+    private int checkpoints;
+
+    /**
+     * The notifications received while the dispatch is suspended.
+     */
+    private final Queue<SensorNotification> deferredNotifications = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The checkpoint to be restored when the agent is initialized; null if there is none.
+     */
+    private ByteBuffer restoredState;
+
+    /**
+     * The codec used to decode the sensor values of the restored checkpoint.
+     */
+    private SensorValueCodec restoredCodec;
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   I N T E R N A L   C L A S S E S
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -332,5 +627,10 @@ public class Agent {
          * value.
          */
         private final Set<Behaviour> relatedBehaviours = new HashSet<>();
+
+        /**
+         * The last value notified by the sensor; null if it has not notified a value.
+         */
+        private volatile SensorValue lastValue;
     }
 }
\ No newline at end of file
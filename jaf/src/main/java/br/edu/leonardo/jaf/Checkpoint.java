@@ -0,0 +1,225 @@
+package br.edu.leonardo.jaf;
+
+import br.edu.leonardo.jaf.sensors.SensorValueCodec;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A checkpoint of the state of a list of agents, used to restart a deployment without losing the
+ * state of its agents. The state of each agent is the last value of each of its sensors and the
+ * state written by its method <code>writeState</code>:
+ * <pre>
+ * Checkpoint checkpoint = new Checkpoint(codec);
+ * checkpoint.write(Paths.get("agents.ckpt"), agents);
+ * ...
+ * // After the restart, with the agents built again in the same order:
+ * checkpoint.restore(Paths.get("agents.ckpt"), agents);
+ * for(Agent a : agents)
+ *     a.init();
+ * </pre>
+ * <p>
+ * All agents are written in a single file, through a large direct buffer, and the file is replaced
+ * atomically when it is complete, so a failure while writing keeps the previous checkpoint. The
+ * restore maps the file into memory and only assigns each agent its region; the state is decoded
+ * by the agent when it is initialized. Each agent suspends the dispatch of its behaviours while
+ * its own state is written: its notifications are deferred, its pending behaviours are finished
+ * (the checkpoint fails if they take longer than a timeout) and the state is written. The agents
+ * are written one after each other, so a checkpoint of agents that depend on each other is only
+ * consistent if their sensors are stopped while it is written.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class Checkpoint {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new Checkpoint that waits up to 10 seconds for the pending
+     * behaviours of each agent.
+     *
+     * @param codec The codec used to encode and decode the last values of the sensors.
+     */
+    public Checkpoint(SensorValueCodec codec) {
+        this(codec, DEFAULT_QUIESCE_TIMEOUT);
+    }
+
+    /**
+     * This constructor builds a new Checkpoint.
+     *
+     * @param codec The codec used to encode and decode the last values of the sensors.
+     * @param quiesceTimeout The maximum time to wait for the pending behaviours of each agent
+     *                       before its state is written.
+     * @throws IllegalArgumentException If the timeout is negative.
+     */
+    public Checkpoint(SensorValueCodec codec, Duration quiesceTimeout) {
+        if(quiesceTimeout.isNegative())
+            throw new IllegalArgumentException("The timeout of a checkpoint cannot be negative.");
+        this.codec = codec;
+        this.quiesceTimeout = quiesceTimeout.toNanos();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method writes a checkpoint of the given agents. If the file exists, it is replaced.
+     *
+     * @param file The checkpoint file.
+     * @param agents The agents.
+     * @throws AgentException If the file could not be written, or if the pending behaviours of an
+     *                        agent did not finish before the timeout; the previous checkpoint is
+     *                        kept.
+     */
+    public void write(Path file, List<? extends Agent> agents) throws AgentException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+            ByteBuffer state = ByteBuffer.allocate(INITIAL_STATE_SIZE);
+            output.putInt(MAGIC).putInt(VERSION).putInt(agents.size());
+            for(Agent agent : agents) {
+                while(true) {
+                    state.clear();
+                    try {
+                        agent.writeCheckpoint(state, codec, quiesceTimeout);
+                        break;
+                    } catch (BufferOverflowException ex) {
+                        state = ByteBuffer.allocate(state.capacity() * 2);
+                    }
+                }
+                state.flip();
+                if(output.remaining() < 4 + state.remaining())
+                    writeFully(channel, output);
+                output.putInt(state.remaining());
+                if(output.remaining() < state.remaining()) {
+                    writeFully(channel, output);
+                    while(state.hasRemaining()) {
+                        channel.write(state);
+                    }
+                } else {
+                    output.put(state);
+                }
+            }
+            writeFully(channel, output);
+            channel.force(true);
+        } catch (IOException ex) {
+            throw new AgentException("It is not possible to write the checkpoint " + file + ".", ex);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new AgentException("It is not possible to replace the checkpoint " + file + ".", ex);
+        }
+    }
+
+    /**
+     * This method restores a checkpoint into the given agents, which must be built again in the
+     * same order, with their sensors added in the same order, as when the checkpoint was written.
+     * The state of each agent is restored when the agent is initialized.
+     *
+     * @param file The checkpoint file.
+     * @param agents The agents.
+     * @throws AgentException If the file could not be read, it is not a checkpoint or its number
+     *                        of agents is not the number of given agents.
+     */
+    public void restore(Path file, List<? extends Agent> agents) throws AgentException {
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new AgentException("The checkpoint " + file + " is larger than 2 GiB.");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new AgentException("It is not possible to read the checkpoint " + file + ".", ex);
+        }
+        try {
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new AgentException("The file " + file + " is not a checkpoint.");
+            int count = buffer.getInt();
+            if(count != agents.size())
+                throw new AgentException("The checkpoint " + file + " has " + count + " agents, but " + agents.size() + " agents were informed.");
+            for(Agent agent : agents) {
+                int length = buffer.getInt();
+                ByteBuffer state = buffer.slice();
+                state.limit(length);
+                buffer.position(buffer.position() + length);
+                agent.setRestoredState(state, codec);
+            }
+        } catch (RuntimeException ex) {
+            throw new AgentException("The checkpoint " + file + " is corrupted.", ex);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method writes the content of a buffer to a channel and clears the buffer.
+     *
+     * @param channel The channel.
+     * @param buffer The buffer.
+     * @throws IOException If an I/O error occurred.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The first bytes of a checkpoint file ("JAFC").
+     */
+    private static final int MAGIC = 0x4A414643;
+
+    /**
+     * The version of the format of the checkpoint files.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the buffer used to write the file.
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The initial size of the buffer used to write the state of an agent.
+     */
+    private static final int INITIAL_STATE_SIZE = 4096;
+
+    /**
+     * The default maximum time to wait for the pending behaviours of an agent.
+     */
+    private static final Duration DEFAULT_QUIESCE_TIMEOUT = Duration.ofSeconds(10);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The codec used to encode and decode the last values of the sensors.
+     */
+    private final SensorValueCodec codec;
+
+    /**
+     * The maximum time, in nanoseconds, to wait for the pending behaviours of each agent.
+     */
+    private final long quiesceTimeout;
+}
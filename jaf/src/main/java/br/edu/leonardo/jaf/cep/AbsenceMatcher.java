@@ -0,0 +1,114 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The matcher of an absence pattern. It matches once for each period without events, counted
+ * from the start of the engine or from the last event. The end of the period is checked by a
+ * single timeout in a timing wheel, which is not rescheduled at every event. The match contains
+ * the last event before the silence, or no events if there was none.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class AbsenceMatcher extends PatternMatcher {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new AbsenceMatcher.
+     *
+     * @param rule The rule that receives the matches.
+     * @param engine The engine, whose lock is acquired when the timeout expires.
+     * @param period The period without events, in nanoseconds.
+     */
+    AbsenceMatcher(CepRule rule, CepEngine engine, long period) {
+        super(rule);
+        this.engine = engine;
+        this.period = period;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    void onEvent(int step, SensorNotification notification, long now, long sequence) {
+        lastEvent = notification;
+        lastEventTime = now;
+        schedule(period);
+    }
+
+    @Override
+    void start(long now) {
+        lastEventTime = now;
+        schedule(period);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method schedules a check of the period without events, if there is none scheduled.
+     *
+     * @param delay The delay of the check, in nanoseconds.
+     */
+    private void schedule(long delay) {
+        if(!scheduled) {
+            scheduled = true;
+            engine.getTimingWheel().schedule(this::check, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * This method is executed by the timing wheel to check if the period without events has
+     * ended. If there were events in the meantime, the check is scheduled again.
+     */
+    private void check() {
+        synchronized(engine) {
+            scheduled = false;
+            if(!engine.isRunning())
+                return;
+            long remaining = lastEventTime + period - System.nanoTime();
+            if(remaining > 0) {
+                schedule(remaining);
+            } else {
+                // Each silence is reported only once; the next check is scheduled by the next event.
+                match(lastEvent == null ? new SensorNotification[0] : new SensorNotification[] {lastEvent});
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The engine, whose lock is acquired when the timeout expires.
+     */
+    private final CepEngine engine;
+
+    /**
+     * The period without events, in nanoseconds.
+     */
+    private final long period;
+
+    /**
+     * The last event; null if there was none.
+     */
+    private SensorNotification lastEvent;
+
+    /**
+     * The time of the last event or of the start of the engine.
+     */
+    private long lastEventTime;
+
+    /**
+     * True if a check is scheduled in the timing wheel.
+     */
+    private boolean scheduled;
+}
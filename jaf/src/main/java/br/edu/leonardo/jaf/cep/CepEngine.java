@@ -0,0 +1,339 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import br.edu.leonardo.jaf.sensors.NotificationListener;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A complex event processing engine. The engine executes rules declared as patterns over the
+ * notifications of sensors (sequences, absences, thresholds and counts within windows). Each rule
+ * is a sensor that notifies the matches of its pattern, so an agent reacts to a rule by adding a
+ * behaviour related to it:
+ * <pre>
+ * CepEngine engine = new CepEngine();
+ * EventFilter hot = Pattern.when(temperature, Conditions.above(SensorValueExtractors.SINGLE, 30));
+ * agent.addBehaviour(behaviour, engine.addRule("overheat", Pattern.count(hot, 3, Duration.ofMinutes(1))));
+ * </pre>
+ * <p>
+ * The patterns are compiled into small state machines when they are added. The events of all rules
+ * are indexed by sensor, and equal events of different rules (the same sensor and an equal
+ * condition) are shared, so each notification is processed in a single pass: each distinct
+ * condition is evaluated once and only the state machines that wait for the accepted events are
+ * advanced. Processing a notification that does not complete a match does not allocate objects.
+ * <p>
+ * The engine owns the sensors used by its rules: it starts listening to them and initializes them
+ * when the first rule is initialized. Notifications are processed while holding the lock of the
+ * engine, in the thread of the sensor that sent them.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class CepEngine {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new CepEngine that uses the shared timing wheel to detect absences.
+     */
+    public CepEngine() {
+        this(TimingWheel.getDefault());
+    }
+
+    /**
+     * This constructor builds a new CepEngine that uses the given timing wheel to detect absences.
+     *
+     * @param timingWheel The timing wheel.
+     */
+    public CepEngine(TimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method adds a rule to this engine. Rules can be added after the engine is initialized;
+     * in this case, the sensors that are not used by other rules are only listened to after the
+     * new rule is initialized.
+     *
+     * @param name The name of the rule.
+     * @param pattern The pattern of the rule.
+     * @return The rule, which notifies a MatchSensorValue every time the pattern is matched.
+     */
+    public synchronized CepRule addRule(String name, Pattern pattern) {
+        CepRule rule = new CepRule(name, pattern, this);
+        List<EventFilter> steps = pattern.getSteps();
+        for(int i = 0; i < steps.size(); i++) {
+            EventFilter filter = steps.get(i);
+            SourceIndex index = sources.get(filter.getSensor());
+            if(index == null) {
+                index = new SourceIndex(filter.getSensor());
+                sources.put(filter.getSensor(), index);
+            }
+            index.add(filter, new Transition(rule, i));
+        }
+        rules.add(rule);
+        if(running)
+            rule.getMatcher().start(System.nanoTime());
+        return rule;
+    }
+
+    /**
+     * This method starts listening to the sensors used by the rules of this engine and initializes
+     * them. It is executed by the initialization of the rules, and only the sensors and rules that
+     * have not been initialized yet are initialized again.
+     *
+     * @throws SensorException If an error occurred during the initialization of a sensor.
+     */
+    public void init() throws SensorException {
+        List<Sensor> newSensors = new ArrayList<>();
+        synchronized(this) {
+            for(SourceIndex index : sources.values()) {
+                if(!index.listening) {
+                    index.listening = true;
+                    index.sensor.addListener(index);
+                    newSensors.add(index.sensor);
+                }
+            }
+            if(!running) {
+                running = true;
+                long now = System.nanoTime();
+                for(CepRule rule : rules) {
+                    rule.getMatcher().start(now);
+                }
+            }
+        }
+        for(Sensor s : newSensors) {
+            s.init();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the rules of this engine.
+     *
+     * @return An unmodifiable list with the rules, in the order they were added.
+     */
+    public synchronized List<CepRule> getRules() {
+        return Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the timing wheel used by this engine.
+     *
+     * @return The timing wheel.
+     */
+    TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    /**
+     * This method checks if this engine has been initialized. It must be executed while holding the
+     * lock of the engine.
+     *
+     * @return True if the engine has been initialized; false otherwise.
+     */
+    boolean isRunning() {
+        return running;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The timing wheel used to detect absences.
+     */
+    private final TimingWheel timingWheel;
+
+    /**
+     * The rules of the engine.
+     */
+    private final List<CepRule> rules = new ArrayList<>();
+
+    /**
+     * The index of the events of each sensor used by the rules.
+     */
+    private final Map<Sensor, SourceIndex> sources = new IdentityHashMap<>();
+
+    /**
+     * True if the engine has been initialized; false otherwise.
+     */
+    private boolean running;
+
+    /**
+     * The number of notifications processed by the engine. It identifies each notification in the
+     * state machines.
+     */
+    private long sequence;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A step of a rule that waits for an event.
+     */
+    private static class Transition {
+
+        /**
+         * This constructor builds a new Transition.
+         *
+         * @param rule The rule.
+         * @param step The index of the step in the pattern of the rule.
+         */
+        Transition(CepRule rule, int step) {
+            this.rule = rule;
+            this.matcher = rule.getMatcher();
+            this.step = step;
+        }
+
+        /**
+         * The rule.
+         */
+        private final CepRule rule;
+
+        /**
+         * The matcher of the rule.
+         */
+        private final PatternMatcher matcher;
+
+        /**
+         * The index of the step in the pattern of the rule.
+         */
+        private final int step;
+    }
+
+    /**
+     * The distinct events of a sensor and the steps that wait for each one. It is also the listener
+     * of the sensor, so a notification is delivered straight to its index.
+     */
+    private class SourceIndex implements NotificationListener {
+
+        /**
+         * This constructor builds a new SourceIndex for the given sensor.
+         *
+         * @param sensor The sensor.
+         */
+        SourceIndex(Sensor sensor) {
+            this.sensor = sensor;
+        }
+
+        /**
+         * This method adds a step that waits for an event. Equal events of different steps share
+         * the same condition evaluation. The steps are kept in descending order of their index,
+         * so an event that satisfies several steps of a pattern advances the runs that wait for
+         * the later steps before it starts new runs with the earlier ones.
+         *
+         * @param filter The event.
+         * @param transition The step.
+         */
+        void add(EventFilter filter, Transition transition) {
+            int i = 0;
+            while(i < filters.length && !filters[i].equals(filter)) {
+                i++;
+            }
+            if(i == filters.length) {
+                filters = Arrays.copyOf(filters, i + 1);
+                filters[i] = filter;
+                satisfied = new boolean[i + 1];
+            }
+            int position = 0;
+            while(position < transitions.length && transitions[position].step >= transition.step) {
+                position++;
+            }
+            Transition[] list = new Transition[transitions.length + 1];
+            int[] events = new int[list.length];
+            System.arraycopy(transitions, 0, list, 0, position);
+            System.arraycopy(transitionFilters, 0, events, 0, position);
+            list[position] = transition;
+            events[position] = i;
+            System.arraycopy(transitions, position, list, position + 1, transitions.length - position);
+            System.arraycopy(transitionFilters, position, events, position + 1, transitions.length - position);
+            transitions = list;
+            transitionFilters = events;
+        }
+
+        @Override
+        public void notify(SensorNotification notification) {
+            SensorValue value = notification.getValue();
+            synchronized(CepEngine.this) {
+                long seq = ++sequence;
+                long now = System.nanoTime();
+                for(int i = 0; i < filters.length; i++) {
+                    satisfied[i] = filters[i].getCondition().test(value);
+                }
+                for(int i = 0; i < transitions.length; i++) {
+                    if(satisfied[transitionFilters[i]]) {
+                        Transition t = transitions[i];
+                        t.matcher.onEvent(t.step, notification, now, seq);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onFatalError(SensorException exception) {
+            Set<CepRule> failed = new LinkedHashSet<>();
+            synchronized(CepEngine.this) {
+                for(Transition t : transitions) {
+                    failed.add(t.rule);
+                }
+            }
+            for(CepRule rule : failed) {
+                rule.fail(exception);
+            }
+        }
+
+        /**
+         * The sensor.
+         */
+        private final Sensor sensor;
+
+        /**
+         * The distinct events of the sensor.
+         */
+        private EventFilter[] filters = new EventFilter[0];
+
+        /**
+         * The results of the conditions of the events for the notification being processed,
+         * indexed as the events.
+         */
+        private boolean[] satisfied = new boolean[0];
+
+        /**
+         * The steps that wait for the events of the sensor, in descending order of their index.
+         */
+        private Transition[] transitions = new Transition[0];
+
+        /**
+         * The index of the event waited by each step, indexed as the steps.
+         */
+        private int[] transitionFilters = new int[0];
+
+        /**
+         * True if the engine listens to the sensor; false otherwise.
+         */
+        private boolean listening;
+    }
+}
@@ -0,0 +1,126 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+
+/**
+ * A rule of a CepEngine. A rule is a sensor that notifies a MatchSensorValue every time its
+ * pattern is matched, so an agent can add a behaviour related to a rule to react to the matches.
+ * Rules are created with the method <code>CepEngine.addRule</code>.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class CepRule extends Sensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new CepRule with the given name and pattern, executed in the given
+     * engine.
+     *
+     * @param name The name of the rule.
+     * @param pattern The pattern of the rule.
+     * @param engine The engine where the rule is executed.
+     */
+    CepRule(String name, Pattern pattern, CepEngine engine) {
+        this.name = name;
+        this.pattern = pattern;
+        this.engine = engine;
+        this.matcher = pattern.compile(this, engine);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method initializes the engine of this rule, if it has not been initialized yet.
+     *
+     * @throws SensorException If an error occurred during the initialization of a sensor used by
+     *                         the engine.
+     */
+    @Override
+    public void init() throws SensorException {
+        engine.init();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the name of this rule.
+     *
+     * @return The rule name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * This method obtains the pattern of this rule.
+     *
+     * @return The pattern.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the matcher of this rule.
+     *
+     * @return The matcher.
+     */
+    PatternMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * This method notifies a match to the listeners of this rule.
+     *
+     * @param events The events of the match.
+     */
+    void match(SensorNotification[] events) {
+        newReading(new MatchSensorValue(name, events));
+    }
+
+    /**
+     * This method reports a fatal error of a sensor used by this rule.
+     *
+     * @param cause The error.
+     */
+    void fail(Throwable cause) {
+        reportFatalError(cause);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The name of the rule.
+     */
+    private final String name;
+
+    /**
+     * The pattern of the rule.
+     */
+    private final Pattern pattern;
+
+    /**
+     * The engine where the rule is executed.
+     */
+    private final CepEngine engine;
+
+    /**
+     * The matcher compiled from the pattern.
+     */
+    private final PatternMatcher matcher;
+}
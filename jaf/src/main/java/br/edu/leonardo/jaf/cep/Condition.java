@@ -0,0 +1,22 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.SensorValue;
+
+/**
+ * A condition evaluated over the values notified by a sensor. Conditions are used to declare the
+ * events of complex event processing patterns. Conditions that are equal (according to the method
+ * <code>equals</code>) and refer to the same sensor are evaluated only once for each notification,
+ * even if they are used by several rules.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public interface Condition {
+
+    /**
+     * This method evaluates the condition over a sensor value.
+     *
+     * @param value The sensor value.
+     * @return True if the value satisfies the condition; false otherwise.
+     */
+    public boolean test(SensorValue value);
+}
@@ -0,0 +1,165 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.BooleanSensorValue;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A set of factory methods for common conditions. The conditions created by these methods
+ * implement <code>equals</code> and <code>hashCode</code>, so equivalent conditions declared in
+ * different rules are evaluated only once for each notification.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public final class Conditions {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains a condition that is satisfied by any value.
+     *
+     * @return The condition.
+     */
+    public static Condition any() {
+        return ANY;
+    }
+
+    /**
+     * This method obtains a condition that is satisfied by a boolean value.
+     *
+     * @param value The expected boolean value.
+     * @return The condition, which is satisfied by BooleanSensorValue objects with the given value.
+     */
+    public static Condition is(boolean value) {
+        return value ? IS_TRUE : IS_FALSE;
+    }
+
+    /**
+     * This method obtains a condition that is satisfied when a number is greater than a threshold.
+     *
+     * @param extractor The function that extracts the number from the sensor values.
+     * @param threshold The threshold.
+     * @return The condition.
+     */
+    public static Condition above(ToDoubleFunction<SensorValue> extractor, double threshold) {
+        return new ThresholdCondition(extractor, threshold, true);
+    }
+
+    /**
+     * This method obtains a condition that is satisfied when a number is less than a threshold.
+     *
+     * @param extractor The function that extracts the number from the sensor values.
+     * @param threshold The threshold.
+     * @return The condition.
+     */
+    public static Condition below(ToDoubleFunction<SensorValue> extractor, double threshold) {
+        return new ThresholdCondition(extractor, threshold, false);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The condition that is satisfied by any value.
+     */
+    private static final Condition ANY = new Condition() {
+        @Override
+        public boolean test(SensorValue value) {
+            return true;
+        }
+    };
+
+    /**
+     * The condition that is satisfied by the BooleanSensorValue with the value true.
+     */
+    private static final Condition IS_TRUE = new Condition() {
+        @Override
+        public boolean test(SensorValue value) {
+            return value == BooleanSensorValue.TRUE;
+        }
+    };
+
+    /**
+     * The condition that is satisfied by the BooleanSensorValue with the value false.
+     */
+    private static final Condition IS_FALSE = new Condition() {
+        @Override
+        public boolean test(SensorValue value) {
+            return value == BooleanSensorValue.FALSE;
+        }
+    };
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This class only provides static members and cannot be instantiated.
+     */
+    private Conditions() {
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A condition that compares a number extracted from the values with a threshold.
+     */
+    private static class ThresholdCondition implements Condition {
+
+        /**
+         * This constructor builds a new ThresholdCondition.
+         *
+         * @param extractor The function that extracts the number from the sensor values.
+         * @param threshold The threshold.
+         * @param above True if the number must be greater than the threshold; false if it must be
+         *              less than the threshold.
+         */
+        public ThresholdCondition(ToDoubleFunction<SensorValue> extractor, double threshold, boolean above) {
+            this.extractor = extractor;
+            this.threshold = threshold;
+            this.above = above;
+        }
+
+        @Override
+        public boolean test(SensorValue value) {
+            double number = extractor.applyAsDouble(value);
+            return above ? number > threshold : number < threshold;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(extractor, threshold, above);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof ThresholdCondition))
+                return false;
+            ThresholdCondition other = (ThresholdCondition) obj;
+            return extractor.equals(other.extractor)
+                    && Double.compare(threshold, other.threshold) == 0
+                    && above == other.above;
+        }
+
+        /**
+         * The function that extracts the number from the sensor values.
+         */
+        private final ToDoubleFunction<SensorValue> extractor;
+
+        /**
+         * The threshold.
+         */
+        private final double threshold;
+
+        /**
+         * True if the number must be greater than the threshold; false otherwise.
+         */
+        private final boolean above;
+    }
+}
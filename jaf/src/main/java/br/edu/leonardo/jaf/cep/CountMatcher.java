@@ -0,0 +1,85 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+
+/**
+ * The matcher of a count pattern. It keeps the last n events in a circular buffer, so it can check
+ * in constant time if the n events happened within the window. After a match, the buffer is
+ * cleared and the count starts again.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class CountMatcher extends PatternMatcher {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new CountMatcher.
+     *
+     * @param rule The rule that receives the matches.
+     * @param times The number of events of a match.
+     * @param window The maximum interval between the first and the last event, in nanoseconds.
+     */
+    CountMatcher(CepRule rule, int times, long window) {
+        super(rule);
+        this.window = window;
+        this.times = new long[times];
+        this.events = new SensorNotification[times];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    void onEvent(int step, SensorNotification notification, long now, long sequence) {
+        // The position of the new event is the position of the oldest one when the buffer is full.
+        times[next] = now;
+        events[next] = notification;
+        next = (next + 1) % times.length;
+        if(size < times.length)
+            size++;
+
+        if(size == times.length && now - times[next] <= window) {
+            SensorNotification[] matched = new SensorNotification[times.length];
+            for(int i = 0; i < matched.length; i++) {
+                int j = (next + i) % times.length;
+                matched[i] = events[j];
+                events[j] = null;
+            }
+            size = 0;
+            match(matched);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum interval between the first and the last event, in nanoseconds.
+     */
+    private final long window;
+
+    /**
+     * The times of the last events.
+     */
+    private final long[] times;
+
+    /**
+     * The last events.
+     */
+    private final SensorNotification[] events;
+
+    /**
+     * The position of the next event in the circular buffer.
+     */
+    private int next;
+
+    /**
+     * The number of events in the buffer.
+     */
+    private int size;
+}
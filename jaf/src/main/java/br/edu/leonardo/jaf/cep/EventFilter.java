@@ -0,0 +1,97 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.util.Objects;
+
+/**
+ * An event of a complex event processing pattern: a notification of a given sensor whose value
+ * satisfies a condition. Event filters are created with the method <code>Pattern.when</code>.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public final class EventFilter {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new EventFilter with the given sensor and condition.
+     *
+     * @param sensor The sensor that notifies the events.
+     * @param condition The condition satisfied by the values of the events.
+     */
+    EventFilter(Sensor sensor, Condition condition) {
+        this.sensor = sensor;
+        this.condition = condition;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method checks if a notification is an event accepted by this filter.
+     *
+     * @param notification The notification.
+     * @return True if the notification was sent by the sensor of this filter and its value
+     *         satisfies the condition; false otherwise.
+     */
+    public boolean test(SensorNotification notification) {
+        return notification.getSensor() == sensor && condition.test(notification.getValue());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the sensor that notifies the events.
+     *
+     * @return The sensor reference.
+     */
+    public Sensor getSensor() {
+        return sensor;
+    }
+
+    /**
+     * This method obtains the condition satisfied by the values of the events.
+     *
+     * @return The condition.
+     */
+    public Condition getCondition() {
+        return condition;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TOSTRING, EQUALS, HASHCODE
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(sensor) * 31 + condition.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(!(obj instanceof EventFilter))
+            return false;
+        EventFilter other = (EventFilter) obj;
+        return sensor == other.sensor && Objects.equals(condition, other.condition);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The sensor that notifies the events.
+     */
+    private final Sensor sensor;
+
+    /**
+     * The condition satisfied by the values of the events.
+     */
+    private final Condition condition;
+}
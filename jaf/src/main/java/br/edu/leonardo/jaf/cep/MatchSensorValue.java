@@ -0,0 +1,76 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A value notified by a CepRule when its pattern is matched. It contains the events of the match.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class MatchSensorValue implements SensorValue {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new MatchSensorValue with the given rule name and events.
+     *
+     * @param ruleName The name of the matched rule.
+     * @param events The events of the match, in the order of the pattern steps.
+     */
+    public MatchSensorValue(String ruleName, SensorNotification[] events) {
+        this.ruleName = ruleName;
+        this.events = events;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the name of the matched rule.
+     *
+     * @return The rule name.
+     */
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    /**
+     * This method obtains the events of the match.
+     *
+     * @return An unmodifiable list with the events, in the order of the pattern steps. An absence
+     *         match contains the last event before the silence, if there was one.
+     */
+    public List<SensorNotification> getEvents() {
+        return Collections.unmodifiableList(Arrays.asList(events));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TOSTRING, EQUALS, HASHCODE
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String toString() {
+        return "MatchSensorValue{" + "ruleName=" + ruleName + ", events=" + events.length + '}';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The name of the matched rule.
+     */
+    private final String ruleName;
+
+    /**
+     * The events of the match.
+     */
+    private final SensorNotification[] events;
+}
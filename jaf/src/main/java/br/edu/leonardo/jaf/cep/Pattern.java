@@ -0,0 +1,171 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A pattern of events declared over the notifications of sensors. Patterns are created with the
+ * static factory methods of this class and are added to a CepEngine as rules:
+ * <ul>
+ * <li><code>event</code>: a single event, such as a reading above a threshold;</li>
+ * <li><code>sequence</code>: events that happen in a given order within a time window;</li>
+ * <li><code>absence</code>: no event during a period (for example, no reading for 5 minutes);</li>
+ * <li><code>count</code>: a number of events within a time window.</li>
+ * </ul>
+ * The events of a pattern are EventFilter objects created with the method <code>when</code>.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class Pattern {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new Pattern with the given steps.
+     *
+     * @param steps The events of the pattern. Each event that satisfies a step is delivered to the
+     *              matcher of the pattern with the index of the step.
+     * @throws IllegalArgumentException If no step is informed.
+     */
+    Pattern(EventFilter... steps) {
+        if(steps.length == 0)
+            throw new IllegalArgumentException("A pattern must have at least one event.");
+        this.steps = Collections.unmodifiableList(Arrays.asList(steps.clone()));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method creates an event filter that accepts the notifications of the given sensor whose
+     * values satisfy the given condition.
+     *
+     * @param sensor The sensor.
+     * @param condition The condition.
+     * @return The event filter.
+     */
+    public static EventFilter when(Sensor sensor, Condition condition) {
+        return new EventFilter(sensor, condition);
+    }
+
+    /**
+     * This method creates an event filter that accepts all notifications of the given sensor.
+     *
+     * @param sensor The sensor.
+     * @return The event filter.
+     */
+    public static EventFilter when(Sensor sensor) {
+        return new EventFilter(sensor, Conditions.any());
+    }
+
+    /**
+     * This method creates a pattern that matches every event accepted by the given filter.
+     *
+     * @param event The event filter.
+     * @return The pattern.
+     */
+    public static Pattern event(EventFilter event) {
+        return sequence(Duration.ZERO, event);
+    }
+
+    /**
+     * This method creates a pattern that matches events accepted by the given filters, in the
+     * given order, when the interval between the first and the last event is not longer than the
+     * given window. Other events may happen between the events of the sequence.
+     *
+     * @param within The maximum interval between the first and the last event.
+     * @param events The event filters, in the order of the sequence.
+     * @return The pattern.
+     */
+    public static Pattern sequence(Duration within, EventFilter... events) {
+        long window = within.toNanos();
+        return new Pattern(events) {
+            @Override
+            PatternMatcher compile(CepRule rule, CepEngine engine) {
+                return new SequenceMatcher(rule, getSteps().size(), window);
+            }
+        };
+    }
+
+    /**
+     * This method creates a pattern that matches when no event accepted by the given filter
+     * happens during the given period. The period is counted from the start of the engine or from
+     * the last event, and each period without events is matched only once.
+     *
+     * @param event The event filter.
+     * @param period The period without events.
+     * @return The pattern.
+     */
+    public static Pattern absence(EventFilter event, Duration period) {
+        long nanos = period.toNanos();
+        return new Pattern(event) {
+            @Override
+            PatternMatcher compile(CepRule rule, CepEngine engine) {
+                return new AbsenceMatcher(rule, engine, nanos);
+            }
+        };
+    }
+
+    /**
+     * This method creates a pattern that matches when the given number of events accepted by the
+     * given filter happen within the given window. After a match, the events are counted again.
+     *
+     * @param event The event filter.
+     * @param times The number of events.
+     * @param within The maximum interval between the first and the last event.
+     * @return The pattern.
+     * @throws IllegalArgumentException If the number of events is not positive.
+     */
+    public static Pattern count(EventFilter event, int times, Duration within) {
+        if(times < 1)
+            throw new IllegalArgumentException("The number of events must be positive.");
+        long window = within.toNanos();
+        return new Pattern(event) {
+            @Override
+            PatternMatcher compile(CepRule rule, CepEngine engine) {
+                return new CountMatcher(rule, times, window);
+            }
+        };
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the events of this pattern.
+     *
+     * @return An unmodifiable list with the event filters of the pattern steps.
+     */
+    public List<EventFilter> getSteps() {
+        return steps;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method compiles this pattern into a matcher for a rule.
+     *
+     * @param rule The rule that receives the matches.
+     * @param engine The engine where the rule is executed.
+     * @return The matcher.
+     */
+    abstract PatternMatcher compile(CepRule rule, CepEngine engine);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The events of the pattern steps.
+     */
+    private final List<EventFilter> steps;
+}
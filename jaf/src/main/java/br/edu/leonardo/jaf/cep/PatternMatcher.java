@@ -0,0 +1,69 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+
+/**
+ * The state machine that recognizes a pattern for a rule. A matcher receives the events that
+ * satisfy the steps of its pattern, already filtered by the engine, and reports the matches to its
+ * rule. Matchers are only accessed while holding the lock of the engine.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+abstract class PatternMatcher {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new PatternMatcher that reports matches to the given rule.
+     *
+     * @param rule The rule.
+     */
+    PatternMatcher(CepRule rule) {
+        this.rule = rule;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method processes an event that satisfies a step of the pattern. An event that
+     * satisfies several steps is delivered to the later steps first.
+     *
+     * @param step The index of the step satisfied by the event.
+     * @param notification The event.
+     * @param now The time of the event, as given by <code>System.nanoTime</code>.
+     * @param sequence The sequence number of the event in the engine. An event that satisfies
+     *                 several steps is processed once for each step, always with the same number.
+     */
+    abstract void onEvent(int step, SensorNotification notification, long now, long sequence);
+
+    /**
+     * This method is executed when the engine starts processing events. The default implementation
+     * does nothing.
+     *
+     * @param now The current time, as given by <code>System.nanoTime</code>.
+     */
+    void start(long now) {
+    }
+
+    /**
+     * This method reports a match to the rule.
+     *
+     * @param events The events of the match, in the order of the pattern steps.
+     */
+    final void match(SensorNotification[] events) {
+        rule.match(events);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The rule that receives the matches.
+     */
+    private final CepRule rule;
+}
@@ -0,0 +1,121 @@
+package br.edu.leonardo.jaf.cep;
+
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+
+/**
+ * The matcher of a sequence pattern. It simulates the nondeterministic automaton of the sequence:
+ * the state k is active when the first k steps have been matched by a partial run. Two runs in
+ * the same state have the same future, so only the run that started last (the one with more time
+ * left in the window) is kept. The memory of a matcher is, therefore, proportional to the number
+ * of steps, and each event is processed in constant time for each step it satisfies.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class SequenceMatcher extends PatternMatcher {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SequenceMatcher.
+     *
+     * @param rule The rule that receives the matches.
+     * @param numOfSteps The number of steps of the sequence.
+     * @param window The maximum interval between the first and the last event, in nanoseconds.
+     */
+    SequenceMatcher(CepRule rule, int numOfSteps, long window) {
+        super(rule);
+        this.window = window;
+        this.active = new boolean[numOfSteps];
+        this.starts = new long[numOfSteps];
+        this.activations = new long[numOfSteps];
+        this.captured = new SensorNotification[numOfSteps][numOfSteps];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    void onEvent(int step, SensorNotification notification, long now, long sequence) {
+        int last = active.length - 1;
+        if(step == 0) {
+            if(last == 0) {
+                match(new SensorNotification[] {notification});
+            } else {
+                // A new run always starts later than the existing one in state 1. The steps are
+                // delivered in descending order, so the existing run has already seen this event.
+                activate(1, now, sequence);
+                captured[1][0] = notification;
+            }
+            return;
+        }
+
+        // An event can advance a run only once, and only if the run is still in its window.
+        if(!active[step] || activations[step] == sequence)
+            return;
+        if(now - starts[step] > window) {
+            active[step] = false;
+            return;
+        }
+
+        active[step] = false;
+        if(step == last) {
+            SensorNotification[] events = new SensorNotification[active.length];
+            System.arraycopy(captured[step], 0, events, 0, step);
+            events[step] = notification;
+            match(events);
+        } else if(!active[step + 1] || starts[step] - starts[step + 1] >= 0) {
+            activate(step + 1, starts[step], sequence);
+            System.arraycopy(captured[step], 0, captured[step + 1], 0, step);
+            captured[step + 1][step] = notification;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method activates a state.
+     *
+     * @param state The state.
+     * @param start The time of the first event of the run.
+     * @param sequence The sequence number of the event that activated the state.
+     */
+    private void activate(int state, long start, long sequence) {
+        active[state] = true;
+        starts[state] = start;
+        activations[state] = sequence;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum interval between the first and the last event, in nanoseconds.
+     */
+    private final long window;
+
+    /**
+     * The active states. The state k is active if a run has matched the first k steps.
+     */
+    private final boolean[] active;
+
+    /**
+     * The time of the first event of the run in each state.
+     */
+    private final long[] starts;
+
+    /**
+     * The sequence number of the event that activated each state.
+     */
+    private final long[] activations;
+
+    /**
+     * The events matched by the run in each state.
+     */
+    private final SensorNotification[][] captured;
+}
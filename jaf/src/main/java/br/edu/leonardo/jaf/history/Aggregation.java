@@ -0,0 +1,36 @@
+package br.edu.leonardo.jaf.history;
+
+/**
+ * The aggregations computed by a HistoryQuery for each bucket of time. All aggregations ignore NaN
+ * values and can be computed from the summaries of the blocks of the series, so blocks completely
+ * inside a bucket are not decompressed.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public enum Aggregation {
+
+    /**
+     * The number of values.
+     */
+    COUNT,
+
+    /**
+     * The sum of the values.
+     */
+    SUM,
+
+    /**
+     * The arithmetic mean of the values.
+     */
+    MEAN,
+
+    /**
+     * The minimum value.
+     */
+    MIN,
+
+    /**
+     * The maximum value.
+     */
+    MAX
+}
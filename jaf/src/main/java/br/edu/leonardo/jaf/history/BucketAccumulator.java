@@ -0,0 +1,139 @@
+package br.edu.leonardo.jaf.history;
+
+import java.util.Arrays;
+
+/**
+ * The partial state of the aggregations of a query: the number, sum, minimum and maximum of the
+ * values of each bucket. Partial states of different series are merged to aggregate groups of
+ * series, and the summary of a block is added to a bucket without decompressing the block.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class BucketAccumulator {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new BucketAccumulator with empty buckets.
+     *
+     * @param buckets The number of buckets.
+     */
+    BucketAccumulator(int buckets) {
+        counts = new long[buckets];
+        sums = new double[buckets];
+        mins = new double[buckets];
+        maxs = new double[buckets];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method adds a value to a bucket. NaN values are ignored.
+     *
+     * @param bucket The index of the bucket.
+     * @param value The value.
+     */
+    void add(int bucket, double value) {
+        if(Double.isNaN(value))
+            return;
+        counts[bucket]++;
+        sums[bucket] += value;
+        if(value < mins[bucket])
+            mins[bucket] = value;
+        if(value > maxs[bucket])
+            maxs[bucket] = value;
+    }
+
+    /**
+     * This method adds all values of a block to a bucket, using the summary of the block.
+     *
+     * @param bucket The index of the bucket.
+     * @param block The block.
+     */
+    void add(int bucket, TimeSeriesBlock block) {
+        counts[bucket] += block.getValueCount();
+        sums[bucket] += block.getSum();
+        if(block.getMin() < mins[bucket])
+            mins[bucket] = block.getMin();
+        if(block.getMax() > maxs[bucket])
+            maxs[bucket] = block.getMax();
+    }
+
+    /**
+     * This method merges the state of another accumulator with the same buckets into this one.
+     *
+     * @param other The other accumulator.
+     */
+    void merge(BucketAccumulator other) {
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+            sums[i] += other.sums[i];
+            if(other.mins[i] < mins[i])
+                mins[i] = other.mins[i];
+            if(other.maxs[i] > maxs[i])
+                maxs[i] = other.maxs[i];
+        }
+    }
+
+    /**
+     * This method computes the result of an aggregation.
+     *
+     * @param aggregation The aggregation.
+     * @param times The first timestamp of each bucket.
+     * @return The result.
+     */
+    QueryResult toResult(Aggregation aggregation, long[] times) {
+        double[] values = new double[counts.length];
+        for(int i = 0; i < values.length; i++) {
+            boolean empty = counts[i] == 0;
+            switch(aggregation) {
+                case COUNT:
+                    values[i] = counts[i];
+                    break;
+                case SUM:
+                    values[i] = sums[i];
+                    break;
+                case MEAN:
+                    values[i] = empty ? Double.NaN : sums[i] / counts[i];
+                    break;
+                case MIN:
+                    values[i] = empty ? Double.NaN : mins[i];
+                    break;
+                default:
+                    values[i] = empty ? Double.NaN : maxs[i];
+                    break;
+            }
+        }
+        return new QueryResult(times, values, counts);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of values of each bucket.
+     */
+    private final long[] counts;
+
+    /**
+     * The sum of the values of each bucket.
+     */
+    private final double[] sums;
+
+    /**
+     * The minimum value of each bucket.
+     */
+    private final double[] mins;
+
+    /**
+     * The maximum value of each bucket.
+     */
+    private final double[] maxs;
+}
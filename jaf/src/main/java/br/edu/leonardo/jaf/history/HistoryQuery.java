@@ -0,0 +1,373 @@
+package br.edu.leonardo.jaf.history;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * A query over the history of sensors: an aggregation of the values of one or more time series in
+ * a range of time, downsampled into buckets of fixed duration. For example, the mean temperature
+ * of the last hour in buckets of one minute:
+ * <pre>
+ * Instant now = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+ * HistoryQuery query = new HistoryQuery(now.minus(Duration.ofHours(1)), now, Duration.ofMinutes(1), Aggregation.MEAN);
+ * QueryResult result = query.execute(temperature);
+ * </pre>
+ * <p>
+ * The aggregation is pushed down to the blocks of the series: a block whose points are all in the
+ * same bucket is aggregated from its summary, without decompressing it, and only the blocks that
+ * cross the limits of the buckets or of the range are scanned. Blocks limited only by their
+ * number of points rarely fit in a bucket shorter than the time they span (1024 readings of one
+ * sensor per second span about 17 minutes), so the pushdown requires series whose blocks are
+ * limited to aligned intervals of time (see TimeSeries) and buckets that are multiples of those
+ * intervals, starting at a multiple of them, as in the example above with blocks of one minute.
+ * Queries over several series are executed in parallel in a fork-join pool, one task per series,
+ * and the series of a group are merged from their partial aggregations.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class HistoryQuery {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new HistoryQuery that aggregates all values in the range into a
+     * single bucket.
+     *
+     * @param from The first instant of the range, inclusive.
+     * @param to The last instant of the range, exclusive.
+     * @param aggregation The aggregation.
+     * @throws IllegalArgumentException If the range is empty.
+     */
+    public HistoryQuery(Instant from, Instant to, Aggregation aggregation) {
+        this(from.toEpochMilli(), to.toEpochMilli(), to.toEpochMilli() - from.toEpochMilli(), aggregation, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This constructor builds a new HistoryQuery that uses the common fork-join pool.
+     *
+     * @param from The first instant of the range, inclusive.
+     * @param to The last instant of the range, exclusive.
+     * @param bucket The duration of each bucket. The last bucket ends at the end of the range.
+     * @param aggregation The aggregation.
+     * @throws IllegalArgumentException If the range is empty, the duration of the buckets is not
+     *                                  positive or the range has too many buckets.
+     */
+    public HistoryQuery(Instant from, Instant to, Duration bucket, Aggregation aggregation) {
+        this(from.toEpochMilli(), to.toEpochMilli(), bucket.toMillis(), aggregation, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This constructor builds a new HistoryQuery.
+     *
+     * @param from The first timestamp of the range, in milliseconds since the epoch, inclusive.
+     * @param to The last timestamp of the range, in milliseconds since the epoch, exclusive.
+     * @param bucket The duration of each bucket, in milliseconds. The last bucket ends at the end
+     *               of the range.
+     * @param aggregation The aggregation.
+     * @param pool The pool that executes the queries over several series.
+     * @throws IllegalArgumentException If the range is empty, the duration of the buckets is not
+     *                                  positive or the range has too many buckets.
+     */
+    public HistoryQuery(long from, long to, long bucket, Aggregation aggregation, ForkJoinPool pool) {
+        if(to <= from)
+            throw new IllegalArgumentException("The range of the query is empty.");
+        if(bucket <= 0)
+            throw new IllegalArgumentException("The duration of the buckets must be positive.");
+        long buckets = (Math.subtractExact(to, from) - 1) / bucket + 1;
+        if(buckets > MAX_BUCKETS)
+            throw new IllegalArgumentException("The range of the query has too many buckets.");
+        this.from = from;
+        this.to = to;
+        this.bucket = bucket;
+        this.aggregation = aggregation;
+        this.pool = pool;
+        times = new long[(int) buckets];
+        for(int i = 0; i < times.length; i++) {
+            times[i] = from + i * bucket;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method executes this query over a series, in the current thread.
+     *
+     * @param series The series.
+     * @return The result.
+     */
+    public QueryResult execute(TimeSeries series) {
+        return accumulate(series).toResult(aggregation, times.clone());
+    }
+
+    /**
+     * This method executes this query over each series of a list, in parallel.
+     *
+     * @param series The series.
+     * @return The results, in the order of the series.
+     */
+    public QueryResult[] execute(List<TimeSeries> series) {
+        List<AccumulateTask> tasks = new ArrayList<>(series.size());
+        for(TimeSeries s : series) {
+            AccumulateTask task = new AccumulateTask(new TimeSeries[] {s}, 0, 1);
+            tasks.add(task);
+            pool.execute(task);
+        }
+        QueryResult[] results = new QueryResult[series.size()];
+        for(int i = 0; i < results.length; i++) {
+            results[i] = tasks.get(i).join().toResult(aggregation, times.clone());
+        }
+        return results;
+    }
+
+    /**
+     * This method executes this query over groups of series, in parallel. The values of all
+     * series of a group are aggregated together; for example, the mean temperature of the sensors
+     * of each room.
+     *
+     * @param <K> The type of the keys of the groups.
+     * @param series The series.
+     * @param groupBy The function that obtains the key of the group of a series.
+     * @return The result of each group, in the order of the first series of each group.
+     */
+    public <K> Map<K, QueryResult> execute(Collection<TimeSeries> series, Function<TimeSeries, K> groupBy) {
+        Map<K, List<TimeSeries>> groups = new LinkedHashMap<>();
+        for(TimeSeries s : series) {
+            groups.computeIfAbsent(groupBy.apply(s), k -> new ArrayList<>()).add(s);
+        }
+        Map<K, AccumulateTask> tasks = new LinkedHashMap<>();
+        for(Map.Entry<K, List<TimeSeries>> group : groups.entrySet()) {
+            TimeSeries[] members = group.getValue().toArray(new TimeSeries[0]);
+            AccumulateTask task = new AccumulateTask(members, 0, members.length);
+            tasks.put(group.getKey(), task);
+            pool.execute(task);
+        }
+        Map<K, QueryResult> results = new LinkedHashMap<>();
+        for(Map.Entry<K, AccumulateTask> task : tasks.entrySet()) {
+            results.put(task.getKey(), task.getValue().join().toResult(aggregation, times.clone()));
+        }
+        return results;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the aggregation of this query.
+     *
+     * @return The aggregation.
+     */
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    /**
+     * This method obtains the number of buckets of this query.
+     *
+     * @return The number of buckets.
+     */
+    public int getNumOfBuckets() {
+        return times.length;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method computes the partial aggregation of a series.
+     *
+     * @param series The series.
+     * @return The partial aggregation.
+     */
+    private BucketAccumulator accumulate(TimeSeries series) {
+        BucketAccumulator accumulator = new BucketAccumulator(times.length);
+        BucketVisitor visitor = new BucketVisitor(accumulator);
+        for(TimeSeriesBlock block : series.snapshot()) {
+            if(block.getCount() == 0 || block.getLastTime() < from)
+                continue;
+            if(block.getFirstTime() >= to)
+                break;
+            if(block.getFirstTime() >= from && block.getLastTime() < to
+                    && bucketOf(block.getFirstTime()) == bucketOf(block.getLastTime())) {
+                accumulator.add(bucketOf(block.getFirstTime()), block);
+            } else {
+                visitor.start(Math.max(block.getFirstTime(), from));
+                block.scan(from, to - 1, visitor);
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * This method obtains the bucket of a timestamp in the range of this query.
+     *
+     * @param time The timestamp.
+     * @return The index of the bucket.
+     */
+    private int bucketOf(long time) {
+        return (int) ((time - from) / bucket);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum number of buckets of a query.
+     */
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The first timestamp of the range, inclusive.
+     */
+    private final long from;
+
+    /**
+     * The last timestamp of the range, exclusive.
+     */
+    private final long to;
+
+    /**
+     * The duration of each bucket, in milliseconds.
+     */
+    private final long bucket;
+
+    /**
+     * The aggregation.
+     */
+    private final Aggregation aggregation;
+
+    /**
+     * The pool that executes the queries over several series.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The first timestamp of each bucket.
+     */
+    private final long[] times;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A visitor that adds the scanned points of a block to their buckets. The points are visited
+     * in the order of their timestamps, so the bucket of each point is found by advancing the
+     * current bucket instead of dividing the timestamp.
+     */
+    private class BucketVisitor implements TimeSeriesVisitor {
+
+        /**
+         * This constructor builds a new BucketVisitor.
+         *
+         * @param accumulator The accumulator of the buckets.
+         */
+        BucketVisitor(BucketAccumulator accumulator) {
+            this.accumulator = accumulator;
+        }
+
+        /**
+         * This method prepares the visitor to scan a block.
+         *
+         * @param time The first timestamp that can be visited, in the range of the query.
+         */
+        void start(long time) {
+            current = bucketOf(time);
+            end = from + (current + 1) * bucket;
+        }
+
+        @Override
+        public void visit(long time, double value) {
+            while(time >= end) {
+                current++;
+                end += bucket;
+            }
+            accumulator.add(current, value);
+        }
+
+        /**
+         * The accumulator of the buckets.
+         */
+        private final BucketAccumulator accumulator;
+
+        /**
+         * The index of the current bucket.
+         */
+        private int current;
+
+        /**
+         * The first timestamp after the current bucket.
+         */
+        private long end;
+    }
+
+    /**
+     * A task that computes the merged partial aggregation of a range of series, splitting the
+     * range in halves until each task has a single series.
+     */
+    private class AccumulateTask extends RecursiveTask<BucketAccumulator> {
+
+        /**
+         * The serialization version of the task.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * This constructor builds a new AccumulateTask.
+         *
+         * @param series The series.
+         * @param start The index of the first series of the range, inclusive.
+         * @param end The index of the last series of the range, exclusive.
+         */
+        AccumulateTask(TimeSeries[] series, int start, int end) {
+            this.series = series;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected BucketAccumulator compute() {
+            if(end - start == 1)
+                return accumulate(series[start]);
+            int middle = (start + end) >>> 1;
+            AccumulateTask left = new AccumulateTask(series, start, middle);
+            left.fork();
+            BucketAccumulator result = new AccumulateTask(series, middle, end).compute();
+            result.merge(left.join());
+            return result;
+        }
+
+        /**
+         * The series.
+         */
+        private final TimeSeries[] series;
+
+        /**
+         * The index of the first series of the range, inclusive.
+         */
+        private final int start;
+
+        /**
+         * The index of the last series of the range, exclusive.
+         */
+        private final int end;
+    }
+}
@@ -0,0 +1,87 @@
+package br.edu.leonardo.jaf.history;
+
+/**
+ * The result of a HistoryQuery: the aggregated value of each bucket of time, stored in primitive
+ * arrays indexed by bucket.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class QueryResult {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new QueryResult.
+     *
+     * @param times The first timestamp of each bucket.
+     * @param values The aggregated value of each bucket.
+     * @param counts The number of values of each bucket.
+     */
+    QueryResult(long[] times, double[] values, long[] counts) {
+        this.times = times;
+        this.values = values;
+        this.counts = counts;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the number of buckets.
+     *
+     * @return The number of buckets.
+     */
+    public int size() {
+        return times.length;
+    }
+
+    /**
+     * This method obtains the first timestamp of each bucket.
+     *
+     * @return The array of timestamps, in milliseconds since the epoch. The array is not copied.
+     */
+    public long[] getTimes() {
+        return times;
+    }
+
+    /**
+     * This method obtains the aggregated value of each bucket.
+     *
+     * @return The array of values. A bucket without values has the value NaN (or 0 for the
+     *         aggregations COUNT and SUM). The array is not copied.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * This method obtains the number of values of each bucket.
+     *
+     * @return The array of numbers of values. The array is not copied.
+     */
+    public long[] getCounts() {
+        return counts;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The first timestamp of each bucket.
+     */
+    private final long[] times;
+
+    /**
+     * The aggregated value of each bucket.
+     */
+    private final double[] values;
+
+    /**
+     * The number of values of each bucket.
+     */
+    private final long[] counts;
+}
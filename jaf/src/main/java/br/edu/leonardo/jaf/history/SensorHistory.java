@@ -0,0 +1,188 @@
+package br.edu.leonardo.jaf.history;
+
+import br.edu.leonardo.jaf.sensors.NotificationListener;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import br.edu.leonardo.jaf.sensors.SensorValueExtractors;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A history of the readings of sensors, kept in compressed time series. The history is a sink of
+ * the notifications of the sensors: each recorded sensor appends the numbers extracted from its
+ * readings to a time series.
+ * <pre>
+ * SensorHistory history = new SensorHistory();
+ * TimeSeries temperature = history.record("temperature", sensor, SensorValueExtractors.SINGLE);
+ * ...
+ * temperature.scan(from, to, (time, value) -&gt; ...);
+ * </pre>
+ * <p>
+ * The timestamp of a reading is its device time, if it is known, or the time it was received. A
+ * reading whose timestamp precedes the last one of its series (for example, a late reading of a
+ * device) is dropped and counted.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SensorHistory {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SensorHistory whose series have blocks of 1024 points.
+     */
+    public SensorHistory() {
+        this(1024);
+    }
+
+    /**
+     * This constructor builds a new SensorHistory.
+     *
+     * @param blockSize The number of points of each block of the series.
+     * @throws IllegalArgumentException If the block size is not positive.
+     */
+    public SensorHistory(int blockSize) {
+        if(blockSize <= 0)
+            throw new IllegalArgumentException("The block size must be positive.");
+        this.blockSize = blockSize;
+        this.blockDuration = null;
+    }
+
+    /**
+     * This constructor builds a new SensorHistory whose series have blocks limited to aligned
+     * intervals of time (see TimeSeries).
+     *
+     * @param blockSize The maximum number of points of each block of the series.
+     * @param blockDuration The duration of the interval of each block of the series.
+     * @throws IllegalArgumentException If the block size or the block duration is not positive.
+     */
+    public SensorHistory(int blockSize, Duration blockDuration) {
+        if(blockSize <= 0)
+            throw new IllegalArgumentException("The block size must be positive.");
+        if(blockDuration.toMillis() <= 0)
+            throw new IllegalArgumentException("The block duration must be positive.");
+        this.blockSize = blockSize;
+        this.blockDuration = blockDuration;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method starts recording the readings of a sensor in a new series. A sensor can be
+     * recorded in several series, for example, the latitude, longitude and altitude of a location
+     * sensor (see SensorValueExtractors).
+     *
+     * @param name The name of the series.
+     * @param sensor The sensor.
+     * @param extractor The function that extracts the number recorded from each reading.
+     * @return The series.
+     */
+    public TimeSeries record(String name, Sensor sensor, ToDoubleFunction<SensorValue> extractor) {
+        TimeSeries series = blockDuration == null ? new TimeSeries(name, blockSize) : new TimeSeries(name, blockSize, blockDuration);
+        synchronized(this) {
+            this.series.add(series);
+        }
+        sensor.addListener(new NotificationListener() {
+            @Override
+            public void notify(SensorNotification notification) {
+                Instant deviceTime = notification.getDeviceTime();
+                long time = deviceTime != null ? deviceTime.toEpochMilli() : System.currentTimeMillis();
+                double value = extractor.applyAsDouble(notification.getValue());
+                try {
+                    series.append(time, value);
+                } catch (IllegalArgumentException ex) {
+                    droppedReadings.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void onFatalError(SensorException exception) {
+                // The series keeps the readings received before the error.
+            }
+        });
+        return series;
+    }
+
+    /**
+     * This method starts recording the readings of a sensor of SingleSensorValue in a new series.
+     *
+     * @param name The name of the series.
+     * @param sensor The sensor.
+     * @return The series.
+     */
+    public TimeSeries record(String name, Sensor sensor) {
+        return record(name, sensor, SensorValueExtractors.SINGLE);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the series of this history.
+     *
+     * @return An unmodifiable list with the series, in the order they were created.
+     */
+    public synchronized List<TimeSeries> getSeries() {
+        return Collections.unmodifiableList(new ArrayList<>(series));
+    }
+
+    /**
+     * This method obtains the number of readings dropped because their timestamps preceded the
+     * last timestamp of their series.
+     *
+     * @return The number of dropped readings.
+     */
+    public long getNumOfDroppedReadings() {
+        return droppedReadings.get();
+    }
+
+    /**
+     * This method estimates the memory used by the points of all series of this history.
+     *
+     * @return The number of bytes.
+     */
+    public long getSizeInBytes() {
+        long size = 0;
+        for(TimeSeries s : getSeries()) {
+            size += s.getSizeInBytes();
+        }
+        return size;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum number of points of each block of the series.
+     */
+    private final int blockSize;
+
+    /**
+     * The duration of the aligned interval of each block of the series; null if the blocks are
+     * only limited by their number of points.
+     */
+    private final Duration blockDuration;
+
+    /**
+     * The series of the history.
+     */
+    private final List<TimeSeries> series = new ArrayList<>();
+
+    /**
+     * The number of dropped readings.
+     */
+    private final AtomicLong droppedReadings = new AtomicLong();
+}
@@ -0,0 +1,223 @@
+package br.edu.leonardo.jaf.history;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compressed time series of double values, used to keep a long history of sensor readings in
+ * memory. The points are stored in blocks with a maximum number of points, compressed with delta
+ * of delta timestamps and XOR values (see TimeSeriesBlock). Optionally, the blocks are also
+ * limited to aligned intervals of time (for example, one block per minute of the clock), so the
+ * queries whose buckets are multiples of those intervals aggregate whole blocks from their
+ * summaries (see HistoryQuery). A reading of a sensor every second, with values that change
+ * slowly, takes a few bytes instead of the tens of bytes of a SensorValue and its Quantity.
+ * <p>
+ * The timestamps are milliseconds since the epoch and must be appended in order. Scans stream the
+ * points of a range of timestamps through the blocks and skip the blocks outside the range. Points
+ * can be appended and scanned by different threads: a scan reads the points appended before it
+ * started.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class TimeSeries {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TimeSeries with blocks of 1024 points.
+     *
+     * @param name The name of the series.
+     */
+    public TimeSeries(String name) {
+        this(name, 1024);
+    }
+
+    /**
+     * This constructor builds a new TimeSeries.
+     *
+     * @param name The name of the series.
+     * @param blockSize The number of points of each block. Larger blocks compress slightly better
+     *                  and smaller blocks are skipped more precisely by scans.
+     * @throws IllegalArgumentException If the block size is not positive.
+     */
+    public TimeSeries(String name, int blockSize) {
+        if(blockSize <= 0)
+            throw new IllegalArgumentException("The block size must be positive.");
+        this.name = name;
+        this.blockSize = blockSize;
+        this.blockDuration = 0;
+    }
+
+    /**
+     * This constructor builds a new TimeSeries whose blocks are also limited to aligned intervals
+     * of time: a block only has points of one interval, and the intervals start at multiples of
+     * their duration since the epoch.
+     *
+     * @param name The name of the series.
+     * @param blockSize The maximum number of points of each block.
+     * @param blockDuration The duration of the interval of each block, which is truncated to
+     *                      milliseconds.
+     * @throws IllegalArgumentException If the block size or the block duration is not positive.
+     */
+    public TimeSeries(String name, int blockSize, Duration blockDuration) {
+        if(blockSize <= 0)
+            throw new IllegalArgumentException("The block size must be positive.");
+        if(blockDuration.toMillis() <= 0)
+            throw new IllegalArgumentException("The block duration must be positive.");
+        this.name = name;
+        this.blockSize = blockSize;
+        this.blockDuration = blockDuration.toMillis();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method appends a point to this series.
+     *
+     * @param time The timestamp of the point, in milliseconds since the epoch.
+     * @param value The value of the point.
+     * @throws IllegalArgumentException If the timestamp precedes the last timestamp of the series.
+     */
+    public synchronized void append(long time, double value) {
+        if(current == null) {
+            current = new TimeSeriesBlock();
+        } else if(time < current.getLastTime()) {
+            throw new IllegalArgumentException("The timestamp " + time + " precedes the last timestamp of the series.");
+        } else if(current.getCount() == blockSize || (blockDuration > 0
+                && Math.floorDiv(time, blockDuration) != Math.floorDiv(current.getFirstTime(), blockDuration))) {
+            current.seal();
+            blocks.add(current);
+            current = new TimeSeriesBlock();
+        }
+        current.append(time, value);
+        count++;
+    }
+
+    /**
+     * This method visits the points of this series whose timestamps are in the given range, in
+     * the order of the timestamps. The visitor is executed in the current thread, without holding
+     * the lock of the series.
+     *
+     * @param from The first timestamp of the range, in milliseconds since the epoch, inclusive.
+     * @param to The last timestamp of the range, in milliseconds since the epoch, inclusive.
+     * @param visitor The visitor of the points.
+     */
+    public void scan(long from, long to, TimeSeriesVisitor visitor) {
+        for(TimeSeriesBlock block : snapshot()) {
+            if(block.getFirstTime() > to)
+                break;
+            block.scan(from, to, visitor);
+        }
+    }
+
+    /**
+     * This method visits all points of this series.
+     *
+     * @param visitor The visitor of the points.
+     */
+    public void scan(TimeSeriesVisitor visitor) {
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, visitor);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the name of this series.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * This method obtains the number of points of this series.
+     *
+     * @return The number of points.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * This method estimates the memory used by the points of this series.
+     *
+     * @return The number of bytes.
+     */
+    public synchronized long getSizeInBytes() {
+        long size = current == null ? 0 : current.getSizeInBytes();
+        for(TimeSeriesBlock block : blocks) {
+            size += block.getSizeInBytes();
+        }
+        return size;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the blocks of this series. The full blocks are immutable and the last
+     * block is copied, so the blocks can be read without holding the lock of the series.
+     *
+     * @return The blocks, in the order of their timestamps.
+     */
+    synchronized List<TimeSeriesBlock> snapshot() {
+        List<TimeSeriesBlock> snapshot = new ArrayList<>(blocks.size() + 1);
+        snapshot.addAll(blocks);
+        if(current != null)
+            snapshot.add(current.copy());
+        return snapshot;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // T O   S T R I N G ,   E Q U A L S ,   A N D   H A S H C O D E
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String toString() {
+        return "TimeSeries{" + "name=" + name + ", count=" + getCount() + '}';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The name of the series.
+     */
+    private final String name;
+
+    /**
+     * The maximum number of points of each block.
+     */
+    private final int blockSize;
+
+    /**
+     * The duration of the aligned interval of each block, in milliseconds; zero if the blocks are
+     * only limited by their number of points.
+     */
+    private final long blockDuration;
+
+    /**
+     * The full blocks, in the order of their timestamps.
+     */
+    private final List<TimeSeriesBlock> blocks = new ArrayList<>();
+
+    /**
+     * The block that receives the appended points; null if the series is empty.
+     */
+    private TimeSeriesBlock current;
+
+    /**
+     * The number of points of the series.
+     */
+    private long count;
+}
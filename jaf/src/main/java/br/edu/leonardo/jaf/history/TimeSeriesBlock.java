@@ -0,0 +1,422 @@
+package br.edu.leonardo.jaf.history;
+
+import java.util.Arrays;
+
+/**
+ * A block of compressed points of a time series. The timestamps are encoded as deltas of deltas
+ * and the values as the XOR of each value with the previous one, as in the Gorilla storage of
+ * Facebook: regular timestamps take a single bit and values that change slowly take few bits. The
+ * bits are packed in an array of longs, from the most significant bit.
+ * <p>
+ * A block also keeps a summary of its points (the first and last timestamps, the minimum,
+ * maximum and sum of the values and the number of points), so scans and aggregations can skip the
+ * blocks outside a query or use the summary of the blocks completely inside it. Blocks are not
+ * thread-safe; the time series appends to its last block while holding its lock and scans copies
+ * of it.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class TimeSeriesBlock {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new empty TimeSeriesBlock.
+     */
+    TimeSeriesBlock() {
+        words = new long[INITIAL_WORDS];
+    }
+
+    /**
+     * This constructor builds a copy of a block.
+     *
+     * @param block The block.
+     */
+    private TimeSeriesBlock(TimeSeriesBlock block) {
+        words = Arrays.copyOf(block.words, (int) ((block.bitCount + 63) >>> 6));
+        bitCount = block.bitCount;
+        count = block.count;
+        firstTime = block.firstTime;
+        lastTime = block.lastTime;
+        lastDelta = block.lastDelta;
+        lastValue = block.lastValue;
+        lastLeading = block.lastLeading;
+        lastTrailing = block.lastTrailing;
+        min = block.min;
+        max = block.max;
+        sum = block.sum;
+        valueCount = block.valueCount;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method appends a point to this block.
+     *
+     * @param time The timestamp of the point. It must not precede the last timestamp of the block.
+     * @param value The value of the point.
+     */
+    void append(long time, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        if(count == 0) {
+            firstTime = time;
+            writeBits(bits, 64);
+        } else {
+            writeTimestamp(time);
+            writeValue(bits);
+        }
+        if(!Double.isNaN(value)) {
+            if(value < min)
+                min = value;
+            if(value > max)
+                max = value;
+            sum += value;
+            valueCount++;
+        }
+        lastTime = time;
+        lastValue = bits;
+        count++;
+    }
+
+    /**
+     * This method visits the points of this block whose timestamps are in the given range.
+     *
+     * @param from The first timestamp of the range, inclusive.
+     * @param to The last timestamp of the range, inclusive.
+     * @param visitor The visitor of the points.
+     */
+    void scan(long from, long to, TimeSeriesVisitor visitor) {
+        if(count == 0 || lastTime < from || firstTime > to)
+            return;
+        long position = 64;
+        long time = firstTime;
+        long delta = 0;
+        long value = readBits(0, 64);
+        int leading = 0;
+        int trailing = 0;
+        for(int i = 0; ; ) {
+            if(time > to)
+                return;
+            if(time >= from)
+                visitor.visit(time, Double.longBitsToDouble(value));
+            if(++i == count)
+                return;
+
+            // The delta of delta of the timestamp.
+            long dod;
+            if(readBits(position, 1) == 0) {
+                dod = 0;
+                position += 1;
+            } else if(readBits(position + 1, 1) == 0) {
+                dod = signExtend(readBits(position + 2, 7), 7);
+                position += 9;
+            } else if(readBits(position + 2, 1) == 0) {
+                dod = signExtend(readBits(position + 3, 9), 9);
+                position += 12;
+            } else if(readBits(position + 3, 1) == 0) {
+                dod = signExtend(readBits(position + 4, 12), 12);
+                position += 16;
+            } else {
+                dod = readBits(position + 4, 64);
+                position += 68;
+            }
+            delta += dod;
+            time += delta;
+
+            // The XOR with the previous value.
+            if(readBits(position++, 1) != 0) {
+                if(readBits(position++, 1) != 0) {
+                    leading = (int) readBits(position, 5);
+                    int length = (int) readBits(position + 5, 6);
+                    if(length == 0)
+                        length = 64;
+                    trailing = 64 - leading - length;
+                    position += 11;
+                }
+                int length = 64 - leading - trailing;
+                value ^= readBits(position, length) << trailing;
+                position += length;
+            }
+        }
+    }
+
+    /**
+     * This method copies this block, so the copy can be read while this block is appended.
+     *
+     * @return The copy.
+     */
+    TimeSeriesBlock copy() {
+        return new TimeSeriesBlock(this);
+    }
+
+    /**
+     * This method releases the unused space of this block. It is executed when the block is full.
+     */
+    void seal() {
+        words = Arrays.copyOf(words, (int) ((bitCount + 63) >>> 6));
+    }
+
+    /**
+     * This method obtains the number of points in this block.
+     *
+     * @return The number of points.
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * This method obtains the timestamp of the first point of this block.
+     *
+     * @return The timestamp.
+     */
+    long getFirstTime() {
+        return firstTime;
+    }
+
+    /**
+     * This method obtains the timestamp of the last point of this block.
+     *
+     * @return The timestamp.
+     */
+    long getLastTime() {
+        return lastTime;
+    }
+
+    /**
+     * This method obtains the minimum value of this block. NaN values are ignored.
+     *
+     * @return The minimum value; positive infinity if there is no value.
+     */
+    double getMin() {
+        return min;
+    }
+
+    /**
+     * This method obtains the maximum value of this block. NaN values are ignored.
+     *
+     * @return The maximum value; negative infinity if there is no value.
+     */
+    double getMax() {
+        return max;
+    }
+
+    /**
+     * This method obtains the sum of the values of this block. NaN values are ignored.
+     *
+     * @return The sum.
+     */
+    double getSum() {
+        return sum;
+    }
+
+    /**
+     * This method obtains the number of values of this block that are not NaN.
+     *
+     * @return The number of values.
+     */
+    int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * This method estimates the memory used by this block.
+     *
+     * @return The number of bytes.
+     */
+    long getSizeInBytes() {
+        return BLOCK_OVERHEAD + 8L * words.length;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method writes the delta of delta of a timestamp with a variable number of bits.
+     *
+     * @param time The timestamp.
+     */
+    private void writeTimestamp(long time) {
+        long delta = time - lastTime;
+        long dod = delta - lastDelta;
+        lastDelta = delta;
+        if(dod == 0)
+            writeBits(0b0, 1);
+        else if(dod >= -64 && dod < 64)
+            writeBits(0b10L << 7 | (dod & 0x7F), 9);
+        else if(dod >= -256 && dod < 256)
+            writeBits(0b110L << 9 | (dod & 0x1FF), 12);
+        else if(dod >= -2048 && dod < 2048)
+            writeBits(0b1110L << 12 | (dod & 0xFFF), 16);
+        else {
+            writeBits(0b1111, 4);
+            writeBits(dod, 64);
+        }
+    }
+
+    /**
+     * This method writes the XOR of a value with the previous one. If the meaningful bits of the
+     * XOR fit in the window of the previous one, only these bits are written; otherwise, the
+     * number of leading zeros and the length of the meaningful bits are also written.
+     *
+     * @param bits The bits of the value.
+     */
+    private void writeValue(long bits) {
+        long xor = bits ^ lastValue;
+        if(xor == 0) {
+            writeBits(0b0, 1);
+            return;
+        }
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if(leading >= lastLeading && trailing >= lastTrailing) {
+            writeBits(0b10, 2);
+            writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int length = 64 - leading - trailing;
+            writeBits(0b11L << 11 | (long) leading << 6 | (length & 0x3F), 13);
+            writeBits(xor >>> trailing, length);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    /**
+     * This method writes the least significant bits of a number at the end of the block.
+     *
+     * @param value The number.
+     * @param length The number of bits, from 1 to 64.
+     */
+    private void writeBits(long value, int length) {
+        int index = (int) (bitCount >>> 6);
+        int free = 64 - (int) (bitCount & 63);
+        if(index + 1 >= words.length)
+            words = Arrays.copyOf(words, words.length * 2);
+        if(length < 64)
+            value &= (1L << length) - 1;
+        if(length <= free) {
+            words[index] |= value << (free - length);
+        } else {
+            words[index] |= value >>> (length - free);
+            words[index + 1] = value << (64 - (length - free));
+        }
+        bitCount += length;
+    }
+
+    /**
+     * This method reads bits of the block as a number.
+     *
+     * @param position The position of the first bit.
+     * @param length The number of bits, from 1 to 64.
+     * @return The number, whose least significant bits are the read bits.
+     */
+    private long readBits(long position, int length) {
+        int index = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        long value = words[index] << offset;
+        if(offset + length > 64)
+            value |= words[index + 1] >>> (64 - offset);
+        return value >>> (64 - length);
+    }
+
+    /**
+     * This method extends the sign of a number read with the given number of bits.
+     *
+     * @param value The number.
+     * @param length The number of bits.
+     * @return The signed number.
+     */
+    private static long signExtend(long value, int length) {
+        return value << (64 - length) >> (64 - length);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The initial number of words of a block.
+     */
+    private static final int INITIAL_WORDS = 16;
+
+    /**
+     * The estimated memory used by a block besides its words: the headers of the block and of the
+     * array and its fields.
+     */
+    private static final long BLOCK_OVERHEAD = 120;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The encoded bits.
+     */
+    private long[] words;
+
+    /**
+     * The number of encoded bits.
+     */
+    private long bitCount;
+
+    /**
+     * The number of points.
+     */
+    private int count;
+
+    /**
+     * The timestamp of the first point.
+     */
+    private long firstTime;
+
+    /**
+     * The timestamp of the last point.
+     */
+    private long lastTime;
+
+    /**
+     * The difference between the timestamps of the last two points.
+     */
+    private long lastDelta;
+
+    /**
+     * The bits of the last value.
+     */
+    private long lastValue;
+
+    /**
+     * The number of leading zeros of the last written XOR window. It is initially greater than
+     * any written number, so the first XOR writes its window.
+     */
+    private int lastLeading = 64;
+
+    /**
+     * The number of trailing zeros of the last written XOR window.
+     */
+    private int lastTrailing;
+
+    /**
+     * The minimum value.
+     */
+    private double min = Double.POSITIVE_INFINITY;
+
+    /**
+     * The maximum value.
+     */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * The sum of the values.
+     */
+    private double sum;
+
+    /**
+     * The number of values that are not NaN.
+     */
+    private int valueCount;
+}
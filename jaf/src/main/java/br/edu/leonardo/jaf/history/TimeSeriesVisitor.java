@@ -0,0 +1,19 @@
+package br.edu.leonardo.jaf.history;
+
+/**
+ * A visitor of the points of a time series. The points are passed as primitive values, so a scan
+ * does not allocate an object for each point.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+@FunctionalInterface
+public interface TimeSeriesVisitor {
+
+    /**
+     * This method is executed for each visited point, in the order of the timestamps.
+     *
+     * @param time The timestamp of the point, in milliseconds since the epoch.
+     * @param value The value of the point.
+     */
+    public void visit(long time, double value);
+}
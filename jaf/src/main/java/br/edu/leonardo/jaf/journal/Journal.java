@@ -0,0 +1,531 @@
+package br.edu.leonardo.jaf.journal;
+
+import br.edu.leonardo.jaf.sensors.NotificationListener;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValueCodec;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An append-only journal of sensor notifications, used to record the traffic of sensors and replay
+ * it later. Each notification is stored as a record with the id of its sensor, its timestamp, its
+ * device time and its value encoded by a SensorValueCodec.
+ * <p>
+ * The records are written in a directory, in segment files of fixed size that are mapped into
+ * memory. When a segment is full, the journal rolls to a new one. The sensor threads never write
+ * the files: they only add the notifications to a bounded lock-free queue, and a journal thread
+ * encodes them in batches straight into the mapped segment. If the queue is full, the notification
+ * is dropped and counted, so a slow storage never blocks a sensor. The sync policy decides when
+ * the written records are forced to the storage device.
+ * <p>
+ * The timestamp of a record is derived from the monotonic ingest time of the notification, so the
+ * records of all sensors can be ordered by their timestamps even if the wall clock changes.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class Journal {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new Journal with segments of 64 MiB, a queue of 65536 records and
+     * the SEGMENT sync policy.
+     *
+     * @param directory The directory of the segment files.
+     * @param codec The codec used to encode the values.
+     */
+    public Journal(Path directory, SensorValueCodec codec) {
+        this(directory, codec, 64 << 20, 1 << 16, SyncPolicy.SEGMENT);
+    }
+
+    /**
+     * This constructor builds a new Journal.
+     *
+     * @param directory The directory of the segment files.
+     * @param codec The codec used to encode the values.
+     * @param segmentSize The size of each segment file, in bytes.
+     * @param queueCapacity The number of records that can wait for the journal thread.
+     * @param syncPolicy The policy used to force the records to the storage device.
+     * @throws IllegalArgumentException If the segment size is smaller than 4 KiB or if the queue
+     *                                  capacity is not positive.
+     */
+    public Journal(Path directory, SensorValueCodec codec, int segmentSize, int queueCapacity, SyncPolicy syncPolicy) {
+        if(segmentSize < 4096)
+            throw new IllegalArgumentException("The segment size must be at least 4 KiB.");
+        if(queueCapacity < 1)
+            throw new IllegalArgumentException("The queue capacity must be positive.");
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.syncPolicy = syncPolicy;
+        this.queue = new RecordQueue(queueCapacity);
+        this.writer = new Thread(this::writeRecords, "jaf-journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method opens the journal: it creates the directory, if necessary, creates a new segment
+     * after the existing ones and starts the journal thread.
+     *
+     * @throws JournalException If the journal could not be opened.
+     */
+    public synchronized void open() throws JournalException {
+        if(opened)
+            throw new IllegalStateException("The journal has already been opened.");
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = JournalFormat.listSegments(directory);
+            nextSegment = segments.isEmpty() ? 0 : JournalFormat.segmentNumber(segments.get(segments.size() - 1)) + 1;
+            rollSegment();
+        } catch (IOException ex) {
+            throw new JournalException("It is not possible to open the journal in " + directory + ".", ex);
+        }
+        opened = true;
+        writer.start();
+    }
+
+    /**
+     * This method starts recording the notifications of a sensor. The journal does not initialize
+     * the sensor.
+     *
+     * @param sensor The sensor.
+     * @param sensorId The id stored in the records of the sensor. The ids of the recorded sensors
+     *                 should be unique and stable, so the records can be associated with the
+     *                 sensors during a replay.
+     */
+    public void attach(Sensor sensor, int sensorId) {
+        sensor.addListener(new NotificationListener() {
+            @Override
+            public void notify(SensorNotification notification) {
+                append(sensorId, notification);
+            }
+
+            @Override
+            public void onFatalError(SensorException exception) {
+            }
+        });
+    }
+
+    /**
+     * This method adds a notification to the journal. It does not block: the notification is
+     * written later by the journal thread.
+     *
+     * @param sensorId The id of the sensor.
+     * @param notification The notification.
+     * @return True if the notification was accepted; false if it was dropped because the queue is
+     *         full or the journal is not open.
+     */
+    public boolean append(int sensorId, SensorNotification notification) {
+        // The journal thread waits for the appends in progress before its last batch, so a
+        // notification accepted while the journal is closed is still written.
+        activeAppends.incrementAndGet();
+        try {
+            if(!opened || closed || failure != null || !queue.offer(sensorId, notification)) {
+                droppedRecords.incrementAndGet();
+                return false;
+            }
+        } finally {
+            activeAppends.decrementAndGet();
+        }
+        if(writerParked)
+            LockSupport.unpark(writer);
+        return true;
+    }
+
+    /**
+     * This method waits until all notifications accepted before its invocation are written and
+     * forces them to the storage device, unless the sync policy is NONE.
+     *
+     * @throws JournalException If an error occurred while writing the journal.
+     */
+    public void flush() throws JournalException {
+        long target = queue.getNumOfOffered();
+        awaitWritten(target);
+        if(syncPolicy != SyncPolicy.NONE) {
+            synchronized(forceLock) {
+                forceRequested = true;
+            }
+            LockSupport.unpark(writer);
+            synchronized(forceLock) {
+                while(forceRequested && failure == null && writer.isAlive()) {
+                    try {
+                        forceLock.wait(10);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new JournalException("The flush was interrupted.", ex);
+                    }
+                }
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * This method closes the journal. The accepted notifications are written and forced, unless
+     * the sync policy is NONE, and new notifications are dropped.
+     *
+     * @throws JournalException If an error occurred while writing the journal.
+     */
+    public void close() throws JournalException {
+        synchronized(this) {
+            if(!opened || closed)
+                return;
+            closed = true;
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JournalException("The journal was not closed because the thread was interrupted.", ex);
+        }
+        checkFailure();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the directory of the segment files.
+     *
+     * @return The directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * This method obtains the number of records written by this journal.
+     *
+     * @return The number of records.
+     */
+    public long getNumOfRecords() {
+        return writtenRecords;
+    }
+
+    /**
+     * This method obtains the number of notifications that were not recorded, because the queue
+     * was full, the journal was not open or they could not be encoded.
+     *
+     * @return The number of dropped notifications.
+     */
+    public long getNumOfDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method is executed by the journal thread. It writes the queued records in batches until
+     * the journal is closed.
+     */
+    private void writeRecords() {
+        try {
+            while(true) {
+                boolean closing = closed;
+                int written = writeBatch();
+                if(written > 0) {
+                    if(syncPolicy == SyncPolicy.BATCH)
+                        segment.force();
+                } else if(closing) {
+                    // The appends that read the journal as open before it was closed can still
+                    // add records; the appends that start now see it closed.
+                    while(activeAppends.get() > 0) {
+                        Thread.yield();
+                    }
+                    while(writeBatch() > 0) {
+                        // Drain the records added by those appends.
+                    }
+                    break;
+                } else {
+                    serveForceRequest();
+                    writerParked = true;
+                    if(queue.peekNotification() == null && !closed && !forceRequested)
+                        LockSupport.parkNanos(this, PARK_TIME);
+                    writerParked = false;
+                }
+            }
+            if(syncPolicy != SyncPolicy.NONE)
+                segment.force();
+        } catch (IOException | RuntimeException ex) {
+            failure = ex;
+        } finally {
+            synchronized(forceLock) {
+                forceRequested = false;
+                forceLock.notifyAll();
+            }
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                if(failure == null)
+                    failure = ex;
+            }
+        }
+    }
+
+    /**
+     * This method writes the queued records, up to the size of a batch.
+     *
+     * @return The number of records removed from the queue.
+     * @throws IOException If a new segment could not be created.
+     */
+    private int writeBatch() throws IOException {
+        int count = 0;
+        SensorNotification notification;
+        while(count < BATCH_SIZE && (notification = queue.peekNotification()) != null) {
+            int sensorId = queue.peekSensorId();
+            queue.remove();
+            count++;
+            if(!writeRecord(sensorId, notification)) {
+                rollSegment();
+                if(!writeRecord(sensorId, notification)) {
+                    // The record is larger than an empty segment.
+                    droppedRecords.incrementAndGet();
+                }
+            }
+        }
+        consumed += count;
+        return count;
+    }
+
+    /**
+     * This method writes a record at the end of the current segment.
+     *
+     * @param sensorId The sensor id.
+     * @param notification The notification.
+     * @return True if the record was written or dropped because its value could not be encoded;
+     *         false if the segment does not have enough space for the record.
+     */
+    private boolean writeRecord(int sensorId, SensorNotification notification) {
+        int start = segment.position();
+        // The length field stays zero (end of segment) until the record is complete.
+        if(segment.remaining() < JournalFormat.RECORD_HEADER_SIZE + 4)
+            return false;
+        try {
+            segment.putInt(0);
+            segment.putInt(sensorId);
+            segment.putLong(JournalFormat.timestampOf(notification.getIngestTime()));
+            Instant deviceTime = notification.getDeviceTime();
+            segment.putLong(deviceTime == null ? JournalFormat.NO_DEVICE_TIME
+                    : deviceTime.getEpochSecond() * 1_000_000_000L + deviceTime.getNano());
+            codec.encode(notification.getValue(), segment);
+        } catch (BufferOverflowException ex) {
+            clearRecord(start);
+            return false;
+        } catch (RuntimeException ex) {
+            clearRecord(start);
+            droppedRecords.incrementAndGet();
+            return true;
+        }
+        segment.putInt(start, segment.position() - start - 4);
+        writtenRecords++;
+        return true;
+    }
+
+    /**
+     * This method discards an incomplete record at the end of the current segment.
+     *
+     * @param start The position of the record.
+     */
+    private void clearRecord(int start) {
+        int end = Math.min(segment.position(), segment.limit());
+        for(int i = start; i < end; i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.position(start);
+    }
+
+    /**
+     * This method closes the current segment, if there is one, and creates the next one.
+     *
+     * @throws IOException If the segment could not be created.
+     */
+    private void rollSegment() throws IOException {
+        if(segment != null) {
+            if(syncPolicy != SyncPolicy.NONE)
+                segment.force();
+            channel.close();
+        }
+        Path path = JournalFormat.segmentPath(directory, nextSegment++);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(JournalFormat.MAGIC);
+        segment.putInt(JournalFormat.VERSION);
+    }
+
+    /**
+     * This method forces the current segment if a flush requested it.
+     */
+    private void serveForceRequest() {
+        synchronized(forceLock) {
+            if(forceRequested) {
+                segment.force();
+                forceRequested = false;
+                forceLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * This method waits until the journal thread has consumed the given number of records.
+     *
+     * @param target The number of records.
+     * @throws JournalException If an error occurred while writing the journal.
+     */
+    private void awaitWritten(long target) throws JournalException {
+        while(consumed < target && failure == null && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(PARK_TIME);
+        }
+        checkFailure();
+    }
+
+    /**
+     * This method throws the error that stopped the journal thread, if there is one.
+     *
+     * @throws JournalException If an error stopped the journal thread.
+     */
+    private void checkFailure() throws JournalException {
+        if(failure != null)
+            throw new JournalException("An error occurred while writing the journal.", failure);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum number of records written between two checks of the sync policy.
+     */
+    private static final int BATCH_SIZE = 4096;
+
+    /**
+     * The maximum time the journal thread waits for new records, in nanoseconds.
+     */
+    private static final long PARK_TIME = TimeUnit.MILLISECONDS.toNanos(1);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The directory of the segment files.
+     */
+    private final Path directory;
+
+    /**
+     * The codec used to encode the values.
+     */
+    private final SensorValueCodec codec;
+
+    /**
+     * The size of each segment file, in bytes.
+     */
+    private final int segmentSize;
+
+    /**
+     * The policy used to force the records to the storage device.
+     */
+    private final SyncPolicy syncPolicy;
+
+    /**
+     * The records that wait for the journal thread.
+     */
+    private final RecordQueue queue;
+
+    /**
+     * The journal thread.
+     */
+    private final Thread writer;
+
+    /**
+     * The lock used by the flushes to request a force of the current segment.
+     */
+    private final Object forceLock = new Object();
+
+    /**
+     * The number of dropped notifications.
+     */
+    private final AtomicLong droppedRecords = new AtomicLong();
+
+    /**
+     * The channel of the current segment file. It is only accessed by the journal thread after the
+     * journal is opened.
+     */
+    private FileChannel channel;
+
+    /**
+     * The current segment, mapped into memory. It is only accessed by the journal thread after the
+     * journal is opened.
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * The number of the next segment file.
+     */
+    private long nextSegment;
+
+    /**
+     * The number of records removed from the queue by the journal thread. It is only changed by
+     * the journal thread.
+     */
+    private volatile long consumed;
+
+    /**
+     * The number of records written by the journal thread. It is only changed by the journal
+     * thread.
+     */
+    private volatile long writtenRecords;
+
+    /**
+     * True if a flush requested a force of the current segment; false otherwise.
+     */
+    private volatile boolean forceRequested;
+
+    /**
+     * True if the journal thread is parked, waiting for records; false otherwise.
+     */
+    private volatile boolean writerParked;
+
+    /**
+     * True if the journal was opened; false otherwise.
+     */
+    private volatile boolean opened;
+
+    /**
+     * True if the journal was closed; false otherwise.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The number of invocations of <code>append</code> in progress.
+     */
+    private final AtomicInteger activeAppends = new AtomicInteger();
+
+    /**
+     * The error that stopped the journal thread; null if there is none.
+     */
+    private volatile Throwable failure;
+}
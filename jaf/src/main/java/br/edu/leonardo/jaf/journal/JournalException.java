@@ -0,0 +1,28 @@
+package br.edu.leonardo.jaf.journal;
+
+/**
+ * This exception is related to errors that occur while writing or reading a notification journal.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class JournalException extends Exception {
+
+    public JournalException() {
+    }
+
+    public JournalException(String message) {
+        super(message);
+    }
+
+    public JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public JournalException(Throwable cause) {
+        super(cause);
+    }
+
+    public JournalException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
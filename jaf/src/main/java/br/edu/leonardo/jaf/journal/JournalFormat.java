@@ -0,0 +1,147 @@
+package br.edu.leonardo.jaf.journal;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The format of the segment files of a journal. A segment starts with a header (a magic number and
+ * the format version) followed by records. Each record has the following fields:
+ * <ul>
+ * <li>the length of the rest of the record (int), which is zero after the last record;</li>
+ * <li>the sensor id (int);</li>
+ * <li>the timestamp of the notification, in nanoseconds since the epoch (long);</li>
+ * <li>the device time, in nanoseconds since the epoch (long), or Long.MIN_VALUE if unknown;</li>
+ * <li>the value, encoded by a SensorValueCodec.</li>
+ * </ul>
+ * The length of a record is written after the rest of the record, so a record interrupted by a
+ * crash is seen as the end of the segment.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+final class JournalFormat {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The magic number at the start of each segment ("JAFJ").
+     */
+    static final int MAGIC = 0x4A41464A;
+
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the segment header.
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * The size of the fixed fields of a record, including its length.
+     */
+    static final int RECORD_HEADER_SIZE = 24;
+
+    /**
+     * The device time of a record whose device time is unknown.
+     */
+    static final long NO_DEVICE_TIME = Long.MIN_VALUE;
+
+    /**
+     * The prefix of the segment file names.
+     */
+    static final String PREFIX = "journal-";
+
+    /**
+     * The suffix of the segment file names.
+     */
+    static final String SUFFIX = ".seg";
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method converts an ingest time of a notification to a timestamp. The timestamps are the
+     * wall clock when this class was loaded plus the monotonic time since then, so the timestamps
+     * of all journals written by the same JVM are consistent.
+     *
+     * @param ingestTime The ingest time, as given by <code>System.nanoTime</code>.
+     * @return The timestamp, in nanoseconds since the epoch.
+     */
+    static long timestampOf(long ingestTime) {
+        return BASE_WALL_TIME + (ingestTime - BASE_NANO_TIME);
+    }
+
+    /**
+     * This method obtains the path of a segment file.
+     *
+     * @param directory The directory of the journal.
+     * @param number The number of the segment.
+     * @return The path of the segment file.
+     */
+    static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, number, SUFFIX));
+    }
+
+    /**
+     * This method lists the segment files of a journal, in the order they were written.
+     *
+     * @param directory The directory of the journal.
+     * @return The paths of the segment files.
+     * @throws IOException If the directory could not be read.
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for(Path p : stream) {
+                segments.add(p);
+            }
+        }
+        // The segment numbers have a fixed width, so the names are sorted as the numbers.
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * This method obtains the number of a segment from its file name.
+     *
+     * @param segment The path of the segment file.
+     * @return The number of the segment.
+     */
+    static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The wall clock when this class was loaded, in nanoseconds since the epoch.
+     */
+    private static final long BASE_WALL_TIME = System.currentTimeMillis() * 1_000_000L;
+
+    /**
+     * The value of <code>System.nanoTime</code> when this class was loaded.
+     */
+    private static final long BASE_NANO_TIME = System.nanoTime();
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This class only provides static members and cannot be instantiated.
+     */
+    private JournalFormat() {
+    }
+}
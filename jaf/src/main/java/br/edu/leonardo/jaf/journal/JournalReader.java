@@ -0,0 +1,222 @@
+package br.edu.leonardo.jaf.journal;
+
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import br.edu.leonardo.jaf.sensors.SensorValueCodec;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A cursor over the records of a journal, in the order they were written. The segment files are
+ * mapped into memory and the fields of each record are read straight from the mapped segment; the
+ * value of a record is only decoded when it is requested.
+ * <pre>
+ * try(JournalReader reader = new JournalReader(directory, codec)) {
+ *     while(reader.next()) {
+ *         process(reader.getSensorId(), reader.getTimestamp(), reader.getValue());
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class JournalReader implements AutoCloseable {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new JournalReader for the journal in the given directory. The
+     * cursor is placed before the first record.
+     *
+     * @param directory The directory of the segment files.
+     * @param codec The codec used to decode the values.
+     * @throws JournalException If the segment files could not be listed.
+     */
+    public JournalReader(Path directory, SensorValueCodec codec) throws JournalException {
+        this.directory = directory;
+        this.codec = codec;
+        try {
+            this.segments = JournalFormat.listSegments(directory);
+        } catch (IOException ex) {
+            throw new JournalException("It is not possible to read the journal in " + directory + ".", ex);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method moves the cursor to the next record.
+     *
+     * @return True if the cursor is on a record; false if there are no more records.
+     * @throws JournalException If a segment file could not be read or is not a journal segment.
+     */
+    public boolean next() throws JournalException {
+        while(true) {
+            if(segment != null) {
+                segment.position(nextRecord);
+                if(segment.remaining() >= JournalFormat.RECORD_HEADER_SIZE) {
+                    int length = segment.getInt();
+                    if(length > 0) {
+                        nextRecord = segment.position() + length;
+                        sensorId = segment.getInt();
+                        timestamp = segment.getLong();
+                        deviceTime = segment.getLong();
+                        valuePosition = segment.position();
+                        return true;
+                    }
+                }
+            }
+            if(nextSegment == segments.size()) {
+                segment = null;
+                return false;
+            }
+            openSegment(segments.get(nextSegment++));
+        }
+    }
+
+    /**
+     * This method closes the reader. The mapped segments are released by the garbage collector.
+     */
+    @Override
+    public void close() {
+        segment = null;
+        nextSegment = segments.size();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the sensor id of the current record.
+     *
+     * @return The sensor id.
+     */
+    public int getSensorId() {
+        return sensorId;
+    }
+
+    /**
+     * This method obtains the timestamp of the current record.
+     *
+     * @return The timestamp, in nanoseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * This method obtains the device time of the current record.
+     *
+     * @return The device time; null if it is unknown.
+     */
+    public Instant getDeviceTime() {
+        if(deviceTime == JournalFormat.NO_DEVICE_TIME)
+            return null;
+        return Instant.ofEpochSecond(Math.floorDiv(deviceTime, 1_000_000_000L), Math.floorMod(deviceTime, 1_000_000_000L));
+    }
+
+    /**
+     * This method decodes the value of the current record from the mapped segment.
+     *
+     * @return The value.
+     */
+    public SensorValue getValue() {
+        segment.position(valuePosition);
+        return codec.decode(segment);
+    }
+
+    /**
+     * This method obtains the directory of the journal.
+     *
+     * @return The directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method maps a segment file and checks its header.
+     *
+     * @param path The path of the segment file.
+     * @throws JournalException If the file could not be read or is not a journal segment.
+     */
+    private void openSegment(Path path) throws JournalException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new JournalException("It is not possible to read the segment " + path + ".", ex);
+        }
+        if(segment.remaining() < JournalFormat.HEADER_SIZE
+                || segment.getInt() != JournalFormat.MAGIC
+                || segment.getInt() != JournalFormat.VERSION)
+            throw new JournalException("The file " + path + " is not a journal segment.");
+        nextRecord = JournalFormat.HEADER_SIZE;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The directory of the journal.
+     */
+    private final Path directory;
+
+    /**
+     * The codec used to decode the values.
+     */
+    private final SensorValueCodec codec;
+
+    /**
+     * The segment files, in the order they were written.
+     */
+    private final List<Path> segments;
+
+    /**
+     * The index of the next segment file to be read.
+     */
+    private int nextSegment;
+
+    /**
+     * The current segment; null if no segment is being read.
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * The position of the next record in the current segment.
+     */
+    private int nextRecord;
+
+    /**
+     * The sensor id of the current record.
+     */
+    private int sensorId;
+
+    /**
+     * The timestamp of the current record.
+     */
+    private long timestamp;
+
+    /**
+     * The device time of the current record.
+     */
+    private long deviceTime;
+
+    /**
+     * The position of the value of the current record in the current segment.
+     */
+    private int valuePosition;
+}
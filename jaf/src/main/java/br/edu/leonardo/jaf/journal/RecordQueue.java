@@ -0,0 +1,128 @@
+package br.edu.leonardo.jaf.journal;
+
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue of records with many producers (the sensor threads) and a single consumer (the
+ * journal thread). Producers claim a slot with a single compare-and-set and never block: when the
+ * queue is full, the record is rejected. The sensor id of a record is stored in a primitive array,
+ * so enqueuing a record does not allocate objects.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class RecordQueue {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new RecordQueue.
+     *
+     * @param capacity The minimum capacity of the queue. It is rounded up to a power of two.
+     */
+    RecordQueue(int capacity) {
+        int size = 1;
+        while(size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.notifications = new AtomicReferenceArray<>(size);
+        this.sensorIds = new int[size];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method adds a record to the queue. It can be executed by any thread.
+     *
+     * @param sensorId The sensor id of the record.
+     * @param notification The notification of the record.
+     * @return True if the record was added; false if the queue is full.
+     */
+    boolean offer(int sensorId, SensorNotification notification) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if(sequence - head >= notifications.length())
+                return false;
+        } while(!tail.compareAndSet(sequence, sequence + 1));
+        int slot = (int) (sequence & mask);
+        sensorIds[slot] = sensorId;
+        // The notification publishes the sensor id written before it.
+        notifications.lazySet(slot, notification);
+        return true;
+    }
+
+    /**
+     * This method obtains the notification of the next record, without removing it. It can only
+     * be executed by the consumer thread.
+     *
+     * @return The notification; null if the queue is empty or if the next record is still being
+     *         added.
+     */
+    SensorNotification peekNotification() {
+        return notifications.get((int) (head & mask));
+    }
+
+    /**
+     * This method obtains the sensor id of the next record. It can only be executed by the consumer
+     * thread, after <code>peekNotification</code> returned a notification.
+     *
+     * @return The sensor id.
+     */
+    int peekSensorId() {
+        return sensorIds[(int) (head & mask)];
+    }
+
+    /**
+     * This method removes the next record. It can only be executed by the consumer thread, after
+     * <code>peekNotification</code> returned a notification.
+     */
+    void remove() {
+        notifications.lazySet((int) (head & mask), null);
+        head++;
+    }
+
+    /**
+     * This method obtains the number of records added to the queue since its creation.
+     *
+     * @return The number of records.
+     */
+    long getNumOfOffered() {
+        return tail.get();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The mask used to obtain a slot from a sequence number.
+     */
+    private final int mask;
+
+    /**
+     * The notifications of the records, indexed by slot.
+     */
+    private final AtomicReferenceArray<SensorNotification> notifications;
+
+    /**
+     * The sensor ids of the records, indexed by slot.
+     */
+    private final int[] sensorIds;
+
+    /**
+     * The sequence number of the next slot claimed by a producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The sequence number of the next record removed by the consumer.
+     */
+    private volatile long head;
+}
@@ -0,0 +1,364 @@
+package br.edu.leonardo.jaf.journal;
+
+import br.edu.leonardo.jaf.sensors.SensorValueCodec;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A replay of the notifications recorded in one or more journals. Each recorded sensor is
+ * represented by a ReplaySensor, which agents use as any other sensor, so behaviours can be
+ * benchmarked and tested against recorded traffic without the real devices or a broker.
+ * <pre>
+ * Replay replay = new Replay(codec, Paths.get("journal"));
+ * agent.addBehaviour(behaviour, replay.getSensor(TEMPERATURE_ID));
+ * agent.init();
+ * replay.setSpeed(10);
+ * replay.run();
+ * </pre>
+ * <p>
+ * The records of all journals are merged by timestamp with a k-way merge, so the readings of
+ * different sensors are notified in the order they were recorded. The replay can follow the
+ * recorded intervals in real time, with a speed-up factor, or notify the records as fast as
+ * possible. The values are decoded straight from the mapped segments, and only the records of
+ * sensors obtained with <code>getSensor</code> are decoded.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class Replay {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The speed of a replay that notifies the records without waiting.
+     */
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new Replay of the given journals, in real time.
+     *
+     * @param codec The codec used to decode the values.
+     * @param journals The directories of the journals.
+     * @throws IllegalArgumentException If no journal is informed.
+     */
+    public Replay(SensorValueCodec codec, Path... journals) {
+        if(journals.length == 0)
+            throw new IllegalArgumentException("A replay must have at least one journal.");
+        this.codec = codec;
+        this.journals = journals.clone();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the sensor that notifies the records of the given sensor id. The
+     * sensors must be obtained before the replay starts.
+     *
+     * @param sensorId The sensor id used when the notifications were recorded.
+     * @return The replay sensor.
+     */
+    public synchronized ReplaySensor getSensor(int sensorId) {
+        ReplaySensor sensor = sensors.get(sensorId);
+        if(sensor == null) {
+            sensor = new ReplaySensor(sensorId);
+            sensors.put(sensorId, sensor);
+        }
+        return sensor;
+    }
+
+    /**
+     * This method replays the journals in the current thread. It returns when all records were
+     * replayed or when the replay is stopped.
+     *
+     * @return The number of notified records.
+     * @throws JournalException If a journal could not be read. The error is also reported to the
+     *                          replay sensors.
+     */
+    public long run() throws JournalException {
+        try {
+            return replay();
+        } catch (JournalException | RuntimeException ex) {
+            List<ReplaySensor> failed;
+            synchronized(this) {
+                failed = new ArrayList<>(sensors.values());
+            }
+            for(ReplaySensor s : failed) {
+                s.fail(ex);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * This method replays the journals in a new thread. Errors are reported to the replay sensors.
+     *
+     * @return The replay thread, which can be used to wait for the end of the replay.
+     */
+    public Thread start() {
+        Thread thread = new Thread(() -> {
+            try {
+                run();
+            } catch (JournalException ex) {
+                // The error was reported to the replay sensors.
+            }
+        }, "jaf-replay");
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * This method stops the replay. The record being notified is completed.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method sets the speed of the replay. It can be changed while the replay is running.
+     *
+     * @param speed The speed-up factor: 1 replays the records in real time, 10 replays them ten
+     *              times faster and AS_FAST_AS_POSSIBLE replays them without waiting.
+     * @throws IllegalArgumentException If the speed is not positive.
+     */
+    public void setSpeed(double speed) {
+        if(!(speed > 0))
+            throw new IllegalArgumentException("The speed must be positive.");
+        this.speed = speed;
+    }
+
+    /**
+     * This method obtains the speed of the replay.
+     *
+     * @return The speed-up factor.
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method merges the records of the journals and notifies them.
+     *
+     * @return The number of notified records.
+     * @throws JournalException If a journal could not be read.
+     */
+    private long replay() throws JournalException {
+        buildSensorTable();
+        readers = new JournalReader[journals.length];
+        heap = new int[journals.length];
+        heapSize = 0;
+        for(int i = 0; i < journals.length; i++) {
+            readers[i] = new JournalReader(journals[i], codec);
+            if(readers[i].next())
+                heap[heapSize++] = i;
+        }
+        for(int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+
+        long count = 0;
+        double currentSpeed = 0;
+        long baseTimestamp = 0;
+        long baseTime = 0;
+        while(heapSize > 0 && !stopped) {
+            JournalReader reader = readers[heap[0]];
+            long timestamp = reader.getTimestamp();
+
+            double s = speed;
+            if(s != currentSpeed) {
+                // The pace restarts from the current record when the speed changes.
+                currentSpeed = s;
+                baseTimestamp = timestamp;
+                baseTime = System.nanoTime();
+            }
+            if(s != AS_FAST_AS_POSSIBLE)
+                waitUntil(baseTime + (long) ((timestamp - baseTimestamp) / s));
+
+            ReplaySensor sensor = sensorOf(reader.getSensorId());
+            if(sensor != null) {
+                sensor.replay(reader.getValue(), reader.getDeviceTime());
+                count++;
+            }
+
+            if(reader.next()) {
+                siftDown(0);
+            } else {
+                reader.close();
+                heap[0] = heap[--heapSize];
+                siftDown(0);
+            }
+        }
+        for(JournalReader r : readers) {
+            r.close();
+        }
+        return count;
+    }
+
+    /**
+     * This method waits until the given time.
+     *
+     * @param time The time, as given by <code>System.nanoTime</code>.
+     */
+    private void waitUntil(long time) {
+        long remaining;
+        while(!stopped && (remaining = time - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    /**
+     * This method moves a reader of the heap down until the heap is ordered by the timestamps of
+     * the current records. Ties are ordered by the index of the journal, so the replay is
+     * deterministic.
+     *
+     * @param position The position of the reader in the heap.
+     */
+    private void siftDown(int position) {
+        int reader = heap[position];
+        while(true) {
+            int child = 2 * position + 1;
+            if(child >= heapSize)
+                break;
+            if(child + 1 < heapSize && precedes(heap[child + 1], heap[child]))
+                child++;
+            if(!precedes(heap[child], reader))
+                break;
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = reader;
+    }
+
+    /**
+     * This method checks if the current record of a reader precedes the one of another reader.
+     *
+     * @param a The index of a reader.
+     * @param b The index of the other reader.
+     * @return True if the record of the first reader precedes the other; false otherwise.
+     */
+    private boolean precedes(int a, int b) {
+        long ta = readers[a].getTimestamp();
+        long tb = readers[b].getTimestamp();
+        return ta < tb || (ta == tb && a < b);
+    }
+
+    /**
+     * This method builds an open addressing table of the replay sensors, so the sensor of a record
+     * is found without boxing its id.
+     */
+    private synchronized void buildSensorTable() {
+        int size = 2;
+        while(size < sensors.size() * 2) {
+            size <<= 1;
+        }
+        tableIds = new int[size];
+        tableSensors = new ReplaySensor[size];
+        for(ReplaySensor s : sensors.values()) {
+            int i = slotOf(s.getSensorId());
+            while(tableSensors[i] != null) {
+                i = (i + 1) & (size - 1);
+            }
+            tableIds[i] = s.getSensorId();
+            tableSensors[i] = s;
+        }
+    }
+
+    /**
+     * This method finds the replay sensor of a sensor id.
+     *
+     * @param sensorId The sensor id.
+     * @return The replay sensor; null if there is no sensor for the id.
+     */
+    private ReplaySensor sensorOf(int sensorId) {
+        int i = slotOf(sensorId);
+        while(tableSensors[i] != null) {
+            if(tableIds[i] == sensorId)
+                return tableSensors[i];
+            i = (i + 1) & (tableIds.length - 1);
+        }
+        return null;
+    }
+
+    /**
+     * This method obtains the first slot of a sensor id in the sensor table.
+     *
+     * @param sensorId The sensor id.
+     * @return The slot.
+     */
+    private int slotOf(int sensorId) {
+        return (sensorId * 0x9E3779B9 >>> 16) & (tableIds.length - 1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The codec used to decode the values.
+     */
+    private final SensorValueCodec codec;
+
+    /**
+     * The directories of the journals.
+     */
+    private final Path[] journals;
+
+    /**
+     * The replay sensors, by sensor id.
+     */
+    private final Map<Integer, ReplaySensor> sensors = new HashMap<>();
+
+    /**
+     * The speed-up factor of the replay.
+     */
+    private volatile double speed = 1;
+
+    /**
+     * True if the replay was stopped; false otherwise.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The readers of the journals, by journal index.
+     */
+    private JournalReader[] readers;
+
+    /**
+     * The binary heap of the indexes of the readers that have records, ordered by the timestamps
+     * of their current records.
+     */
+    private int[] heap;
+
+    /**
+     * The number of readers in the heap.
+     */
+    private int heapSize;
+
+    /**
+     * The sensor ids of the sensor table.
+     */
+    private int[] tableIds;
+
+    /**
+     * The replay sensors of the sensor table.
+     */
+    private ReplaySensor[] tableSensors;
+}
@@ -0,0 +1,82 @@
+package br.edu.leonardo.jaf.journal;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.time.Instant;
+
+/**
+ * A sensor that notifies the recorded readings of a sensor during a Replay. Replay sensors are
+ * obtained with <code>Replay.getSensor</code> and are used by agents as any other sensor. The
+ * readings are produced by the replay, so initializing a replay sensor has no effect.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class ReplaySensor extends Sensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new ReplaySensor for the records of the given sensor id.
+     *
+     * @param sensorId The sensor id.
+     */
+    ReplaySensor(int sensorId) {
+        this.sensorId = sensorId;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void init() throws SensorException {
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the id of the recorded sensor.
+     *
+     * @return The sensor id.
+     */
+    public int getSensorId() {
+        return sensorId;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method notifies a recorded reading.
+     *
+     * @param value The value.
+     * @param deviceTime The recorded device time; null if it is unknown.
+     */
+    void replay(SensorValue value, Instant deviceTime) {
+        newReading(value, deviceTime);
+    }
+
+    /**
+     * This method reports an error that stopped the replay.
+     *
+     * @param cause The error.
+     */
+    void fail(Throwable cause) {
+        reportFatalError(cause);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The id of the recorded sensor.
+     */
+    private final int sensorId;
+}
@@ -0,0 +1,27 @@
+package br.edu.leonardo.jaf.journal;
+
+/**
+ * The policies used by a Journal to force the written records to the storage device. The records
+ * written in a memory-mapped segment survive a crash of the JVM as soon as they are written; forcing
+ * them protects them against a crash of the operating system.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public enum SyncPolicy {
+
+    /**
+     * The records are never forced; the operating system writes them when it decides.
+     */
+    NONE,
+
+    /**
+     * A segment is forced when it is full and when the journal is flushed or closed.
+     */
+    SEGMENT,
+
+    /**
+     * The records are forced after each batch of records written by the journal thread. This is
+     * the safest and slowest policy.
+     */
+    BATCH
+}
@@ -0,0 +1,197 @@
+package br.edu.leonardo.jaf.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, in nanoseconds. The histogram can be updated by several threads
+ * without locks: recording a latency increments one counter of an array of atomic counters.
+ * <p>
+ * The counters cover all positive latencies with log-linear buckets: each power of two is divided
+ * in 16 buckets of the same width, so a percentile obtained from the histogram differs from the
+ * exact one by less than 7%. The count, the sum and the maximum latency are exact.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class LatencyHistogram {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method records a latency. Negative latencies (caused by timestamps taken in different
+     * threads) are recorded as zero.
+     *
+     * @param nanos The latency, in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = max.get();
+        while(value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * This method obtains the number of recorded latencies.
+     *
+     * @return The number of latencies.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * This method obtains the mean of the recorded latencies.
+     *
+     * @param unit The time unit of the result.
+     * @return The mean latency; zero if no latency was recorded.
+     */
+    public double getMean(TimeUnit unit) {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n / unit.toNanos(1);
+    }
+
+    /**
+     * This method obtains the maximum recorded latency.
+     *
+     * @param unit The time unit of the result.
+     * @return The maximum latency; zero if no latency was recorded.
+     */
+    public double getMax(TimeUnit unit) {
+        return (double) max.get() / unit.toNanos(1);
+    }
+
+    /**
+     * This method obtains an approximate percentile of the recorded latencies.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @param unit The time unit of the result.
+     * @return The upper bound of the bucket that contains the percentile; zero if no latency was
+     *         recorded.
+     * @throws IllegalArgumentException If the percentile is not between 0 and 100.
+     */
+    public double getPercentile(double percentile, TimeUnit unit) {
+        if(percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        long[] counts = new long[NUM_OF_BUCKETS];
+        long total = 0;
+        for(int i = 0; i < NUM_OF_BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if(total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        int i = 0;
+        while(i < NUM_OF_BUCKETS - 1 && (seen += counts[i]) < rank) {
+            i++;
+        }
+        long upperBound = i == NUM_OF_BUCKETS - 1 ? Long.MAX_VALUE : lowerBoundOf(i + 1) - 1;
+        return (double) Math.min(upperBound, max.get()) / unit.toNanos(1);
+    }
+
+    /**
+     * This method discards all recorded latencies. Latencies recorded during the reset may be
+     * partially discarded.
+     */
+    public void reset() {
+        for(int i = 0; i < NUM_OF_BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TOSTRING, EQUALS, HASHCODE
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String toString() {
+        TimeUnit us = TimeUnit.MICROSECONDS;
+        return String.format("count=%d, mean=%.1fus, p50=%.1fus, p99=%.1fus, max=%.1fus",
+                getCount(), getMean(us), getPercentile(50, us), getPercentile(99, us), getMax(us));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the bucket of a latency.
+     *
+     * @param value The latency, which cannot be negative.
+     * @return The bucket index.
+     */
+    private static int bucketOf(long value) {
+        if(value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * This method obtains the smallest latency of a bucket.
+     *
+     * @param bucket The bucket index.
+     * @return The smallest latency that is recorded in the bucket.
+     */
+    private static long lowerBoundOf(int bucket) {
+        if(bucket < 2 * SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of bits of a latency that select a bucket inside a power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * The number of buckets of each power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets, which covers all positive long values.
+     */
+    private static final int NUM_OF_BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of latencies recorded in each bucket.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_OF_BUCKETS);
+
+    /**
+     * The number of recorded latencies.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of the recorded latencies.
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * The maximum recorded latency.
+     */
+    private final AtomicLong max = new AtomicLong();
+}
@@ -0,0 +1,109 @@
+package br.edu.leonardo.jaf.metrics;
+
+/**
+ * The latencies of the behaviours executed by an agent, divided in the stages of the processing
+ * of a sensor notification:
+ * <ul>
+ * <li>dispatch: from the creation of the notification (its ingest time) until the behaviour is
+ * submitted to the executor of the agent;</li>
+ * <li>queue: from the submission until the behaviour starts executing in a thread of the agent;</li>
+ * <li>execution: the duration of the execution of the behaviour.</li>
+ * </ul>
+ * Comparing the histograms shows which stage is the bottleneck: a long dispatch latency means the
+ * sensors and the filters before the agent are slow, a long queue latency means the agent does not
+ * have enough threads for its behaviours, and a long execution latency means the behaviours are
+ * slow.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class LatencyStatistics {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method records the timestamps of the execution of a behaviour.
+     *
+     * @param ingestTime The ingest time of the notification processed by the behaviour.
+     * @param dispatchTime The time when the behaviour was submitted to the executor.
+     * @param startTime The time when the behaviour started executing.
+     * @param endTime The time when the behaviour finished executing.
+     */
+    public void record(long ingestTime, long dispatchTime, long startTime, long endTime) {
+        dispatch.record(dispatchTime - ingestTime);
+        queue.record(startTime - dispatchTime);
+        execution.record(endTime - startTime);
+    }
+
+    /**
+     * This method discards all recorded latencies.
+     */
+    public void reset() {
+        dispatch.reset();
+        queue.reset();
+        execution.reset();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the histogram of the latencies between the creation of the notifications
+     * and the submission of the behaviours to the executor.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getDispatchLatency() {
+        return dispatch;
+    }
+
+    /**
+     * This method obtains the histogram of the time spent by the behaviours in the queue of the
+     * executor.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getQueueLatency() {
+        return queue;
+    }
+
+    /**
+     * This method obtains the histogram of the execution times of the behaviours.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getExecutionTime() {
+        return execution;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TOSTRING, EQUALS, HASHCODE
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String toString() {
+        return "dispatch: " + dispatch + "\nqueue: " + queue + "\nexecution: " + execution;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The latencies between the creation of the notifications and the submission of the
+     * behaviours.
+     */
+    private final LatencyHistogram dispatch = new LatencyHistogram();
+
+    /**
+     * The time spent by the behaviours in the queue of the executor.
+     */
+    private final LatencyHistogram queue = new LatencyHistogram();
+
+    /**
+     * The execution times of the behaviours.
+     */
+    private final LatencyHistogram execution = new LatencyHistogram();
+}
@@ -0,0 +1,26 @@
+package br.edu.leonardo.jaf.reactive;
+
+/**
+ * The policies applied by a SensorPublisher when a notification arrives and the buffer of a
+ * subscriber is full, because the subscriber has not requested more notifications.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The oldest buffered notification is discarded, so the subscriber receives the most recent
+     * readings.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The new notification is discarded.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The subscription is terminated with an error after the buffered notifications are delivered.
+     */
+    ERROR
+}
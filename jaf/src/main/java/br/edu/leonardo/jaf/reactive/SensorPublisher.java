@@ -0,0 +1,102 @@
+package br.edu.leonardo.jaf.reactive;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+/**
+ * A Reactive Streams publisher of the notifications of a sensor. It allows the notifications of a
+ * sensor to be consumed by reactive pipelines, which signal their demand with
+ * <code>Subscription.request</code>. On Java 9 or later, the publisher can be converted to a
+ * <code>java.util.concurrent.Flow.Publisher</code> with <code>org.reactivestreams.FlowAdapters</code>.
+ * <p>
+ * Each subscriber has a bounded buffer. The notifications are delivered to a subscriber only while
+ * it has outstanding demand; the other notifications are kept in its buffer, and the overflow
+ * policy decides what happens when the buffer is full. A subscriber without outstanding demand
+ * reports to the sensor that it has no demand, so sensors that can delay or skip their readings
+ * (like periodic sensors) slow down. The notifications are delivered in the thread of the sensor
+ * or in the thread that requested them.
+ * <p>
+ * The publisher does not initialize the sensor: it must be initialized by its owner. A fatal error
+ * of the sensor is signalled to the subscribers with <code>onError</code>.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SensorPublisher implements Publisher<SensorNotification> {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SensorPublisher for the given sensor, with buffers of 256
+     * notifications that discard the oldest notifications when they are full.
+     *
+     * @param sensor The sensor.
+     */
+    public SensorPublisher(Sensor sensor) {
+        this(sensor, 256, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * This constructor builds a new SensorPublisher for the given sensor.
+     *
+     * @param sensor The sensor.
+     * @param bufferSize The maximum number of notifications buffered for each subscriber.
+     * @param overflowPolicy The policy applied when the buffer of a subscriber is full.
+     * @throws IllegalArgumentException If the buffer size is not positive.
+     */
+    public SensorPublisher(Sensor sensor, int bufferSize, OverflowPolicy overflowPolicy) {
+        if(bufferSize < 1)
+            throw new IllegalArgumentException("The buffer size must be positive.");
+        this.sensor = sensor;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void subscribe(Subscriber<? super SensorNotification> subscriber) {
+        if(subscriber == null)
+            throw new NullPointerException("The subscriber cannot be null.");
+        SensorSubscription subscription = new SensorSubscription(sensor, subscriber, bufferSize, overflowPolicy);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the sensor whose notifications are published.
+     *
+     * @return The sensor.
+     */
+    public Sensor getSensor() {
+        return sensor;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The sensor whose notifications are published.
+     */
+    private final Sensor sensor;
+
+    /**
+     * The maximum number of notifications buffered for each subscriber.
+     */
+    private final int bufferSize;
+
+    /**
+     * The policy applied when the buffer of a subscriber is full.
+     */
+    private final OverflowPolicy overflowPolicy;
+}
@@ -0,0 +1,235 @@
+package br.edu.leonardo.jaf.reactive;
+
+import br.edu.leonardo.jaf.sensors.NotificationListener;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * The subscription of a subscriber of a SensorPublisher. It listens to the sensor, buffers its
+ * notifications and delivers them according to the demand of the subscriber. The signals to the
+ * subscriber are serialized by a drain loop: the thread that finds the loop idle delivers all
+ * notifications that can be delivered, including the ones added by other threads meanwhile.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+class SensorSubscription implements Subscription, NotificationListener {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SensorSubscription.
+     *
+     * @param sensor The sensor.
+     * @param subscriber The subscriber.
+     * @param bufferSize The maximum number of buffered notifications.
+     * @param overflowPolicy The policy applied when the buffer is full.
+     */
+    SensorSubscription(Sensor sensor, Subscriber<? super SensorNotification> subscriber, int bufferSize,
+            OverflowPolicy overflowPolicy) {
+        this.sensor = sensor;
+        this.subscriber = subscriber;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.buffer = new ArrayDeque<>(Math.min(bufferSize, 1024));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void request(long n) {
+        if(n <= 0) {
+            fail(new IllegalArgumentException("The number of requested notifications must be positive."));
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while(!requested.compareAndSet(current, next));
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        sensor.removeListener(this);
+        synchronized(buffer) {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void notify(SensorNotification notification) {
+        if(cancelled)
+            return;
+        boolean overflow = false;
+        synchronized(buffer) {
+            if(terminated)
+                return;
+            if(buffer.size() == bufferSize) {
+                switch(overflowPolicy) {
+                    case DROP_OLDEST:
+                        buffer.poll();
+                        break;
+                    case DROP_NEWEST:
+                        return;
+                    default:
+                        error = new IllegalStateException("The subscriber buffer of the sensor is full.");
+                        terminated = true;
+                        overflow = true;
+                }
+            }
+            if(!overflow)
+                buffer.add(notification);
+        }
+        if(overflow)
+            sensor.removeListener(this);
+        drain();
+    }
+
+    @Override
+    public void onFatalError(SensorException exception) {
+        fail(exception);
+    }
+
+    @Override
+    public boolean hasDemand() {
+        return !cancelled && requested.get() > 0;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method starts listening to the sensor. It is executed after the subscriber receives the
+     * subscription, so no notification is delivered before <code>onSubscribe</code>.
+     */
+    void start() {
+        if(!cancelled)
+            sensor.addListener(this);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method terminates the subscription with an error, after the buffered notifications are
+     * delivered.
+     *
+     * @param cause The error.
+     */
+    private void fail(Throwable cause) {
+        sensor.removeListener(this);
+        synchronized(buffer) {
+            if(terminated)
+                return;
+            error = cause;
+            terminated = true;
+        }
+        drain();
+    }
+
+    /**
+     * This method delivers the buffered notifications while the subscriber has demand and signals
+     * the error of a terminated subscription when the buffer is empty.
+     */
+    private void drain() {
+        if(wip.getAndIncrement() != 0)
+            return;
+        int missed = 1;
+        do {
+            long demand = requested.get();
+            long delivered = 0;
+            while(!cancelled) {
+                SensorNotification notification = null;
+                boolean done;
+                synchronized(buffer) {
+                    if(delivered != demand)
+                        notification = buffer.poll();
+                    done = terminated && buffer.isEmpty();
+                }
+                if(notification != null) {
+                    subscriber.onNext(notification);
+                    delivered++;
+                } else {
+                    if(done) {
+                        cancelled = true;
+                        subscriber.onError(error);
+                    }
+                    break;
+                }
+            }
+            if(delivered != 0 && demand != Long.MAX_VALUE)
+                requested.addAndGet(-delivered);
+            missed = wip.addAndGet(-missed);
+        } while(missed != 0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The sensor.
+     */
+    private final Sensor sensor;
+
+    /**
+     * The subscriber.
+     */
+    private final Subscriber<? super SensorNotification> subscriber;
+
+    /**
+     * The maximum number of buffered notifications.
+     */
+    private final int bufferSize;
+
+    /**
+     * The policy applied when the buffer is full.
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * The notifications that have not been delivered yet. It is also the lock of the buffer state.
+     */
+    private final ArrayDeque<SensorNotification> buffer;
+
+    /**
+     * The number of notifications requested by the subscriber and not delivered yet.
+     */
+    private final AtomicLong requested = new AtomicLong();
+
+    /**
+     * The number of pending executions of the drain loop.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /**
+     * True if the subscription was cancelled or its error was signalled; false otherwise.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * True if no more notifications are accepted and the error must be signalled after the
+     * buffer is empty.
+     */
+    private boolean terminated;
+
+    /**
+     * The error signalled when the subscription is terminated.
+     */
+    private Throwable error;
+}
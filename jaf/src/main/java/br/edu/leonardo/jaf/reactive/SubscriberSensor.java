@@ -0,0 +1,200 @@
+package br.edu.leonardo.jaf.reactive;
+
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.time.Duration;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * A sensor that subscribes to a Reactive Streams publisher of notifications, so the readings of a
+ * reactive pipeline can be processed by the behaviours of an agent. The sensor notifies the value
+ * and the device time of each received notification.
+ * <p>
+ * The sensor requests notifications from the publisher only while its listeners have demand (see
+ * NotificationListener.hasDemand); an agent has no demand when it reaches its limit of pending
+ * behaviours (see Agent.setMaxPendingBehaviours). At most <code>prefetch</code> notifications are
+ * requested in advance. While the listeners have no demand, the demand is checked again at each
+ * tick of a timing wheel.
+ * <p>
+ * The subscription starts requesting notifications when the sensor is initialized. An error
+ * signalled by the publisher is reported as a fatal error of the sensor.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SubscriberSensor extends Sensor implements Subscriber<SensorNotification> {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SubscriberSensor that uses the shared timing wheel.
+     *
+     * @param prefetch The maximum number of notifications requested in advance.
+     */
+    public SubscriberSensor(int prefetch) {
+        this(prefetch, TimingWheel.getDefault());
+    }
+
+    /**
+     * This constructor builds a new SubscriberSensor.
+     *
+     * @param prefetch The maximum number of notifications requested in advance.
+     * @param wheel The timing wheel used to check the demand of the listeners again.
+     * @throws IllegalArgumentException If the prefetch is not positive.
+     */
+    public SubscriberSensor(int prefetch, TimingWheel wheel) {
+        if(prefetch < 1)
+            throw new IllegalArgumentException("The prefetch must be positive.");
+        this.prefetch = prefetch;
+        this.wheel = wheel;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method starts requesting notifications from the publisher.
+     *
+     * @throws SensorException Never thrown by this implementation.
+     */
+    @Override
+    public void init() throws SensorException {
+        synchronized(this) {
+            initialized = true;
+        }
+        replenish();
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        synchronized(this) {
+            if(this.subscription != null || done) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+        }
+        replenish();
+    }
+
+    @Override
+    public void onNext(SensorNotification notification) {
+        synchronized(this) {
+            outstanding--;
+        }
+        newReading(notification.getValue(), notification.getDeviceTime());
+        replenish();
+    }
+
+    @Override
+    public void onError(Throwable cause) {
+        synchronized(this) {
+            done = true;
+        }
+        reportFatalError(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized(this) {
+            done = true;
+        }
+    }
+
+    /**
+     * This method cancels the subscription. The sensor stops receiving notifications.
+     */
+    public void cancel() {
+        Subscription s;
+        synchronized(this) {
+            done = true;
+            s = subscription;
+        }
+        if(s != null)
+            s.cancel();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method requests notifications up to the prefetch if the listeners have demand;
+     * otherwise, it checks the demand again in the next tick of the timing wheel.
+     */
+    private void replenish() {
+        Subscription s;
+        long n;
+        synchronized(this) {
+            if(subscription == null || !initialized || done || outstanding == prefetch)
+                return;
+            if(!hasDemand()) {
+                if(!waiting) {
+                    waiting = true;
+                    wheel.schedule(this::retry, Duration.ZERO);
+                }
+                return;
+            }
+            s = subscription;
+            n = prefetch - outstanding;
+            outstanding = prefetch;
+        }
+        // The request is made without the lock, because the publisher may deliver the
+        // notifications in this thread.
+        s.request(n);
+    }
+
+    /**
+     * This method is executed by the timing wheel to check the demand of the listeners again.
+     */
+    private void retry() {
+        synchronized(this) {
+            waiting = false;
+        }
+        replenish();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum number of notifications requested in advance.
+     */
+    private final int prefetch;
+
+    /**
+     * The timing wheel used to check the demand of the listeners again.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * The subscription; null if the sensor has not been subscribed yet.
+     */
+    private Subscription subscription;
+
+    /**
+     * The number of requested notifications that have not been received yet.
+     */
+    private long outstanding;
+
+    /**
+     * True if the sensor has been initialized; false otherwise.
+     */
+    private boolean initialized;
+
+    /**
+     * True if a new check of the demand is scheduled; false otherwise.
+     */
+    private boolean waiting;
+
+    /**
+     * True if the subscription was terminated or cancelled; false otherwise.
+     */
+    private boolean done;
+}
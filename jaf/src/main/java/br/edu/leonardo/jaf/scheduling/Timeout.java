@@ -0,0 +1,176 @@
+package br.edu.leonardo.jaf.scheduling;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A task scheduled in a TimingWheel. A timeout can be cancelled before it expires. A periodic
+ * timeout is executed until it is cancelled.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public final class Timeout {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new Timeout that executes the given task at the given deadline.
+     *
+     * @param wheel The timing wheel where the timeout is scheduled.
+     * @param task The task to be executed.
+     * @param deadline The deadline of the timeout, in nanoseconds relative to the start time of
+     *                 the timing wheel.
+     * @param period The period of the timeout, in nanoseconds: zero for a single execution,
+     *               positive for a fixed rate and negative for a fixed delay.
+     */
+    Timeout(TimingWheel wheel, Runnable task, long deadline, long period) {
+        this.wheel = wheel;
+        this.task = task;
+        this.deadline = deadline;
+        this.period = period;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method cancels this timeout. The task will not be executed if the timeout has not
+     * expired yet.
+     *
+     * @return True if the timeout was cancelled; false if it had already expired or had already
+     *         been cancelled.
+     */
+    public boolean cancel() {
+        if(!state.compareAndSet(STATE_WAITING, STATE_CANCELLED))
+            return false;
+        wheel.cancelled(this);
+        return true;
+    }
+
+    /**
+     * This method checks if this timeout was cancelled.
+     *
+     * @return True if the timeout was cancelled; false otherwise.
+     */
+    public boolean isCancelled() {
+        return state.get() == STATE_CANCELLED;
+    }
+
+    /**
+     * This method checks if this timeout has expired (its task was executed or is executing). A
+     * periodic timeout never expires.
+     *
+     * @return True if the timeout has expired; false otherwise.
+     */
+    public boolean isExpired() {
+        return state.get() == STATE_EXPIRED;
+    }
+
+    /**
+     * This method checks if this timeout is periodic.
+     *
+     * @return True if the task is executed periodically; false if it is executed once.
+     */
+    public boolean isPeriodic() {
+        return period != 0;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method executes the task of this timeout, if it has not been cancelled. An exception
+     * thrown by the task is reported to the error handler of the timing wheel. A periodic timeout
+     * is then rescheduled in its timing wheel.
+     */
+    void expire() {
+        if(period == 0) {
+            if(!state.compareAndSet(STATE_WAITING, STATE_EXPIRED))
+                return;
+        } else if(state.get() != STATE_WAITING) {
+            return;
+        }
+        try {
+            task.run();
+        } catch (Throwable ex) {
+            wheel.taskFailed(this, ex);
+        }
+        if(period != 0 && state.get() == STATE_WAITING) {
+            deadline = period > 0 ? deadline + period : wheel.currentTime() - period;
+            wheel.reschedule(this);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The state of a timeout that is waiting to expire, or of a periodic timeout between its
+     * executions.
+     */
+    private static final int STATE_WAITING = 0;
+
+    /**
+     * The state of a timeout that was cancelled.
+     */
+    private static final int STATE_CANCELLED = 1;
+
+    /**
+     * The state of a single timeout that has expired.
+     */
+    private static final int STATE_EXPIRED = 2;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The deadline of the timeout, in nanoseconds relative to the start time of the timing wheel.
+     * It is only changed by the wheel thread, when a periodic timeout is rescheduled.
+     */
+    long deadline;
+
+    /**
+     * The previous timeout in the bucket where this timeout is stored.
+     */
+    Timeout previous;
+
+    /**
+     * The next timeout in the bucket where this timeout is stored.
+     */
+    Timeout next;
+
+    /**
+     * The bucket where this timeout is stored; null if it is not stored in a bucket.
+     */
+    TimingWheel.Bucket bucket;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The timing wheel where the timeout is scheduled.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * The task executed when the timeout expires.
+     */
+    private final Runnable task;
+
+    /**
+     * The period of the timeout, in nanoseconds: zero for a single execution, positive for a fixed
+     * rate and negative for a fixed delay.
+     */
+    private final long period;
+
+    /**
+     * The state of this timeout.
+     */
+    private final AtomicInteger state = new AtomicInteger(STATE_WAITING);
+}
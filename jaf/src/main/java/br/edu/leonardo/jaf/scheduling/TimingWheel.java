@@ -0,0 +1,565 @@
+package br.edu.leonardo.jaf.scheduling;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A scheduler based on a hierarchical timing wheel. Each level of the wheel is a circular array of
+ * buckets. The buckets of the first level store the timeouts that expire in the same tick; the
+ * buckets of each next level cover as many ticks as a complete turn of the previous level. A
+ * single thread advances the first level one bucket per tick and executes the expired timeouts.
+ * When a turn of a level ends, the timeouts of the next bucket of the level above are moved down
+ * to the buckets where they expire.
+ * <p>
+ * Any number of timeouts can be scheduled without creating new threads. Scheduling and cancelling
+ * a timeout take constant time, and each timeout is moved at most once per level before it
+ * expires, so the cost of each tick does not depend on the number of timeouts that expire later.
+ * Periodic timeouts are rescheduled by the wheel thread itself: fixed-rate timeouts are
+ * rescheduled from their previous deadline, so delays do not accumulate, and fixed-delay timeouts
+ * are rescheduled from the end of their previous execution.
+ * <p>
+ * The precision of a timing wheel is its tick duration: a timeout expires in the first tick after
+ * its deadline. The tasks are executed in the wheel thread, so they must be short and must not
+ * block (a sensor notifies its listeners, which submit the behaviours to the agent executors).
+ * An exception thrown by a task does not stop the wheel: it is reported to the error handler of
+ * the wheel, which logs it by default.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class TimingWheel {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TimingWheel with the given tick duration and number of
+     * buckets per level. The wheel thread is started when the first timeout is scheduled.
+     *
+     * @param tickDuration The duration of each tick (the precision of the wheel).
+     * @param ticksPerWheel The number of buckets in each level of the wheel. It is rounded up to a
+     *                      power of two, and the number of levels is the smallest one that covers
+     *                      any delay.
+     * @param threadName The name of the wheel thread.
+     * @throws IllegalArgumentException If the tick duration is shorter than one millisecond or if
+     *                                  the number of buckets is not between 2 and 2^30.
+     */
+    public TimingWheel(Duration tickDuration, int ticksPerWheel, String threadName) {
+        if(tickDuration.toMillis() < 1)
+            throw new IllegalArgumentException("The tick duration must be at least one millisecond.");
+        if(ticksPerWheel < 2 || ticksPerWheel > (1 << 30))
+            throw new IllegalArgumentException("The number of buckets must be between 2 and 2^30.");
+        this.tickDuration = tickDuration.toNanos();
+        int bits = 1;
+        while((1 << bits) < ticksPerWheel) {
+            bits++;
+        }
+        this.bitsPerLevel = bits;
+        this.mask = (1 << bits) - 1;
+        this.levels = new Bucket[(Long.SIZE - 1 + bits - 1) / bits][1 << bits];
+        for(Bucket[] level : levels) {
+            for(int i = 0; i < level.length; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        this.worker = new Thread(new Worker(), threadName);
+        this.worker.setDaemon(true);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the timing wheel shared by all components of the platform. The shared
+     * wheel has a tick of 10 milliseconds and a daemon thread, so it does not prevent the JVM from
+     * exiting.
+     *
+     * @return The shared timing wheel.
+     */
+    public static TimingWheel getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * This method schedules a task to be executed once, after the given delay.
+     *
+     * @param task The task.
+     * @param delay The delay before the execution.
+     * @return The scheduled timeout, which can be used to cancel the execution.
+     * @throws IllegalStateException If the wheel was stopped.
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        return schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method schedules a task to be executed once, after the given delay.
+     *
+     * @param task The task.
+     * @param delay The delay before the execution.
+     * @param unit The time unit of the delay.
+     * @return The scheduled timeout, which can be used to cancel the execution.
+     * @throws IllegalStateException If the wheel was stopped.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return schedule(task, delay, 0, unit);
+    }
+
+    /**
+     * This method schedules a task to be executed periodically at a fixed rate. The first
+     * execution happens after the initial delay and each next one happens one period after the
+     * deadline of the previous one, regardless of the duration of the executions, so the
+     * executions do not drift. If an execution takes longer than the period, the next one is
+     * executed in the next tick.
+     *
+     * @param task The task.
+     * @param initialDelay The delay before the first execution.
+     * @param period The period between the deadlines of successive executions.
+     * @return The scheduled timeout, which can be used to cancel the executions.
+     * @throws IllegalArgumentException If the period is not positive.
+     * @throws IllegalStateException If the wheel was stopped.
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, Duration initialDelay, Duration period) {
+        return scheduleAtFixedRate(task, initialDelay.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method schedules a task to be executed periodically at a fixed rate. The first
+     * execution happens after the initial delay and each next one happens one period after the
+     * deadline of the previous one, regardless of the duration of the executions, so the
+     * executions do not drift. If an execution takes longer than the period, the next one is
+     * executed in the next tick.
+     *
+     * @param task The task.
+     * @param initialDelay The delay before the first execution.
+     * @param period The period between the deadlines of successive executions.
+     * @param unit The time unit of the delay and of the period.
+     * @return The scheduled timeout, which can be used to cancel the executions.
+     * @throws IllegalArgumentException If the period is not positive.
+     * @throws IllegalStateException If the wheel was stopped.
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if(period <= 0)
+            throw new IllegalArgumentException("The period must be positive.");
+        return schedule(task, initialDelay, period, unit);
+    }
+
+    /**
+     * This method schedules a task to be executed periodically with a fixed delay. The first
+     * execution happens after the initial delay and each next one happens the given delay after
+     * the end of the previous one.
+     *
+     * @param task The task.
+     * @param initialDelay The delay before the first execution.
+     * @param delay The delay between the end of an execution and the start of the next one.
+     * @return The scheduled timeout, which can be used to cancel the executions.
+     * @throws IllegalArgumentException If the delay is not positive.
+     * @throws IllegalStateException If the wheel was stopped.
+     */
+    public Timeout scheduleWithFixedDelay(Runnable task, Duration initialDelay, Duration delay) {
+        return scheduleWithFixedDelay(task, initialDelay.toNanos(), delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method schedules a task to be executed periodically with a fixed delay. The first
+     * execution happens after the initial delay and each next one happens the given delay after
+     * the end of the previous one.
+     *
+     * @param task The task.
+     * @param initialDelay The delay before the first execution.
+     * @param delay The delay between the end of an execution and the start of the next one.
+     * @param unit The time unit of the delays.
+     * @return The scheduled timeout, which can be used to cancel the executions.
+     * @throws IllegalArgumentException If the delay is not positive.
+     * @throws IllegalStateException If the wheel was stopped.
+     */
+    public Timeout scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        if(delay <= 0)
+            throw new IllegalArgumentException("The delay must be positive.");
+        return schedule(task, initialDelay, -delay, unit);
+    }
+
+    /**
+     * This method sets the handler of the exceptions thrown by the tasks of this wheel. The
+     * handler is executed in the wheel thread, so it must be short and must not block. By default,
+     * the exceptions are logged with java.util.logging, at the level WARNING.
+     *
+     * @param errorHandler The handler, which receives the timeout of the task and the exception.
+     */
+    public void setErrorHandler(BiConsumer<Timeout, Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * This method stops the wheel thread. The timeouts that have not expired are discarded and no
+     * new timeouts can be scheduled.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P A C K A G E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method is used by a timeout to notify that it was cancelled, so the wheel thread can
+     * remove it from its bucket.
+     *
+     * @param timeout The cancelled timeout.
+     */
+    void cancelled(Timeout timeout) {
+        cancelledTimeouts.add(timeout);
+    }
+
+    /**
+     * This method is used by a timeout to report an exception thrown by its task. An exception
+     * thrown by the error handler itself is logged.
+     *
+     * @param timeout The timeout.
+     * @param exception The exception thrown by the task.
+     */
+    void taskFailed(Timeout timeout, Throwable exception) {
+        try {
+            errorHandler.accept(timeout, exception);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "The error handler of the timing wheel failed.", ex);
+        }
+    }
+
+    /**
+     * This method obtains the current time of the wheel.
+     *
+     * @return The time elapsed since the start of the wheel thread, in nanoseconds.
+     */
+    long currentTime() {
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * This method stores a periodic timeout in the bucket of its next deadline. It is only
+     * executed by the wheel thread, after the timeout expires.
+     *
+     * @param timeout The timeout.
+     */
+    void reschedule(Timeout timeout) {
+        // A periodic timeout is executed at most once per tick, even if its period is shorter.
+        add(timeout, tick + 1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method schedules a task.
+     *
+     * @param task The task.
+     * @param delay The delay before the first execution.
+     * @param period The period of the timeout: zero for a single execution, positive for a fixed
+     *               rate and negative for a fixed delay.
+     * @param unit The time unit of the delay and of the period.
+     * @return The scheduled timeout.
+     */
+    private Timeout schedule(Runnable task, long delay, long period, TimeUnit unit) {
+        start();
+        Timeout timeout = new Timeout(this, task, currentTime() + Math.max(0, unit.toNanos(delay)), unit.toNanos(period));
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * This method starts the wheel thread, if it has not been started yet.
+     *
+     * @throws IllegalStateException If the wheel was stopped.
+     */
+    private void start() {
+        if(started)
+            return;
+        synchronized(this) {
+            if(stopped)
+                throw new IllegalStateException("The timing wheel was stopped.");
+            if(!started) {
+                startTime = System.nanoTime();
+                started = true;
+                worker.start();
+            }
+        }
+    }
+
+    /**
+     * This method moves the timeouts scheduled by other threads to their buckets.
+     */
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while((timeout = pendingTimeouts.poll()) != null) {
+            if(!timeout.isCancelled())
+                add(timeout, tick);
+        }
+    }
+
+    /**
+     * This method stores a timeout in the bucket that covers its deadline, in the lowest level
+     * whose turn covers the time left until the deadline.
+     *
+     * @param timeout The timeout.
+     * @param minimumTick The first tick where the timeout can expire. Timeouts whose deadline has
+     *                    already passed expire in this tick.
+     */
+    private void add(Timeout timeout, long minimumTick) {
+        long expirationTick = Math.max(timeout.deadline / tickDuration, minimumTick);
+        long remaining = expirationTick - tick;
+        int level = 0;
+        while(level < levels.length - 1 && (remaining >>> (bitsPerLevel * (level + 1))) != 0) {
+            level++;
+        }
+        levels[level][(int) ((expirationTick >>> (bitsPerLevel * level)) & mask)].add(timeout);
+    }
+
+    /**
+     * This method moves the timeouts of the upper levels that expire in the turn of the first
+     * level that starts in the current tick down to the buckets of the lower levels.
+     */
+    private void cascadeTimeouts() {
+        int level = 1;
+        while(level < levels.length && (tick & ((1L << (bitsPerLevel * level)) - 1)) == 0) {
+            level++;
+        }
+        // The upper levels are moved first, so their timeouts can be moved again to the first one.
+        for(int i = level - 1; i > 0; i--) {
+            Bucket bucket = levels[i][(int) ((tick >>> (bitsPerLevel * i)) & mask)];
+            Timeout timeout;
+            while((timeout = bucket.poll()) != null) {
+                add(timeout, tick);
+            }
+        }
+    }
+
+    /**
+     * This method removes the cancelled timeouts from their buckets.
+     */
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while((timeout = cancelledTimeouts.poll()) != null) {
+            if(timeout.bucket != null)
+                timeout.bucket.remove(timeout);
+        }
+    }
+
+    /**
+     * This method waits until the end of the current tick.
+     *
+     * @return False if the wheel was stopped while waiting; true otherwise.
+     */
+    private boolean waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while(!stopped) {
+            long sleepTime = deadline - (System.nanoTime() - startTime);
+            if(sleepTime <= 0)
+                return true;
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepTime);
+            } catch (InterruptedException ex) {
+                // The loop condition checks if the wheel was stopped.
+            }
+        }
+        return false;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The logger of the timing wheels.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The duration of each tick, in nanoseconds.
+     */
+    private final long tickDuration;
+
+    /**
+     * The buckets of each level of the wheel. The number of buckets per level is a power of two.
+     */
+    private final Bucket[][] levels;
+
+    /**
+     * The number of bits of a tick number that select a bucket in a level.
+     */
+    private final int bitsPerLevel;
+
+    /**
+     * The mask used to obtain a bucket index from a tick number.
+     */
+    private final int mask;
+
+    /**
+     * The wheel thread.
+     */
+    private final Thread worker;
+
+    /**
+     * The timeouts scheduled by other threads that have not been stored in their buckets yet.
+     */
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The cancelled timeouts that have not been removed from their buckets yet.
+     */
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The time when the wheel thread was started, as given by <code>System.nanoTime</code>.
+     */
+    private volatile long startTime;
+
+    /**
+     * True if the wheel thread has been started; false otherwise.
+     */
+    private volatile boolean started;
+
+    /**
+     * True if the wheel was stopped; false otherwise.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The number of the current tick. It is only accessed by the wheel thread.
+     */
+    private long tick;
+
+    /**
+     * The handler of the exceptions thrown by the tasks.
+     */
+    private volatile BiConsumer<Timeout, Throwable> errorHandler =
+            (timeout, exception) -> LOGGER.log(Level.WARNING, "A task of the timing wheel failed.", exception);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The holder of the shared timing wheel, which is created when it is used for the first time.
+     */
+    private static class DefaultHolder {
+
+        /**
+         * The shared timing wheel.
+         */
+        private static final TimingWheel INSTANCE = new TimingWheel(Duration.ofMillis(10), 512, "jaf-timing-wheel");
+    }
+
+    /**
+     * The code executed by the wheel thread.
+     */
+    private class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            while(waitForNextTick()) {
+                removeCancelledTimeouts();
+                cascadeTimeouts();
+                transferPendingTimeouts();
+                levels[0][(int) (tick & mask)].expireTimeouts();
+                tick++;
+            }
+        }
+    }
+
+    /**
+     * A bucket of the wheel: a doubly-linked list of the timeouts whose deadlines are in the same
+     * tick (first level) or in the same turn of the level below (upper levels). It is only
+     * accessed by the wheel thread.
+     */
+    static class Bucket {
+
+        //////////////////////////////////////////////////////////////////////////////////////////
+        // P U B L I C   M E T H O D S
+        //////////////////////////////////////////////////////////////////////////////////////////
+
+        /**
+         * This method adds a timeout to the end of this bucket.
+         *
+         * @param timeout The timeout.
+         */
+        public void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if(tail == null)
+                head = timeout;
+            else
+                tail.next = timeout;
+            tail = timeout;
+        }
+
+        /**
+         * This method removes a timeout from this bucket.
+         *
+         * @param timeout The timeout.
+         */
+        public void remove(Timeout timeout) {
+            if(timeout.previous == null)
+                head = timeout.next;
+            else
+                timeout.previous.next = timeout.next;
+            if(timeout.next == null)
+                tail = timeout.previous;
+            else
+                timeout.next.previous = timeout.previous;
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        /**
+         * This method removes the first timeout of this bucket.
+         *
+         * @return The removed timeout; null if the bucket is empty.
+         */
+        public Timeout poll() {
+            Timeout timeout = head;
+            if(timeout != null)
+                remove(timeout);
+            return timeout;
+        }
+
+        /**
+         * This method executes all timeouts of this bucket. The periodic timeouts rescheduled by
+         * their executions are stored in the buckets of later ticks.
+         */
+        public void expireTimeouts() {
+            Timeout timeout;
+            while((timeout = poll()) != null) {
+                timeout.expire();
+            }
+        }
+
+        //////////////////////////////////////////////////////////////////////////////////////////
+        // P R I V A T E   A T T R I B U T E S
+        //////////////////////////////////////////////////////////////////////////////////////////
+
+        /**
+         * The first timeout in the bucket.
+         */
+        private Timeout head;
+
+        /**
+         * The last timeout in the bucket.
+         */
+        private Timeout tail;
+    }
+}
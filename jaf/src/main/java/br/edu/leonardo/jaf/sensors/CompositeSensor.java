@@ -0,0 +1,172 @@
+package br.edu.leonardo.jaf.sensors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import javax.measure.Unit;
+
+/**
+ * A virtual sensor whose value is computed from the latest values of several source sensors (for
+ * example, the dew point computed from a temperature and a humidity sensor, or the number of free
+ * spaces computed from the sensors of a parking lot). Subclasses must implement the method
+ * <code>compute</code>.
+ * <p>
+ * The latest number extracted from each source is kept in a slot of a primitive array. The value
+ * is computed only when all sources have reported, and it is recomputed only when a source
+ * reports a number that is different from the one in its slot. The computed value is notified as a
+ * SingleSensorValue only when it changes. Computing a value does not allocate objects; only the
+ * notified values are allocated.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class CompositeSensor extends DerivedSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new CompositeSensor that extracts numbers from all source sensors
+     * with the same function.
+     *
+     * @param unit The unit of the computed values.
+     * @param extractor The function that extracts a number from each reading of the sources.
+     * @param sources The source sensors. The slot of each source is its index in this array.
+     */
+    public CompositeSensor(Unit<?> unit, ToDoubleFunction<SensorValue> extractor, Sensor... sources) {
+        this(unit, Collections.nCopies(sources.length, extractor), sources);
+    }
+
+    /**
+     * This constructor builds a new CompositeSensor that extracts numbers from each source sensor
+     * with a specific function.
+     *
+     * @param unit The unit of the computed values.
+     * @param extractors The functions that extract a number from the readings of each source, in
+     *                   the same order of the sources.
+     * @param sources The source sensors. The slot of each source is its index in this array.
+     * @throws IllegalArgumentException If the number of extractors is different from the number of
+     *                                  sources or if a source is informed more than once.
+     */
+    public CompositeSensor(Unit<?> unit, List<ToDoubleFunction<SensorValue>> extractors, Sensor... sources) {
+        super(sources);
+        if(extractors.size() != sources.length)
+            throw new IllegalArgumentException("The number of extractors must be equal to the number of sources.");
+        this.unit = unit;
+        this.extractors = new ArrayList<>(extractors);
+        this.slots = new double[sources.length];
+        this.filled = new boolean[sources.length];
+        this.missing = sources.length;
+        for(int i = 0; i < sources.length; i++) {
+            if(slotIndexes.put(sources[i], i) != null)
+                throw new IllegalArgumentException("A source sensor cannot be informed more than once.");
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the last computed value.
+     *
+     * @return The value; NaN if no value has been computed yet.
+     */
+    public synchronized double getLastResult() {
+        return result;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected synchronized void onSourceReading(SensorNotification notification) {
+        Integer slot = slotIndexes.get(notification.getSensor());
+        if(slot == null)
+            return;
+        int i = slot;
+        double value = extractors.get(i).applyAsDouble(notification.getValue());
+
+        if(filled[i]) {
+            if(Double.compare(slots[i], value) == 0)
+                return;
+        } else {
+            filled[i] = true;
+            missing--;
+        }
+        slots[i] = value;
+
+        if(missing == 0) {
+            double newResult = compute(slots);
+            if(Double.compare(newResult, result) != 0) {
+                result = newResult;
+                newReading(createValue(newResult));
+            }
+        }
+    }
+
+    /**
+     * This method must be implemented in concrete subclasses to compute the value of this sensor
+     * from the latest numbers of the sources. It is executed while holding the lock of this sensor.
+     *
+     * @param inputs The latest number of each source, indexed by the slot of the source. The array
+     *               must not be modified nor stored.
+     * @return The computed value.
+     */
+    protected abstract double compute(double[] inputs);
+
+    /**
+     * This method creates the sensor value notified for a computed number. The default
+     * implementation creates a SingleSensorValue in the unit of this sensor; subclasses can
+     * override it to notify other types of values.
+     *
+     * @param result The computed number.
+     * @return The sensor value.
+     */
+    protected SensorValue createValue(double result) {
+        return new SingleSensorValue(result, unit);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The unit of the computed values.
+     */
+    private final Unit<?> unit;
+
+    /**
+     * The function that extracts a number from the readings of each source, indexed by slot.
+     */
+    private final List<ToDoubleFunction<SensorValue>> extractors;
+
+    /**
+     * The latest number of each source, indexed by slot.
+     */
+    private final double[] slots;
+
+    /**
+     * The slots that have already received a number.
+     */
+    private final boolean[] filled;
+
+    /**
+     * The slot index of each source sensor.
+     */
+    private final Map<Sensor, Integer> slotIndexes = new IdentityHashMap<>();
+
+    /**
+     * The number of slots that have not received a number yet.
+     */
+    private int missing;
+
+    /**
+     * The last computed value.
+     */
+    private double result = Double.NaN;
+}
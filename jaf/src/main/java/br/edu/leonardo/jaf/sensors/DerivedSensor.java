@@ -0,0 +1,135 @@
+package br.edu.leonardo.jaf.sensors;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sensor whose values are derived from the notifications of one or more source sensors. A
+ * derived sensor starts listening to its sources when it is initialized and processes each
+ * received notification in the method <code>onSourceReading</code>. Subclasses decide whether a
+ * new value is notified to the listeners of the derived sensor, using the method
+ * <code>newReading</code>.
+ * <p>
+ * A derived sensor owns its sources: the method <code>init</code> also initializes all source
+ * sensors. A source sensor that is shared with other components must be initialized only once, so
+ * it should not be initialized elsewhere (an agent can skip the initialization of its sensors with
+ * <code>Agent.init(false)</code>).
+ * <p>
+ * A derived sensor has demand for the readings of its sources while one of its own listeners has
+ * demand (see NotificationListener.hasDemand), so a source that skips readings without demand,
+ * like a periodic sensor, also skips them when it is behind a derived sensor.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class DerivedSensor extends Sensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new DerivedSensor that listens to the given source sensors.
+     *
+     * @param sources The source sensors. At least one sensor must be informed.
+     * @throws IllegalArgumentException If no source sensor is informed.
+     */
+    public DerivedSensor(Sensor... sources) {
+        if(sources.length == 0)
+            throw new IllegalArgumentException("A derived sensor must have at least one source sensor.");
+        this.sources = Collections.unmodifiableList(Arrays.asList(sources.clone()));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method starts listening to the source sensors and initializes them. Subclasses that
+     * override this method must invoke it.
+     *
+     * @throws SensorException If an error occurred during a source sensor initialization.
+     */
+    @Override
+    public void init() throws SensorException {
+        synchronized(this) {
+            if(listening)
+                return;
+            listening = true;
+        }
+        NotificationListener listener = new NotificationListener() {
+            @Override
+            public void notify(SensorNotification notification) {
+                onSourceReading(notification);
+            }
+
+            @Override
+            public void onFatalError(SensorException exception) {
+                onSourceFatalError(exception);
+            }
+
+            @Override
+            public boolean hasDemand() {
+                // The demand of the listeners of this sensor is propagated to the sources.
+                return DerivedSensor.this.hasDemand();
+            }
+        };
+        for(Sensor s : sources) {
+            s.addListener(listener);
+        }
+        for(Sensor s : sources) {
+            s.init();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the source sensors of this derived sensor.
+     *
+     * @return An unmodifiable list with the source sensors, in the order they were informed in the
+     *         constructor.
+     */
+    public List<Sensor> getSources() {
+        return sources;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method must be implemented in concrete subclasses to process a notification sent by one
+     * of the source sensors. It is executed in the thread of the source sensor.
+     *
+     * @param notification The notification sent by a source sensor.
+     */
+    protected abstract void onSourceReading(SensorNotification notification);
+
+    /**
+     * This method is executed when a source sensor reports a fatal error. The default
+     * implementation reports the error to the listeners of this sensor, which stop receiving
+     * notifications.
+     *
+     * @param exception The error reported by the source sensor.
+     */
+    protected void onSourceFatalError(SensorException exception) {
+        reportFatalError(exception);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The source sensors of this derived sensor.
+     */
+    private final List<Sensor> sources;
+
+    /**
+     * True if this sensor has already been initialized and listens to its sources.
+     */
+    private boolean listening;
+}
@@ -22,4 +22,15 @@ public interface NotificationListener {
      *                     information.
      */
     public void notify(SensorNotification notification);
+
+    /**
+     * This method checks if this listener can process new notifications now. Sensors that can
+     * delay or skip their readings, like periodic sensors, use it to adapt to the capacity of
+     * their listeners. The default implementation always returns true.
+     *
+     * @return True if the listener can process new notifications; false otherwise.
+     */
+    public default boolean hasDemand() {
+        return true;
+    }
 }
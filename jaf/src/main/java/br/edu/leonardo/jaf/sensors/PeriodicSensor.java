@@ -0,0 +1,188 @@
+package br.edu.leonardo.jaf.sensors;
+
+import br.edu.leonardo.jaf.scheduling.Timeout;
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import java.time.Duration;
+
+/**
+ * A sensor that polls a reading periodically, like a sensor that drives the iterations of a
+ * simulation or a sensor that reads a device without notifications. Subclasses must implement the
+ * method <code>poll</code>, which is executed at each period after the sensor is initialized.
+ * <p>
+ * The readings are scheduled in a timing wheel shared by all periodic sensors, so a periodic
+ * sensor does not create a thread. The method <code>poll</code> is executed in the thread of the
+ * wheel and must not block. The sensor can be polled at a fixed rate (each reading is scheduled
+ * from the ideal time of the previous one, so delays do not accumulate) or with a fixed delay
+ * (each reading is scheduled from the end of the previous one).
+ * <p>
+ * A period is skipped, without polling, when no listener of the sensor has demand for new
+ * notifications (for example, when an agent has reached its limit of pending behaviours), so a
+ * slow consumer slows down the sensor instead of accumulating readings.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class PeriodicSensor extends Sensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new PeriodicSensor that is polled at a fixed rate, starting one
+     * period after its initialization.
+     *
+     * @param period The amount of time between each reading.
+     */
+    public PeriodicSensor(Duration period) {
+        this(period, period, true);
+    }
+
+    /**
+     * This constructor builds a new PeriodicSensor that uses the shared timing wheel.
+     *
+     * @param initialDelay The amount of time between the initialization and the first reading.
+     * @param period The amount of time between each reading.
+     * @param fixedRate True if the readings are scheduled at a fixed rate; false if they are
+     *                  scheduled with a fixed delay after the end of the previous reading.
+     */
+    public PeriodicSensor(Duration initialDelay, Duration period, boolean fixedRate) {
+        this(initialDelay, period, fixedRate, TimingWheel.getDefault());
+    }
+
+    /**
+     * This constructor builds a new PeriodicSensor.
+     *
+     * @param initialDelay The amount of time between the initialization and the first reading.
+     * @param period The amount of time between each reading.
+     * @param fixedRate True if the readings are scheduled at a fixed rate; false if they are
+     *                  scheduled with a fixed delay after the end of the previous reading.
+     * @param wheel The timing wheel used to schedule the readings.
+     * @throws IllegalArgumentException If the period is not positive or the initial delay is
+     *                                  negative.
+     */
+    public PeriodicSensor(Duration initialDelay, Duration period, boolean fixedRate, TimingWheel wheel) {
+        if(period.isNegative() || period.isZero())
+            throw new IllegalArgumentException("The period must be positive.");
+        if(initialDelay.isNegative())
+            throw new IllegalArgumentException("The initial delay cannot be negative.");
+        this.initialDelay = initialDelay;
+        this.period = period;
+        this.fixedRate = fixedRate;
+        this.wheel = wheel;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method starts the periodic readings. It has no effect if the readings have already been
+     * started. Subclasses that override this method must invoke it.
+     *
+     * @throws SensorException Never thrown by this implementation; subclasses can throw it if an
+     *                         error occurred during their initialization.
+     */
+    @Override
+    public synchronized void init() throws SensorException {
+        if(timeout != null || stopped)
+            return;
+        if(fixedRate)
+            timeout = wheel.scheduleAtFixedRate(this::read, initialDelay, period);
+        else
+            timeout = wheel.scheduleWithFixedDelay(this::read, initialDelay, period);
+    }
+
+    /**
+     * This method stops the periodic readings. A stopped sensor cannot be started again.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if(timeout != null)
+            timeout.cancel();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the amount of time between each reading.
+     *
+     * @return The period.
+     */
+    public Duration getPeriod() {
+        return period;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method must be implemented in concrete subclasses to obtain a reading. It is executed
+     * in the thread of the timing wheel at each period in which a listener has demand.
+     *
+     * @return The reading, which is notified to the listeners of this sensor; null if there is no
+     *         reading in this period.
+     * @throws SensorException If the reading could not be obtained. The error is reported to the
+     *                         listeners of this sensor and the periodic readings are stopped.
+     */
+    protected abstract SensorValue poll() throws SensorException;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method is executed by the timing wheel at each period.
+     */
+    private void read() {
+        if(!hasDemand())
+            return;
+        SensorValue value;
+        try {
+            value = poll();
+        } catch (SensorException ex) {
+            stop();
+            reportFatalError(ex);
+            return;
+        }
+        if(value != null)
+            newReading(value);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The amount of time between the initialization and the first reading.
+     */
+    private final Duration initialDelay;
+
+    /**
+     * The amount of time between each reading.
+     */
+    private final Duration period;
+
+    /**
+     * True if the readings are scheduled at a fixed rate; false if they are scheduled with a fixed
+     * delay.
+     */
+    private final boolean fixedRate;
+
+    /**
+     * The timing wheel used to schedule the readings.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * The timeout of the periodic readings; null if they have not been started.
+     */
+    private Timeout timeout;
+
+    /**
+     * True if the readings were stopped; false otherwise.
+     */
+    private boolean stopped;
+}
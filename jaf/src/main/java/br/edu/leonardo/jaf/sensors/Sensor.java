@@ -1,5 +1,7 @@
 package br.edu.leonardo.jaf.sensors;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -29,7 +31,36 @@ public abstract class Sensor {
      * @param listener The desired listener.
      */
     public void addListener(NotificationListener listener) {
-        listeners.add(listener);
+        synchronized(listenerSet) {
+            if(!listenerSet.add(listener))
+                return;
+            Listeners current = listeners;
+            NotificationListener[] array = current.array;
+            if(current.count == array.length)
+                array = Arrays.copyOf(array, Math.max(4, array.length * 2));
+            array[current.count] = listener;
+            listeners = new Listeners(array, current.count + 1);
+        }
+    }
+
+    /**
+     * This method removes a listener from this sensor. The listener stops receiving notifications.
+     *
+     * @param listener The listener. If it has not been added to this sensor, nothing happens.
+     */
+    public void removeListener(NotificationListener listener) {
+        synchronized(listenerSet) {
+            if(!listenerSet.remove(listener))
+                return;
+            Listeners current = listeners;
+            NotificationListener[] array = new NotificationListener[current.array.length];
+            int count = 0;
+            for(int i = 0; i < current.count; i++) {
+                if(!current.array[i].equals(listener))
+                    array[count++] = current.array[i];
+            }
+            listeners = new Listeners(array, count);
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -43,12 +74,41 @@ public abstract class Sensor {
      * @param value The new value as a SensorValue reference.
      */
     protected final void newReading(SensorValue value) {
-        SensorNotification notif = new SensorNotification(this, value);
-        for (NotificationListener obs : listeners) {
-            obs.notify(notif);
+        newReading(value, null);
+    }
+
+    /**
+     * This method receives a new value notification from the sensor, with the time when the value
+     * was read by the device. The subclasses of Sensor should use this method to process new values
+     * when the device informs the time of its readings.
+     *
+     * @param value The new value as a SensorValue reference.
+     * @param deviceTime The time when the value was read by the device; null if it is unknown.
+     */
+    protected final void newReading(SensorValue value, Instant deviceTime) {
+        SensorNotification notif = new SensorNotification(this, value, deviceTime);
+        Listeners current = listeners;
+        for (int i = 0; i < current.count; i++) {
+            current.array[i].notify(notif);
         }
     }
     
+    /**
+     * This method checks if any listener of this sensor can process new notifications now (see
+     * NotificationListener.hasDemand). Sensors that can delay or skip their readings should use
+     * this method to avoid producing readings that would only be queued.
+     *
+     * @return True if at least one listener can process new notifications; false otherwise.
+     */
+    protected boolean hasDemand() {
+        Listeners current = listeners;
+        for(int i = 0; i < current.count; i++) {
+            if(current.array[i].hasDemand())
+                return true;
+        }
+        return false;
+    }
+
     /**
      * This method reports a fatal error related to the sensors and forces all registered listeners
      * to stop notifying. The method <code>onFatalError</code> of all registered listeners is called
@@ -57,10 +117,15 @@ public abstract class Sensor {
      * @param exception The exception related to the reported error.  
      */
     protected void reportFatalError(Throwable exception) {
-        for(NotificationListener listener : listeners) {
-            listener.onFatalError(new SensorException(this, exception));
+        Listeners removed;
+        synchronized(listenerSet) {
+            removed = listeners;
+            listeners = Listeners.EMPTY;
+            listenerSet.clear();
+        }
+        for(int i = 0; i < removed.count; i++) {
+            removed.array[i].onFatalError(new SensorException(this, exception));
         }
-        listeners.clear();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -68,7 +133,53 @@ public abstract class Sensor {
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * The set of listeners added to this sensor.
+     * The listeners added to this sensor, used to check if a listener has already been added. It
+     * is also the lock of the changes of the listeners.
+     */
+    private final Set<NotificationListener> listenerSet = new HashSet<>();
+
+    /**
+     * The listeners added to this sensor, in the order they were added. Listeners are iterated
+     * for every notification, so an immutable snapshot is published after each change and the
+     * notifications read it without locking. A new listener is appended to the array of the
+     * current snapshot when it has free space (the slots after the count of a snapshot are never
+     * read through it), so adding many listeners takes amortized constant time.
      */
-    private final Set<NotificationListener> listeners = new HashSet();
+    private volatile Listeners listeners = Listeners.EMPTY;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A snapshot of the listeners of a sensor.
+     */
+    private static class Listeners {
+
+        /**
+         * The snapshot without listeners.
+         */
+        static final Listeners EMPTY = new Listeners(new NotificationListener[0], 0);
+
+        /**
+         * This constructor builds a new Listeners.
+         *
+         * @param array The array of listeners.
+         * @param count The number of listeners in the array.
+         */
+        Listeners(NotificationListener[] array, int count) {
+            this.array = array;
+            this.count = count;
+        }
+
+        /**
+         * The array of listeners. Only the first slots, up to the count, belong to this snapshot.
+         */
+        private final NotificationListener[] array;
+
+        /**
+         * The number of listeners.
+         */
+        private final int count;
+    }
 }
@@ -1,8 +1,16 @@
 package br.edu.leonardo.jaf.sensors;
 
+import java.time.Instant;
+
 /**
  * A notification sent by a sensor. This notification contains the value notified by the sensor and
  * any other related information.
+ * <p>
+ * A notification records two timestamps: the device time, which is the time informed by the device
+ * that produced the reading (when it is available), and the ingest time, which is the value of
+ * <code>System.nanoTime</code> when the notification was created. The ingest time is monotonic, so
+ * it can be used to measure the time spent by a notification in each stage of the platform (see
+ * br.edu.leonardo.jaf.metrics.LatencyStatistics).
  *
  * @author Leonardo Vianna do Nascimento
  */
@@ -19,8 +27,22 @@ public class SensorNotification {
      * @param value The value notified by the sensor.
      */
     public SensorNotification(Sensor sensor, SensorValue value) {
+        this(sensor, value, null);
+    }
+
+    /**
+     * This constructor builds a new SensorNotification with the given sensor, value and device
+     * time.
+     *
+     * @param sensor The sensor that sent this notification.
+     * @param value The value notified by the sensor.
+     * @param deviceTime The time when the value was read by the device; null if it is unknown.
+     */
+    public SensorNotification(Sensor sensor, SensorValue value, Instant deviceTime) {
         this.sensor = sensor;
         this.value = value;
+        this.deviceTime = deviceTime;
+        this.ingestTime = System.nanoTime();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -45,6 +67,25 @@ public class SensorNotification {
         return value;
     }
 
+    /**
+     * This method obtains the time when the value was read by the device.
+     *
+     * @return The device time; null if it is unknown.
+     */
+    public Instant getDeviceTime() {
+        return deviceTime;
+    }
+
+    /**
+     * This method obtains the time when this notification was created.
+     *
+     * @return The value of <code>System.nanoTime</code> when this notification was created. It can
+     *         only be compared with other values of <code>System.nanoTime</code>.
+     */
+    public long getIngestTime() {
+        return ingestTime;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // P R I V A T E   A T T R I B U T E S
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -58,4 +99,14 @@ public class SensorNotification {
      * The value notified by the sensor.
      */
     private final SensorValue value;
+
+    /**
+     * The time when the value was read by the device; null if it is unknown.
+     */
+    private final Instant deviceTime;
+
+    /**
+     * The value of <code>System.nanoTime</code> when this notification was created.
+     */
+    private final long ingestTime;
 }
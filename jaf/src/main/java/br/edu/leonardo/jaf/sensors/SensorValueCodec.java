@@ -0,0 +1,37 @@
+package br.edu.leonardo.jaf.sensors;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A binary encoding of sensor values. A codec writes a value straight into a ByteBuffer and reads
+ * it back from the same position, so values can be stored in files or memory-mapped buffers
+ * without intermediate objects.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public interface SensorValueCodec {
+
+    /**
+     * This method writes a value at the current position of the given buffer and advances the
+     * position to the end of the encoded value.
+     *
+     * @param value The value.
+     * @param buffer The buffer.
+     * @throws java.nio.BufferOverflowException If the buffer does not have enough space for the
+     *                                          value. The position of the buffer is undefined.
+     * @throws IllegalArgumentException If the type of the value is not supported by this codec.
+     */
+    public void encode(SensorValue value, ByteBuffer buffer);
+
+    /**
+     * This method reads a value from the current position of the given buffer and advances the
+     * position to the end of the encoded value.
+     *
+     * @param buffer The buffer.
+     * @return The value.
+     * @throws java.nio.BufferUnderflowException If the buffer ends before the end of the value.
+     * @throws IllegalArgumentException If the buffer does not contain a value encoded by this
+     *                                  codec.
+     */
+    public SensorValue decode(ByteBuffer buffer);
+}
@@ -0,0 +1,519 @@
+package br.edu.leonardo.jaf.sensors;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.quantity.Quantities;
+import tec.units.ri.unit.Units;
+
+/**
+ * A compact binary codec for sensor values. The registry encodes each value as the id of its type,
+ * as a varint, followed by the fields of the value, written by the SensorValueTypeCodec
+ * registered for the type. The types BooleanSensorValue, SingleSensorValue, ThreeAxisSensorValue
+ * and LocationSensorValue are registered by default; user types are registered with the method
+ * <code>registerType</code>:
+ * <pre>
+ * SensorValueCodecRegistry codec = new SensorValueCodecRegistry();
+ * codec.registerType(16, KhompNITZSensorValue.class, new KhompNITZSensorValueCodec());
+ * Journal journal = new Journal(Paths.get("journal"), codec);
+ * </pre>
+ * <p>
+ * A quantity is encoded as a varint with the id of its unit and the kind of its number, followed
+ * by the number: integral numbers are encoded as zigzag varints and other numbers as 8 byte
+ * doubles. Integral numbers are decoded as longs. The units of the Units class and the unit ONE
+ * have predefined ids; other units must be registered with the method <code>registerUnit</code>.
+ * <p>
+ * The ids of types and units are stored with the values, so the same ids must be registered in
+ * the registries that encode and decode them. The ids below FIRST_USER_TYPE_ID and
+ * FIRST_USER_UNIT_ID are reserved for this class. Types and units can be registered while the
+ * registry is used by other threads, but a value is only decoded by the registries in which its
+ * type and units are registered.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SensorValueCodecRegistry implements SensorValueCodec {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The first id that can be used to register a type.
+     */
+    public static final int FIRST_USER_TYPE_ID = 16;
+
+    /**
+     * The first id that can be used to register a unit.
+     */
+    public static final int FIRST_USER_UNIT_ID = 64;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SensorValueCodecRegistry with the predefined types and units.
+     */
+    public SensorValueCodecRegistry() {
+        Map<Class<?>, TypeEntry> newTypes = new HashMap<>();
+        SensorValueTypeCodec<?>[] newTypeCodecs = new SensorValueTypeCodec<?>[FIRST_USER_TYPE_ID];
+        newTypeCodecs = addType(newTypes, newTypeCodecs, BOOLEAN_TYPE_ID, BooleanSensorValue.class, new BooleanCodec());
+        newTypeCodecs = addType(newTypes, newTypeCodecs, SINGLE_TYPE_ID, SingleSensorValue.class, new SingleCodec());
+        newTypeCodecs = addType(newTypes, newTypeCodecs, THREE_AXIS_TYPE_ID, ThreeAxisSensorValue.class, new ThreeAxisCodec());
+        newTypeCodecs = addType(newTypes, newTypeCodecs, LOCATION_TYPE_ID, LocationSensorValue.class, new LocationCodec());
+        Map<Unit<?>, Integer> newUnits = new HashMap<>();
+        Unit<?>[] newUnitsById = new Unit<?>[FIRST_USER_UNIT_ID];
+        for(int i = 0; i < PREDEFINED_UNITS.length; i++) {
+            newUnitsById = addUnit(newUnits, newUnitsById, i + 1, PREDEFINED_UNITS[i]);
+        }
+        types = newTypes;
+        typeCodecs = newTypeCodecs;
+        units = newUnits;
+        unitsById = newUnitsById;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method registers the codec of a type of sensor value. Values whose class is a subclass
+     * of a registered type, and that are not registered themselves, are encoded by the codec of the
+     * type.
+     *
+     * @param <T> The type of the sensor values.
+     * @param id The id of the type, which is encoded with the values.
+     * @param type The class of the type.
+     * @param codec The codec of the type.
+     * @throws IllegalArgumentException If the id is reserved or the id or the type have already
+     *                                  been registered.
+     */
+    public synchronized <T extends SensorValue> void registerType(int id, Class<T> type, SensorValueTypeCodec<T> codec) {
+        if(id < FIRST_USER_TYPE_ID)
+            throw new IllegalArgumentException("The type ids below " + FIRST_USER_TYPE_ID + " are reserved.");
+        if(id < typeCodecs.length && typeCodecs[id] != null)
+            throw new IllegalArgumentException("The type id " + id + " has already been registered.");
+        if(types.containsKey(type))
+            throw new IllegalArgumentException("The type " + type.getName() + " has already been registered.");
+        // The tables are copied and published when they are complete, so the threads that are
+        // encoding or decoding never see them while they are changed.
+        Map<Class<?>, TypeEntry> newTypes = new HashMap<>(types);
+        SensorValueTypeCodec<?>[] newTypeCodecs = addType(newTypes, typeCodecs.clone(), id, type, codec);
+        typeCodecs = newTypeCodecs;
+        types = newTypes;
+    }
+
+    /**
+     * This method registers a unit.
+     *
+     * @param id The id of the unit, which is encoded with the quantities.
+     * @param unit The unit.
+     * @throws IllegalArgumentException If the id is reserved or the id or the unit have already
+     *                                  been registered.
+     */
+    public synchronized void registerUnit(int id, Unit<?> unit) {
+        if(id < FIRST_USER_UNIT_ID)
+            throw new IllegalArgumentException("The unit ids below " + FIRST_USER_UNIT_ID + " are reserved.");
+        if(id < unitsById.length && unitsById[id] != null)
+            throw new IllegalArgumentException("The unit id " + id + " has already been registered.");
+        if(units.containsKey(unit))
+            throw new IllegalArgumentException("The unit " + unit + " has already been registered.");
+        Map<Unit<?>, Integer> newUnits = new HashMap<>(units);
+        Unit<?>[] newUnitsById = addUnit(newUnits, unitsById.clone(), id, unit);
+        unitsById = newUnitsById;
+        units = newUnits;
+    }
+
+    @Override
+    public void encode(SensorValue value, ByteBuffer buffer) {
+        Map<Class<?>, TypeEntry> t = types;
+        TypeEntry entry = null;
+        for(Class<?> c = value.getClass(); entry == null && c != null; c = c.getSuperclass()) {
+            entry = t.get(c);
+        }
+        if(entry == null)
+            throw new IllegalArgumentException("The type " + value.getClass().getName() + " has not been registered.");
+        writeVarInt(entry.id, buffer);
+        encodeValue(entry.codec, value, buffer);
+    }
+
+    @Override
+    public SensorValue decode(ByteBuffer buffer) {
+        int id = readVarInt(buffer);
+        SensorValueTypeCodec<?>[] c = typeCodecs;
+        if(id >= c.length || c[id] == null)
+            throw new IllegalArgumentException("The type id " + id + " has not been registered.");
+        return c[id].decode(this, buffer);
+    }
+
+    /**
+     * This method writes a quantity at the current position of the given buffer.
+     *
+     * @param quantity The quantity; it can be null.
+     * @param buffer The buffer.
+     * @throws IllegalArgumentException If the unit of the quantity has not been registered.
+     */
+    public void writeQuantity(Quantity<?> quantity, ByteBuffer buffer) {
+        if(quantity == null) {
+            buffer.put((byte) NULL_QUANTITY);
+            return;
+        }
+        Integer unitId = units.get(quantity.getUnit());
+        if(unitId == null)
+            throw new IllegalArgumentException("The unit " + quantity.getUnit() + " has not been registered.");
+        Number number = quantity.getValue();
+        if(number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            writeVarInt(unitId << 1 | INTEGRAL_NUMBER, buffer);
+            writeVarLong(zigzag(number.longValue()), buffer);
+        } else {
+            writeVarInt(unitId << 1 | DOUBLE_NUMBER, buffer);
+            buffer.putDouble(number.doubleValue());
+        }
+    }
+
+    /**
+     * This method reads a quantity from the current position of the given buffer.
+     *
+     * @param buffer The buffer.
+     * @return The quantity; null if a null quantity was written.
+     * @throws IllegalArgumentException If the unit of the quantity has not been registered.
+     */
+    public Quantity<?> readQuantity(ByteBuffer buffer) {
+        int header = readVarInt(buffer);
+        if(header == NULL_QUANTITY)
+            return null;
+        int unitId = header >>> 1;
+        Unit<?>[] u = unitsById;
+        if(unitId >= u.length || u[unitId] == null)
+            throw new IllegalArgumentException("The unit id " + unitId + " has not been registered.");
+        if((header & 1) == INTEGRAL_NUMBER)
+            return Quantities.getQuantity(unzigzag(readVarLong(buffer)), u[unitId]);
+        return Quantities.getQuantity(buffer.getDouble(), u[unitId]);
+    }
+
+    /**
+     * This method writes a non-negative int as a varint: 7 bits per byte, from the least
+     * significant, with the high bit set in all bytes but the last one.
+     *
+     * @param value The value. Negative values are written in five bytes.
+     * @param buffer The buffer.
+     */
+    public static void writeVarInt(int value, ByteBuffer buffer) {
+        while((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * This method reads an int written as a varint.
+     *
+     * @param buffer The buffer.
+     * @return The value.
+     * @throws IllegalArgumentException If the varint is longer than five bytes.
+     */
+    public static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if(b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    /**
+     * This method writes a long as a varint.
+     *
+     * @param value The value. Negative values are written in ten bytes.
+     * @param buffer The buffer.
+     */
+    public static void writeVarLong(long value, ByteBuffer buffer) {
+        while((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * This method reads a long written as a varint.
+     *
+     * @param buffer The buffer.
+     * @return The value.
+     * @throws IllegalArgumentException If the varint is longer than ten bytes.
+     */
+    public static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for(int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method adds a type to the given tables of types, which must not be visible to other
+     * threads yet.
+     *
+     * @param types The types, by class.
+     * @param typeCodecs The codecs of the types, by id.
+     * @param id The id of the type.
+     * @param type The class of the type.
+     * @param codec The codec of the type.
+     * @return The codecs of the types, by id; a larger copy if the id did not fit in the array.
+     */
+    private static SensorValueTypeCodec<?>[] addType(Map<Class<?>, TypeEntry> types, SensorValueTypeCodec<?>[] typeCodecs,
+            int id, Class<? extends SensorValue> type, SensorValueTypeCodec<?> codec) {
+        if(id >= typeCodecs.length)
+            typeCodecs = Arrays.copyOf(typeCodecs, Math.max(id + 1, typeCodecs.length * 2));
+        typeCodecs[id] = codec;
+        types.put(type, new TypeEntry(id, codec));
+        return typeCodecs;
+    }
+
+    /**
+     * This method adds a unit to the given tables of units, which must not be visible to other
+     * threads yet.
+     *
+     * @param units The ids of the units.
+     * @param unitsById The units, by id.
+     * @param id The id of the unit.
+     * @param unit The unit.
+     * @return The units, by id; a larger copy if the id did not fit in the array.
+     */
+    private static Unit<?>[] addUnit(Map<Unit<?>, Integer> units, Unit<?>[] unitsById, int id, Unit<?> unit) {
+        if(id >= unitsById.length)
+            unitsById = Arrays.copyOf(unitsById, Math.max(id + 1, unitsById.length * 2));
+        unitsById[id] = unit;
+        units.put(unit, id);
+        return unitsById;
+    }
+
+    /**
+     * This method encodes a value with the codec of its type.
+     *
+     * @param <T> The type of the value.
+     * @param codec The codec.
+     * @param value The value.
+     * @param buffer The buffer.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends SensorValue> void encodeValue(SensorValueTypeCodec<T> codec, SensorValue value, ByteBuffer buffer) {
+        codec.encode((T) value, this, buffer);
+    }
+
+    /**
+     * This method maps a signed long to an unsigned one, so small negative numbers are also
+     * written in few bytes.
+     *
+     * @param value The value.
+     * @return The zigzag encoded value.
+     */
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * This method reverts the zigzag encoding.
+     *
+     * @param value The zigzag encoded value.
+     * @return The value.
+     */
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The id of BooleanSensorValue.
+     */
+    private static final int BOOLEAN_TYPE_ID = 0;
+
+    /**
+     * The id of SingleSensorValue.
+     */
+    private static final int SINGLE_TYPE_ID = 1;
+
+    /**
+     * The id of ThreeAxisSensorValue.
+     */
+    private static final int THREE_AXIS_TYPE_ID = 2;
+
+    /**
+     * The id of LocationSensorValue.
+     */
+    private static final int LOCATION_TYPE_ID = 3;
+
+    /**
+     * The header of a null quantity.
+     */
+    private static final int NULL_QUANTITY = 0;
+
+    /**
+     * The kind of a quantity whose number is a double.
+     */
+    private static final int DOUBLE_NUMBER = 0;
+
+    /**
+     * The kind of a quantity whose number is integral.
+     */
+    private static final int INTEGRAL_NUMBER = 1;
+
+    /**
+     * The predefined units. The id of each unit is its index plus one, so new units must only be
+     * appended to this array.
+     */
+    private static final Unit<?>[] PREDEFINED_UNITS = {
+        AbstractUnit.ONE, Units.AMPERE, Units.CANDELA, Units.KELVIN, Units.KILOGRAM, Units.METRE,
+        Units.MOLE, Units.SECOND, Units.GRAM, Units.RADIAN, Units.STERADIAN, Units.HERTZ,
+        Units.NEWTON, Units.PASCAL, Units.JOULE, Units.WATT, Units.COULOMB, Units.VOLT,
+        Units.FARAD, Units.OHM, Units.SIEMENS, Units.WEBER, Units.TESLA, Units.HENRY,
+        Units.CELSIUS, Units.BECQUEREL, Units.GRAY, Units.SIEVERT, Units.KATAL,
+        Units.METRE_PER_SECOND, Units.METRE_PER_SQUARE_SECOND, Units.SQUARE_METRE,
+        Units.CUBIC_METRE, Units.KILOMETRE_PER_HOUR, Units.LUMEN, Units.LUX, Units.PERCENT,
+        Units.LITRE, Units.MINUTE, Units.HOUR, Units.DAY, Units.WEEK, Units.YEAR
+    };
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The registered types, by class. The map is replaced when a type is registered.
+     */
+    private volatile Map<Class<?>, TypeEntry> types;
+
+    /**
+     * The codecs of the registered types, by id. The array is replaced when a type is registered.
+     */
+    private volatile SensorValueTypeCodec<?>[] typeCodecs;
+
+    /**
+     * The ids of the registered units. The map is replaced when a unit is registered.
+     */
+    private volatile Map<Unit<?>, Integer> units;
+
+    /**
+     * The registered units, by id. The array is replaced when a unit is registered.
+     */
+    private volatile Unit<?>[] unitsById;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A registered type.
+     */
+    private static class TypeEntry {
+
+        /**
+         * This constructor builds a new TypeEntry.
+         *
+         * @param id The id of the type.
+         * @param codec The codec of the type.
+         */
+        TypeEntry(int id, SensorValueTypeCodec<?> codec) {
+            this.id = id;
+            this.codec = codec;
+        }
+
+        /**
+         * The id of the type.
+         */
+        private final int id;
+
+        /**
+         * The codec of the type.
+         */
+        private final SensorValueTypeCodec<?> codec;
+    }
+
+    /**
+     * The codec of BooleanSensorValue, encoded as a single byte.
+     */
+    private static class BooleanCodec implements SensorValueTypeCodec<BooleanSensorValue> {
+
+        @Override
+        public void encode(BooleanSensorValue value, SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            buffer.put(value.isValue() ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        public BooleanSensorValue decode(SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            return BooleanSensorValue.getInstance(buffer.get() != 0);
+        }
+    }
+
+    /**
+     * The codec of SingleSensorValue.
+     */
+    private static class SingleCodec implements SensorValueTypeCodec<SingleSensorValue> {
+
+        @Override
+        public void encode(SingleSensorValue value, SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            registry.writeQuantity(value.getValue(), buffer);
+        }
+
+        @Override
+        public SingleSensorValue decode(SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            return new SingleSensorValue(registry.readQuantity(buffer));
+        }
+    }
+
+    /**
+     * The codec of ThreeAxisSensorValue.
+     */
+    private static class ThreeAxisCodec implements SensorValueTypeCodec<ThreeAxisSensorValue> {
+
+        @Override
+        public void encode(ThreeAxisSensorValue value, SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            registry.writeQuantity(value.getX(), buffer);
+            registry.writeQuantity(value.getY(), buffer);
+            registry.writeQuantity(value.getZ(), buffer);
+        }
+
+        @Override
+        public ThreeAxisSensorValue decode(SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            Quantity<?> x = registry.readQuantity(buffer);
+            Quantity<?> y = registry.readQuantity(buffer);
+            return new ThreeAxisSensorValue(x, y, registry.readQuantity(buffer));
+        }
+    }
+
+    /**
+     * The codec of LocationSensorValue.
+     */
+    private static class LocationCodec implements SensorValueTypeCodec<LocationSensorValue> {
+
+        @Override
+        public void encode(LocationSensorValue value, SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            registry.writeQuantity(value.getLatitude(), buffer);
+            registry.writeQuantity(value.getLongitude(), buffer);
+            registry.writeQuantity(value.getAltitude(), buffer);
+        }
+
+        @Override
+        public LocationSensorValue decode(SensorValueCodecRegistry registry, ByteBuffer buffer) {
+            Quantity<?> latitude = registry.readQuantity(buffer);
+            Quantity<?> longitude = registry.readQuantity(buffer);
+            return new LocationSensorValue(latitude, longitude, registry.readQuantity(buffer));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package br.edu.leonardo.jaf.sensors;
+
+import java.util.function.ToDoubleFunction;
+import javax.measure.Unit;
+
+/**
+ * A set of functions that extract a numeric (double) value from sensor values. These functions are
+ * used by components that process sensor values as numbers, like windowed aggregations and
+ * filters.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public final class SensorValueExtractors {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Extracts the number stored in a SingleSensorValue, in the unit of the stored quantity.
+     */
+    public static final ToDoubleFunction<SensorValue> SINGLE = new ToDoubleFunction<SensorValue>() {
+        @Override
+        public double applyAsDouble(SensorValue value) {
+            return ((SingleSensorValue) value).getValue().getValue().doubleValue();
+        }
+    };
+
+    /**
+     * Extracts a BooleanSensorValue as a number: 1 for true and 0 for false. The mean of these
+     * numbers is the rate of true values (for example, the occupancy rate of a parking space).
+     */
+    public static final ToDoubleFunction<SensorValue> BOOLEAN = new ToDoubleFunction<SensorValue>() {
+        @Override
+        public double applyAsDouble(SensorValue value) {
+            return ((BooleanSensorValue) value).isValue() ? 1 : 0;
+        }
+    };
+
+    /**
+     * Extracts the latitude stored in a LocationSensorValue, in the unit of the stored quantity.
+     */
+    public static final ToDoubleFunction<SensorValue> LATITUDE = new ToDoubleFunction<SensorValue>() {
+        @Override
+        public double applyAsDouble(SensorValue value) {
+            return ((LocationSensorValue) value).getLatitude().getValue().doubleValue();
+        }
+    };
+
+    /**
+     * Extracts the longitude stored in a LocationSensorValue, in the unit of the stored quantity.
+     */
+    public static final ToDoubleFunction<SensorValue> LONGITUDE = new ToDoubleFunction<SensorValue>() {
+        @Override
+        public double applyAsDouble(SensorValue value) {
+            return ((LocationSensorValue) value).getLongitude().getValue().doubleValue();
+        }
+    };
+
+    /**
+     * Extracts the altitude stored in a LocationSensorValue, in the unit of the stored quantity.
+     */
+    public static final ToDoubleFunction<SensorValue> ALTITUDE = new ToDoubleFunction<SensorValue>() {
+        @Override
+        public double applyAsDouble(SensorValue value) {
+            return ((LocationSensorValue) value).getAltitude().getValue().doubleValue();
+        }
+    };
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains a function that extracts the number stored in a SingleSensorValue after
+     * converting its quantity to the given unit.
+     *
+     * @param unit The unit of the extracted numbers.
+     * @return The extractor function.
+     */
+    public static ToDoubleFunction<SensorValue> single(Unit<?> unit) {
+        return new ToDoubleFunction<SensorValue>() {
+            @Override
+            public double applyAsDouble(SensorValue value) {
+                return ((SingleSensorValue) value).getValue().to(unit).getValue().doubleValue();
+            }
+        };
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This class only provides static members and cannot be instantiated.
+     */
+    private SensorValueExtractors() {
+    }
+}
@@ -0,0 +1,38 @@
+package br.edu.leonardo.jaf.sensors;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary encoding of one type of sensor value in a SensorValueCodecRegistry. It is the
+ * extension point of the registry: a user type of sensor value is encoded by registering an
+ * implementation of this interface for the type. The registry writes the id of the type before the
+ * value, so an implementation only writes the fields of the value. The quantities of the value can
+ * be written with the methods <code>writeQuantity</code> and <code>readQuantity</code> of the
+ * registry, which encode the units as small ids.
+ *
+ * @param <T> The type of the sensor values.
+ * @author Leonardo Vianna do Nascimento
+ */
+public interface SensorValueTypeCodec<T extends SensorValue> {
+
+    /**
+     * This method writes the fields of a value at the current position of the given buffer.
+     *
+     * @param value The value.
+     * @param registry The registry that is encoding the value.
+     * @param buffer The buffer.
+     * @throws java.nio.BufferOverflowException If the buffer does not have enough space for the
+     *                                          value.
+     */
+    public void encode(T value, SensorValueCodecRegistry registry, ByteBuffer buffer);
+
+    /**
+     * This method reads the fields of a value from the current position of the given buffer.
+     *
+     * @param registry The registry that is decoding the value.
+     * @param buffer The buffer.
+     * @return The value.
+     * @throws java.nio.BufferUnderflowException If the buffer ends before the end of the value.
+     */
+    public T decode(SensorValueCodecRegistry registry, ByteBuffer buffer);
+}
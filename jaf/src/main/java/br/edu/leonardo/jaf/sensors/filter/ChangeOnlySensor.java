@@ -0,0 +1,59 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.util.Objects;
+
+/**
+ * A filter sensor that notifies a reading only when its value is different from the last notified
+ * value. Values are compared with the method <code>equals</code>, so this filter is suited to
+ * values with a finite set of states, like BooleanSensorValue (for example, a parking space that
+ * reports its state in every message is notified only when the space becomes free or occupied).
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class ChangeOnlySensor extends FilterSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new ChangeOnlySensor that filters the readings of the given source
+     * sensor.
+     *
+     * @param source The source sensor.
+     */
+    public ChangeOnlySensor(Sensor source) {
+        super(source);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected boolean accept(SensorNotification notification) {
+        SensorValue value = notification.getValue();
+        if(hasLastValue && Objects.equals(value, lastValue))
+            return false;
+        lastValue = value;
+        hasLastValue = true;
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The last notified value.
+     */
+    private SensorValue lastValue;
+
+    /**
+     * True if a value has already been notified; false otherwise.
+     */
+    private boolean hasLastValue;
+}
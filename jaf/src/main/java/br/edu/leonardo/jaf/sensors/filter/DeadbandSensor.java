@@ -0,0 +1,99 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A filter sensor that notifies a numeric reading only when it differs from the last notified
+ * reading by, at least, a deadband. The deadband can be an absolute amount (in the unit of the
+ * extracted numbers) or a percentage of the last notified number. The first reading is always
+ * notified.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class DeadbandSensor extends FilterSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new DeadbandSensor that filters the readings of the given source
+     * sensor with an absolute deadband.
+     *
+     * @param source The source sensor.
+     * @param deadband The minimum absolute change of a notified number.
+     * @param extractor The function that extracts a number from each reading of the source sensor.
+     */
+    public DeadbandSensor(Sensor source, double deadband, ToDoubleFunction<SensorValue> extractor) {
+        this(source, deadband, false, extractor);
+    }
+
+    /**
+     * This constructor builds a new DeadbandSensor that filters the readings of the given source
+     * sensor with an absolute or a percentage deadband.
+     *
+     * @param source The source sensor.
+     * @param deadband The minimum change of a notified number.
+     * @param percentage True if the deadband is a percentage of the last notified number; false
+     *                   if it is an absolute amount.
+     * @param extractor The function that extracts a number from each reading of the source sensor.
+     * @throws IllegalArgumentException If the deadband is negative.
+     */
+    public DeadbandSensor(Sensor source, double deadband, boolean percentage, ToDoubleFunction<SensorValue> extractor) {
+        super(source);
+        if(deadband < 0)
+            throw new IllegalArgumentException("The deadband cannot be negative.");
+        this.deadband = deadband;
+        this.percentage = percentage;
+        this.extractor = extractor;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected boolean accept(SensorNotification notification) {
+        double value = extractor.applyAsDouble(notification.getValue());
+        if(hasLastValue) {
+            double limit = percentage ? Math.abs(lastValue) * deadband / 100 : deadband;
+            if(Math.abs(value - lastValue) < limit)
+                return false;
+        }
+        lastValue = value;
+        hasLastValue = true;
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The minimum change of a notified number.
+     */
+    private final double deadband;
+
+    /**
+     * True if the deadband is a percentage of the last notified number; false otherwise.
+     */
+    private final boolean percentage;
+
+    /**
+     * The function that extracts a number from each reading of the source sensor.
+     */
+    private final ToDoubleFunction<SensorValue> extractor;
+
+    /**
+     * The last notified number.
+     */
+    private double lastValue;
+
+    /**
+     * True if a number has already been notified; false otherwise.
+     */
+    private boolean hasLastValue;
+}
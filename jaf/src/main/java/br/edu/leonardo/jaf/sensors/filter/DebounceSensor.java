@@ -0,0 +1,111 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import br.edu.leonardo.jaf.sensors.DerivedSensor;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sensor that notifies the last reading of a burst of readings of a source sensor. A reading is
+ * notified only after a quiet period without new readings; every new reading restarts the quiet
+ * period. The end of the quiet period is checked by a single timeout in a timing wheel, which is
+ * not rescheduled at every reading.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class DebounceSensor extends DerivedSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new DebounceSensor that notifies the readings of the given source
+     * sensor after the given quiet period, using the shared timing wheel.
+     *
+     * @param source The source sensor.
+     * @param quietPeriod The period without readings before the last reading is notified.
+     */
+    public DebounceSensor(Sensor source, Duration quietPeriod) {
+        this(source, quietPeriod, TimingWheel.getDefault());
+    }
+
+    /**
+     * This constructor builds a new DebounceSensor that notifies the readings of the given source
+     * sensor after the given quiet period, using the given timing wheel.
+     *
+     * @param source The source sensor.
+     * @param quietPeriod The period without readings before the last reading is notified.
+     * @param wheel The timing wheel used to check the end of the quiet period.
+     */
+    public DebounceSensor(Sensor source, Duration quietPeriod, TimingWheel wheel) {
+        super(source);
+        this.quietPeriod = quietPeriod.toNanos();
+        this.wheel = wheel;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected synchronized void onSourceReading(SensorNotification notification) {
+        pendingReading = notification;
+        deadline = System.nanoTime() + quietPeriod;
+        if(!scheduled) {
+            scheduled = true;
+            wheel.schedule(this::checkQuietPeriod, quietPeriod, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method is executed by the timing wheel to check if the quiet period has ended. If new
+     * readings were received in the meantime, the check is scheduled again for the new deadline.
+     */
+    private synchronized void checkQuietPeriod() {
+        long remaining = deadline - System.nanoTime();
+        if(remaining > 0) {
+            wheel.schedule(this::checkQuietPeriod, remaining, TimeUnit.NANOSECONDS);
+        } else {
+            scheduled = false;
+            SensorNotification reading = pendingReading;
+            pendingReading = null;
+            newReading(reading.getValue(), reading.getDeviceTime());
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The period without readings before the last reading is notified, in nanoseconds.
+     */
+    private final long quietPeriod;
+
+    /**
+     * The timing wheel used to check the end of the quiet period.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * The last reading received and not notified yet.
+     */
+    private SensorNotification pendingReading;
+
+    /**
+     * The time when the current quiet period ends, as given by <code>System.nanoTime</code>.
+     */
+    private long deadline;
+
+    /**
+     * True if a check of the quiet period is scheduled; false otherwise.
+     */
+    private boolean scheduled;
+}
@@ -0,0 +1,49 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.sensors.DerivedSensor;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+
+/**
+ * A sensor that wraps a source sensor and notifies only the readings accepted by a filter. The
+ * rejected readings are discarded before they reach any listener, so an agent that uses the
+ * filter sensor does not process them nor create tasks to execute behaviours.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class FilterSensor extends DerivedSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new FilterSensor that filters the readings of the given source
+     * sensor.
+     *
+     * @param source The source sensor.
+     */
+    public FilterSensor(Sensor source) {
+        super(source);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected final synchronized void onSourceReading(SensorNotification notification) {
+        if(accept(notification))
+            newReading(notification.getValue(), notification.getDeviceTime());
+    }
+
+    /**
+     * This method must be implemented in concrete subclasses to decide if a reading of the source
+     * sensor must be notified. It is always executed while holding the lock of this sensor, so
+     * the readings are evaluated one at a time.
+     *
+     * @param notification The notification sent by the source sensor.
+     * @return True if the reading must be notified; false if it must be discarded.
+     */
+    protected abstract boolean accept(SensorNotification notification);
+}
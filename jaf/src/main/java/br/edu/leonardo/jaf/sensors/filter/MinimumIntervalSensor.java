@@ -0,0 +1,63 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.time.Duration;
+
+/**
+ * A filter sensor that discards the readings received before a minimum interval has elapsed since
+ * the last notified reading.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class MinimumIntervalSensor extends FilterSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new MinimumIntervalSensor that filters the readings of the given
+     * source sensor.
+     *
+     * @param source The source sensor.
+     * @param interval The minimum interval between notified readings.
+     */
+    public MinimumIntervalSensor(Sensor source, Duration interval) {
+        super(source);
+        this.interval = interval.toNanos();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected boolean accept(SensorNotification notification) {
+        long now = System.nanoTime();
+        if(hasLastReading && now - lastReading < interval)
+            return false;
+        lastReading = now;
+        hasLastReading = true;
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The minimum interval between notified readings, in nanoseconds.
+     */
+    private final long interval;
+
+    /**
+     * The time of the last notified reading, as given by <code>System.nanoTime</code>.
+     */
+    private long lastReading;
+
+    /**
+     * True if a reading has already been notified; false otherwise.
+     */
+    private boolean hasLastReading;
+}
@@ -0,0 +1,132 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.scheduling.Timeout;
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import br.edu.leonardo.jaf.sensors.DerivedSensor;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sensor that samples a source sensor at a fixed rate. At each sampling period, the last
+ * reading received from the source sensor is notified, if it was not notified before. The
+ * sampling starts when the sensor is initialized and is driven by a timing wheel.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SamplingSensor extends DerivedSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SamplingSensor that samples the given source sensor at the
+     * given period, using the shared timing wheel.
+     *
+     * @param source The source sensor.
+     * @param period The sampling period.
+     */
+    public SamplingSensor(Sensor source, Duration period) {
+        this(source, period, TimingWheel.getDefault());
+    }
+
+    /**
+     * This constructor builds a new SamplingSensor that samples the given source sensor at the
+     * given period, using the given timing wheel.
+     *
+     * @param source The source sensor.
+     * @param period The sampling period.
+     * @param wheel The timing wheel used to schedule the samples.
+     * @throws IllegalArgumentException If the period is not positive.
+     */
+    public SamplingSensor(Sensor source, Duration period, TimingWheel wheel) {
+        super(source);
+        if(period.isNegative() || period.isZero())
+            throw new IllegalArgumentException("The sampling period must be positive.");
+        this.period = period.toNanos();
+        this.wheel = wheel;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method initializes the source sensor and starts the sampling.
+     *
+     * @throws SensorException If an error occurred during the source sensor initialization.
+     */
+    @Override
+    public void init() throws SensorException {
+        super.init();
+        synchronized(this) {
+            if(timeout == null && !stopped)
+                timeout = wheel.scheduleAtFixedRate(this::sample, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * This method stops the sampling.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if(timeout != null)
+            timeout.cancel();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected synchronized void onSourceReading(SensorNotification notification) {
+        lastReading = notification;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method is executed by the timing wheel at each sampling period.
+     */
+    private synchronized void sample() {
+        if(!stopped && lastReading != null) {
+            SensorNotification reading = lastReading;
+            lastReading = null;
+            newReading(reading.getValue(), reading.getDeviceTime());
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The sampling period, in nanoseconds.
+     */
+    private final long period;
+
+    /**
+     * The timing wheel used to schedule the samples.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * The last reading received and not notified yet; null if there is none.
+     */
+    private SensorNotification lastReading;
+
+    /**
+     * The timeout of the periodic samples; null if the sampling has not been started.
+     */
+    private Timeout timeout;
+
+    /**
+     * True if the sampling was stopped; false otherwise.
+     */
+    private boolean stopped;
+}
@@ -0,0 +1,148 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import br.edu.leonardo.jaf.sensors.DerivedSensor;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sensor that notifies, at most, one reading of a source sensor in each interval. The first
+ * reading starts an interval and is notified immediately; the other readings received during the
+ * interval are discarded. Optionally, the last reading discarded in an interval can be notified
+ * when the interval ends (a trailing notification, which starts a new interval), so the latest
+ * value is never lost. Trailing notifications are scheduled in a timing wheel.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class ThrottleSensor extends DerivedSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new ThrottleSensor that notifies only the first reading of the
+     * given source sensor in each interval.
+     *
+     * @param source The source sensor.
+     * @param interval The duration of each interval.
+     */
+    public ThrottleSensor(Sensor source, Duration interval) {
+        this(source, interval, false);
+    }
+
+    /**
+     * This constructor builds a new ThrottleSensor that notifies the first reading of the given
+     * source sensor in each interval and, optionally, the last one. Trailing notifications are
+     * scheduled in the shared timing wheel.
+     *
+     * @param source The source sensor.
+     * @param interval The duration of each interval.
+     * @param trailing True if the last reading of an interval must be notified when the interval
+     *                 ends; false otherwise.
+     */
+    public ThrottleSensor(Sensor source, Duration interval, boolean trailing) {
+        this(source, interval, trailing, TimingWheel.getDefault());
+    }
+
+    /**
+     * This constructor builds a new ThrottleSensor that notifies the first reading of the given
+     * source sensor in each interval and, optionally, the last one. Trailing notifications are
+     * scheduled in the given timing wheel.
+     *
+     * @param source The source sensor.
+     * @param interval The duration of each interval.
+     * @param trailing True if the last reading of an interval must be notified when the interval
+     *                 ends; false otherwise.
+     * @param wheel The timing wheel used to schedule trailing notifications.
+     */
+    public ThrottleSensor(Sensor source, Duration interval, boolean trailing, TimingWheel wheel) {
+        super(source);
+        this.interval = interval.toNanos();
+        this.trailing = trailing;
+        this.wheel = wheel;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected synchronized void onSourceReading(SensorNotification notification) {
+        if(!inInterval)
+            startInterval(notification);
+        else if(trailing)
+            pendingReading = notification;
+        else if(System.nanoTime() - intervalStart >= interval)
+            startInterval(notification);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method notifies the value of a reading of the source sensor, with its device time, and
+     * starts a new interval.
+     *
+     * @param reading The notification of the source sensor.
+     */
+    private void startInterval(SensorNotification reading) {
+        intervalStart = System.nanoTime();
+        inInterval = true;
+        newReading(reading.getValue(), reading.getDeviceTime());
+        if(trailing)
+            wheel.schedule(this::endInterval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method is executed by the timing wheel when an interval with trailing notification
+     * ends.
+     */
+    private synchronized void endInterval() {
+        if(pendingReading != null) {
+            SensorNotification reading = pendingReading;
+            pendingReading = null;
+            startInterval(reading);
+        } else {
+            inInterval = false;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The duration of each interval, in nanoseconds.
+     */
+    private final long interval;
+
+    /**
+     * True if the last reading of an interval is notified when the interval ends.
+     */
+    private final boolean trailing;
+
+    /**
+     * The timing wheel used to schedule trailing notifications.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * The time when the current interval started, as given by <code>System.nanoTime</code>.
+     */
+    private long intervalStart;
+
+    /**
+     * True if an interval has been started; false otherwise. Without trailing notifications, the
+     * interval ends when its duration elapses.
+     */
+    private boolean inInterval;
+
+    /**
+     * The last reading discarded in the current interval; null if there is none.
+     */
+    private SensorNotification pendingReading;
+}
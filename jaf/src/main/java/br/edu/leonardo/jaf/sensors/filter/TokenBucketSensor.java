@@ -0,0 +1,80 @@
+package br.edu.leonardo.jaf.sensors.filter;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+
+/**
+ * A filter sensor that limits the rate of notified readings with a token bucket. The bucket is
+ * refilled continuously at the given rate, up to its capacity, and each notified reading consumes
+ * one token. Readings that arrive when the bucket is empty are discarded, so a burst of, at most,
+ * the bucket capacity is notified and then the rate is limited.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class TokenBucketSensor extends FilterSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TokenBucketSensor that limits the readings of the given source
+     * sensor to the given rate, allowing bursts of the given size.
+     *
+     * @param source The source sensor.
+     * @param readingsPerSecond The maximum sustained rate of notified readings.
+     * @param burst The capacity of the bucket (the maximum number of readings notified in a burst).
+     * @throws IllegalArgumentException If the rate is not positive or if the capacity is less than
+     *                                  one.
+     */
+    public TokenBucketSensor(Sensor source, double readingsPerSecond, int burst) {
+        super(source);
+        if(!(readingsPerSecond > 0))
+            throw new IllegalArgumentException("The rate of readings must be positive.");
+        if(burst < 1)
+            throw new IllegalArgumentException("The capacity of the bucket must be at least one.");
+        this.tokensPerNano = readingsPerSecond / 1e9;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected boolean accept(SensorNotification notification) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if(tokens < 1)
+            return false;
+        tokens--;
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of tokens added to the bucket in each nanosecond.
+     */
+    private final double tokensPerNano;
+
+    /**
+     * The capacity of the bucket.
+     */
+    private final double capacity;
+
+    /**
+     * The number of tokens in the bucket.
+     */
+    private double tokens;
+
+    /**
+     * The time of the last refill, as given by <code>System.nanoTime</code>.
+     */
+    private long lastRefill;
+}
@@ -0,0 +1,63 @@
+package br.edu.leonardo.jaf.sensors.join;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+
+/**
+ * A join sensor that notifies when all sources have reported since the last notification. The
+ * notified value contains the latest notification of each source. After a notification, the
+ * join waits for a new reading of every source. The memory used by this join is one notification
+ * per source.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class AllReportedJoinSensor extends JoinSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new AllReportedJoinSensor that correlates the readings of the
+     * given source sensors.
+     *
+     * @param sources The source sensors.
+     */
+    public AllReportedJoinSensor(Sensor... sources) {
+        super(sources);
+        this.latest = new SensorNotification[sources.length];
+        this.missing = sources.length;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onSlotReading(int slot, SensorNotification notification) {
+        if(latest[slot] == null)
+            missing--;
+        latest[slot] = notification;
+        if(missing == 0) {
+            SensorNotification[] joined = latest;
+            latest = new SensorNotification[joined.length];
+            missing = joined.length;
+            newReading(new JoinSensorValue(joined));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The latest notification of each source since the last notification of the join; null for
+     * the sources that have not reported yet.
+     */
+    private SensorNotification[] latest;
+
+    /**
+     * The number of sources that have not reported since the last notification of the join.
+     */
+    private int missing;
+}
@@ -0,0 +1,79 @@
+package br.edu.leonardo.jaf.sensors.join;
+
+import br.edu.leonardo.jaf.sensors.DerivedSensor;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A sensor that correlates the readings of several source sensors and notifies a JoinSensorValue
+ * when a correlation is found. An agent can add a behaviour related to a join sensor to execute
+ * it when the readings of different sensors are correlated, instead of a behaviour related to a
+ * single sensor. The concrete subclasses define the correlation condition.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class JoinSensor extends DerivedSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new JoinSensor that correlates the readings of the given source
+     * sensors.
+     *
+     * @param sources The source sensors. The index of each source in this array is its slot in
+     *                the join.
+     * @throws IllegalArgumentException If less than two sources are informed or if a source is
+     *                                  informed more than once.
+     */
+    public JoinSensor(Sensor... sources) {
+        super(sources);
+        if(sources.length < 2)
+            throw new IllegalArgumentException("A join must have at least two source sensors.");
+        for(int i = 0; i < sources.length; i++) {
+            if(slotIndexes.put(sources[i], i) != null)
+                throw new IllegalArgumentException("A source sensor cannot be informed more than once.");
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected final synchronized void onSourceReading(SensorNotification notification) {
+        Integer slot = slotIndexes.get(notification.getSensor());
+        if(slot != null)
+            onSlotReading(slot, notification);
+    }
+
+    /**
+     * This method must be implemented in concrete subclasses to process a reading of a source. It
+     * is always executed while holding the lock of this sensor.
+     *
+     * @param slot The slot of the source.
+     * @param notification The notification sent by the source.
+     */
+    protected abstract void onSlotReading(int slot, SensorNotification notification);
+
+    /**
+     * This method obtains the number of sources of the join.
+     *
+     * @return The number of sources.
+     */
+    protected final int getNumOfSlots() {
+        return slotIndexes.size();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The slot index of each source sensor.
+     */
+    private final Map<Sensor, Integer> slotIndexes = new IdentityHashMap<>();
+}
@@ -0,0 +1,77 @@
+package br.edu.leonardo.jaf.sensors.join;
+
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A value generated by a join sensor. It contains the correlated notifications of the sources of
+ * the join, one for each source.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class JoinSensorValue implements SensorValue {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new JoinSensorValue with the given notifications.
+     *
+     * @param notifications The correlated notifications, in the order of the sources of the join.
+     */
+    public JoinSensorValue(SensorNotification[] notifications) {
+        this.notifications = notifications;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the notification of a source of the join.
+     *
+     * @param index The index of the source, in the order the sources were informed to the join
+     *              sensor (the first source is in the index zero).
+     * @return The notification.
+     */
+    public SensorNotification getNotification(int index) {
+        return notifications[index];
+    }
+
+    /**
+     * This method obtains the notifications of all sources of the join.
+     *
+     * @return An unmodifiable list with the notifications, in the order of the sources.
+     */
+    public List<SensorNotification> getNotifications() {
+        return Collections.unmodifiableList(Arrays.asList(notifications));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TOSTRING, EQUALS, HASHCODE
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("JoinSensorValue{values=[");
+        for(int i = 0; i < notifications.length; i++) {
+            if(i > 0)
+                sb.append(", ");
+            sb.append(notifications[i].getValue());
+        }
+        return sb.append("]}").toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The correlated notifications, in the order of the sources of the join.
+     */
+    private final SensorNotification[] notifications;
+}
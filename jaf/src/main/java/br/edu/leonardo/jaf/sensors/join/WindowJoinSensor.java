@@ -0,0 +1,235 @@
+package br.edu.leonardo.jaf.sensors.join;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import java.time.Duration;
+
+/**
+ * A join sensor that notifies when all sources report within a time window. Each source has a
+ * buffer of readings that have not been correlated yet. When a reading arrives and every other
+ * source has a buffered reading received within the window, the join notifies the new reading
+ * together with the oldest buffered reading of each other source, which are consumed (each reading
+ * takes part in, at most, one correlation). Otherwise, the reading is buffered.
+ * <p>
+ * Buffered readings older than the window are evicted, and each buffer holds, at most, a maximum
+ * number of readings (the oldest ones are discarded when it is full), so the memory used by the
+ * join is bounded even at high reading rates.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class WindowJoinSensor extends JoinSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new WindowJoinSensor that correlates the readings of the given
+     * source sensors received within the given window. Each buffer holds, at most, 1024 readings.
+     *
+     * @param window The maximum interval between correlated readings.
+     * @param sources The source sensors.
+     */
+    public WindowJoinSensor(Duration window, Sensor... sources) {
+        this(window, DEFAULT_MAX_BUFFERED, sources);
+    }
+
+    /**
+     * This constructor builds a new WindowJoinSensor that correlates the readings of the given
+     * source sensors received within the given window.
+     *
+     * @param window The maximum interval between correlated readings.
+     * @param maxBuffered The maximum number of readings buffered for each source.
+     * @param sources The source sensors.
+     * @throws IllegalArgumentException If the maximum number of buffered readings is not positive.
+     */
+    public WindowJoinSensor(Duration window, int maxBuffered, Sensor... sources) {
+        super(sources);
+        if(maxBuffered < 1)
+            throw new IllegalArgumentException("The maximum number of buffered readings must be positive.");
+        this.window = window.toNanos();
+        this.buffers = new Buffer[sources.length];
+        for(int i = 0; i < buffers.length; i++) {
+            buffers[i] = new Buffer(maxBuffered);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onSlotReading(int slot, SensorNotification notification) {
+        long now = System.nanoTime();
+        long limit = now - window;
+        boolean complete = true;
+        for(int i = 0; i < buffers.length; i++) {
+            buffers[i].evictOlderThan(limit);
+            if(i != slot && buffers[i].isEmpty())
+                complete = false;
+        }
+
+        if(complete) {
+            SensorNotification[] joined = new SensorNotification[buffers.length];
+            for(int i = 0; i < buffers.length; i++) {
+                joined[i] = i == slot ? notification : buffers[i].poll();
+            }
+            newReading(new JoinSensorValue(joined));
+        } else {
+            buffers[slot].add(now, notification);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The default maximum number of readings buffered for each source.
+     */
+    private static final int DEFAULT_MAX_BUFFERED = 1024;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum interval between correlated readings, in nanoseconds.
+     */
+    private final long window;
+
+    /**
+     * The buffers of readings not correlated yet, indexed by slot.
+     */
+    private final Buffer[] buffers;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A bounded FIFO buffer of readings and their arrival times, stored in circular arrays that
+     * grow on demand up to the maximum size.
+     */
+    private static class Buffer {
+
+        //////////////////////////////////////////////////////////////////////////////////////////
+        // P U B L I C   C O N S T R U C T O R S
+        //////////////////////////////////////////////////////////////////////////////////////////
+
+        /**
+         * This constructor builds a new empty Buffer with the given maximum size.
+         *
+         * @param maxSize The maximum number of readings in the buffer.
+         */
+        public Buffer(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        //////////////////////////////////////////////////////////////////////////////////////////
+        // P U B L I C   M E T H O D S
+        //////////////////////////////////////////////////////////////////////////////////////////
+
+        /**
+         * This method adds a reading to the end of the buffer. If the buffer is full, its oldest
+         * reading is discarded.
+         *
+         * @param time The arrival time of the reading.
+         * @param notification The reading.
+         */
+        public void add(long time, SensorNotification notification) {
+            if(size == maxSize)
+                poll();
+            if(size == times.length)
+                grow();
+            int tail = (head + size) % times.length;
+            times[tail] = time;
+            notifications[tail] = notification;
+            size++;
+        }
+
+        /**
+         * This method removes the oldest reading of the buffer.
+         *
+         * @return The removed reading.
+         */
+        public SensorNotification poll() {
+            SensorNotification n = notifications[head];
+            notifications[head] = null;
+            head = (head + 1) % times.length;
+            size--;
+            return n;
+        }
+
+        /**
+         * This method removes the readings that arrived before the given time.
+         *
+         * @param limit The time limit.
+         */
+        public void evictOlderThan(long limit) {
+            while(size > 0 && times[head] - limit < 0) {
+                poll();
+            }
+        }
+
+        /**
+         * This method checks if the buffer is empty.
+         *
+         * @return True if the buffer is empty; false otherwise.
+         */
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        //////////////////////////////////////////////////////////////////////////////////////////
+        // P R I V A T E   M E T H O D S
+        //////////////////////////////////////////////////////////////////////////////////////////
+
+        /**
+         * This method increases the capacity of the circular arrays, keeping the readings in
+         * order.
+         */
+        private void grow() {
+            int capacity = Math.min(maxSize, times.length * 2);
+            long[] newTimes = new long[capacity];
+            SensorNotification[] newNotifications = new SensorNotification[capacity];
+            for(int i = 0; i < size; i++) {
+                int j = (head + i) % times.length;
+                newTimes[i] = times[j];
+                newNotifications[i] = notifications[j];
+            }
+            times = newTimes;
+            notifications = newNotifications;
+            head = 0;
+        }
+
+        //////////////////////////////////////////////////////////////////////////////////////////
+        // P R I V A T E   A T T R I B U T E S
+        //////////////////////////////////////////////////////////////////////////////////////////
+
+        /**
+         * The maximum number of readings in the buffer.
+         */
+        private final int maxSize;
+
+        /**
+         * The arrival times of the readings, as given by <code>System.nanoTime</code>.
+         */
+        private long[] times = new long[4];
+
+        /**
+         * The readings.
+         */
+        private SensorNotification[] notifications = new SensorNotification[4];
+
+        /**
+         * The index of the oldest reading.
+         */
+        private int head;
+
+        /**
+         * The number of readings in the buffer.
+         */
+        private int size;
+    }
+}
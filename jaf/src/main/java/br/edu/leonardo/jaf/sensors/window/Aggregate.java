@@ -0,0 +1,43 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+/**
+ * An incremental aggregation computed over the numbers in a window of sensor readings. An
+ * aggregate is updated in constant time when a number enters or leaves the window, so the window
+ * never needs to be scanned again to obtain the result.
+ * <p>
+ * Numbers always leave a window in the same order they entered it (the oldest number first).
+ * An aggregate instance holds the state of a single window, so it must not be shared by different
+ * window sensors.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public interface Aggregate {
+
+    /**
+     * This method adds a number that entered the window.
+     *
+     * @param value The number.
+     */
+    public void add(double value);
+
+    /**
+     * This method removes a number that left the window. The removed number is always the oldest
+     * number still in the window.
+     *
+     * @param value The number.
+     */
+    public void remove(double value);
+
+    /**
+     * This method removes all numbers from the aggregate, returning it to its initial state.
+     */
+    public void reset();
+
+    /**
+     * This method obtains the current result of the aggregate.
+     *
+     * @return The result; NaN if the result is undefined for the current numbers (for example, the
+     *         mean of an empty window).
+     */
+    public double getResult();
+}
@@ -0,0 +1,42 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+/**
+ * An aggregate that counts the numbers in a window.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class CountAggregate implements Aggregate {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void add(double value) {
+        count++;
+    }
+
+    @Override
+    public void remove(double value) {
+        count--;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+    }
+
+    @Override
+    public double getResult() {
+        return count;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of values in the window.
+     */
+    private long count;
+}
@@ -0,0 +1,97 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+/**
+ * An aggregate that computes an extreme (minimum or maximum) of the numbers in a window using a
+ * monotonic deque. The deque keeps only the numbers that can still become the extreme when older
+ * numbers leave the window, so its head is always the result. Each number is added and removed
+ * from the deque at most once, which gives amortized constant time per update.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+abstract class ExtremeAggregate implements Aggregate {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void add(double value) {
+        // Numbers that are worse than the new one can never be the extreme again.
+        while(size > 0 && isBetter(value, deque[(head + size - 1) & (deque.length - 1)])) {
+            size--;
+        }
+        if(size == deque.length)
+            grow();
+        deque[(head + size) & (deque.length - 1)] = value;
+        size++;
+    }
+
+    @Override
+    public void remove(double value) {
+        // Only the oldest number leaves the window, so it is either the head or it was already
+        // discarded by a better number.
+        if(size > 0 && Double.compare(deque[head], value) == 0) {
+            head = (head + 1) & (deque.length - 1);
+            size--;
+        }
+    }
+
+    @Override
+    public void reset() {
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public double getResult() {
+        return size == 0 ? Double.NaN : deque[head];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method must be implemented in concrete subclasses to compare two numbers.
+     *
+     * @param a The first number.
+     * @param b The second number.
+     * @return True if a is strictly better than b as the extreme; false otherwise.
+     */
+    protected abstract boolean isBetter(double a, double b);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method doubles the capacity of the deque, keeping its elements in order.
+     */
+    private void grow() {
+        double[] newDeque = new double[deque.length * 2];
+        for(int i = 0; i < size; i++) {
+            newDeque[i] = deque[(head + i) & (deque.length - 1)];
+        }
+        deque = newDeque;
+        head = 0;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The circular array used to store the deque. Its length is always a power of two.
+     */
+    private double[] deque = new double[16];
+
+    /**
+     * The index of the head of the deque.
+     */
+    private int head;
+
+    /**
+     * The number of elements in the deque.
+     */
+    private int size;
+}
@@ -0,0 +1,54 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+/**
+ * An aggregate that computes the arithmetic mean of the numbers in a window.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class MeanAggregate implements Aggregate {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void add(double value) {
+        count++;
+        mean += (value - mean) / count;
+    }
+
+    @Override
+    public void remove(double value) {
+        count--;
+        if(count == 0)
+            mean = 0;
+        else
+            mean -= (value - mean) / count;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        mean = 0;
+    }
+
+    @Override
+    public double getResult() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of values in the window.
+     */
+    private long count;
+
+    /**
+     * The running mean of the values in the window. It is updated incrementally to avoid the loss
+     * of precision of a large running sum.
+     */
+    private double mean;
+}
@@ -0,0 +1,18 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+/**
+ * An aggregate that computes the minimum of the numbers in a window.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class MinAggregate extends ExtremeAggregate {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected boolean isBetter(double a, double b) {
+        return a < b;
+    }
+}
@@ -0,0 +1,127 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+import java.util.Arrays;
+
+/**
+ * An aggregate that computes an approximate percentile of the numbers in a window. The numbers are
+ * counted in a histogram of equal-width buckets over a fixed range, so adding and removing a
+ * number takes constant time and the memory used does not depend on the window size. The result
+ * is the midpoint of the bucket that contains the percentile, so its error is at most half of the
+ * bucket width. Numbers outside the range are counted in the first or the last bucket.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class PercentileAggregate implements Aggregate {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new PercentileAggregate that computes the given percentile of the
+     * numbers between lowest and highest, using the given number of buckets.
+     *
+     * @param percentile The desired percentile, between 0 and 100 (50 is the median).
+     * @param lowest The lowest expected number.
+     * @param highest The highest expected number.
+     * @param buckets The number of buckets in the histogram (the precision of the result).
+     * @throws IllegalArgumentException If the percentile is out of the interval [0, 100], if the
+     *                                  range is empty, or if the number of buckets is not positive.
+     */
+    public PercentileAggregate(double percentile, double lowest, double highest, int buckets) {
+        if(percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        if(!(highest > lowest))
+            throw new IllegalArgumentException("The highest number must be greater than the lowest number.");
+        if(buckets < 1)
+            throw new IllegalArgumentException("The number of buckets must be positive.");
+        this.fraction = percentile / 100;
+        this.lowest = lowest;
+        this.bucketWidth = (highest - lowest) / buckets;
+        this.counts = new long[buckets];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void add(double value) {
+        counts[bucketOf(value)]++;
+        count++;
+    }
+
+    @Override
+    public void remove(double value) {
+        counts[bucketOf(value)]--;
+        count--;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+    }
+
+    @Override
+    public double getResult() {
+        if(count == 0)
+            return Double.NaN;
+
+        // Search the bucket that contains the number with the percentile rank.
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        int i = 0;
+        while(i < counts.length - 1) {
+            seen += counts[i];
+            if(seen >= rank)
+                break;
+            i++;
+        }
+        return lowest + (i + 0.5) * bucketWidth;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the index of the bucket where the given number is counted.
+     *
+     * @param value The number.
+     * @return The bucket index.
+     */
+    private int bucketOf(double value) {
+        int i = (int) ((value - lowest) / bucketWidth);
+        return i < 0 ? 0 : (i >= counts.length ? counts.length - 1 : i);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The desired percentile as a fraction between 0 and 1.
+     */
+    private final double fraction;
+
+    /**
+     * The lowest number of the histogram range.
+     */
+    private final double lowest;
+
+    /**
+     * The width of each bucket.
+     */
+    private final double bucketWidth;
+
+    /**
+     * The number of values counted in each bucket.
+     */
+    private final long[] counts;
+
+    /**
+     * The number of values in the window.
+     */
+    private long count;
+}
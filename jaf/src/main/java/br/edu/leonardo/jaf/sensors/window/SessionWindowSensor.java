@@ -0,0 +1,80 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A window sensor that groups readings in sessions: bursts of activity separated by periods
+ * without readings. A session ends when no reading is received during the given gap, and it is
+ * notified when the next reading arrives (or when the method <code>flush</code> is invoked).
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SessionWindowSensor extends WindowSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SessionWindowSensor that aggregates the readings of the given
+     * source sensor in sessions separated by the given gap.
+     *
+     * @param source The source sensor.
+     * @param gap The maximum period without readings inside a session.
+     * @param extractor The function that extracts a number from each reading of the source sensor.
+     * @param aggregates The aggregates computed in each session.
+     * @throws IllegalArgumentException If the gap is shorter than one millisecond.
+     */
+    public SessionWindowSensor(Sensor source, Duration gap, ToDoubleFunction<SensorValue> extractor, Aggregate... aggregates) {
+        super(source, extractor, aggregates);
+        if(gap.toMillis() < 1)
+            throw new IllegalArgumentException("The session gap must be at least one millisecond.");
+        this.gap = gap.toMillis();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onValue(long time, double value) {
+        if(getWindowCount() > 0 && time - lastReading > gap) {
+            emitWindow(sessionStart, lastReading);
+            clearWindow();
+        }
+        if(getWindowCount() == 0)
+            sessionStart = time;
+        addToWindow(value);
+        lastReading = time;
+    }
+
+    @Override
+    protected void onFlush(long time) {
+        if(getWindowCount() > 0) {
+            emitWindow(sessionStart, lastReading);
+            clearWindow();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The maximum period without readings inside a session, in milliseconds.
+     */
+    private final long gap;
+
+    /**
+     * The time of the first reading of the current session, in milliseconds since the epoch.
+     */
+    private long sessionStart;
+
+    /**
+     * The time of the last reading of the current session, in milliseconds since the epoch.
+     */
+    private long lastReading;
+}
@@ -0,0 +1,163 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A window sensor that aggregates the readings received during the last period of fixed duration.
+ * When a reading arrives, the readings older than the window duration leave the window and the
+ * aggregates are updated incrementally. The window can be notified after every reading or, at
+ * most, once for each slide interval.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SlidingWindowSensor extends WindowSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new SlidingWindowSensor that aggregates the readings of the given
+     * source sensor received during the last period with the given duration. The window is
+     * notified after every reading.
+     *
+     * @param source The source sensor.
+     * @param size The duration of the window.
+     * @param extractor The function that extracts a number from each reading of the source sensor.
+     * @param aggregates The aggregates computed in the window.
+     * @throws IllegalArgumentException If the window duration is shorter than one millisecond.
+     */
+    public SlidingWindowSensor(Sensor source, Duration size, ToDoubleFunction<SensorValue> extractor, Aggregate... aggregates) {
+        this(source, size, Duration.ZERO, extractor, aggregates);
+    }
+
+    /**
+     * This constructor builds a new SlidingWindowSensor that aggregates the readings of the given
+     * source sensor received during the last period with the given duration. The window is
+     * notified, at most, once for each slide interval.
+     *
+     * @param source The source sensor.
+     * @param size The duration of the window.
+     * @param slide The minimum interval between notifications; zero to notify after every reading.
+     * @param extractor The function that extracts a number from each reading of the source sensor.
+     * @param aggregates The aggregates computed in the window.
+     * @throws IllegalArgumentException If the window duration is shorter than one millisecond or
+     *                                  the slide interval is negative.
+     */
+    public SlidingWindowSensor(Sensor source, Duration size, Duration slide, ToDoubleFunction<SensorValue> extractor, Aggregate... aggregates) {
+        super(source, extractor, aggregates);
+        if(size.toMillis() < 1)
+            throw new IllegalArgumentException("The window duration must be at least one millisecond.");
+        if(slide.isNegative())
+            throw new IllegalArgumentException("The slide interval must not be negative.");
+        this.size = size.toMillis();
+        this.slide = slide.toMillis();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onValue(long time, double value) {
+        if(count == times.length)
+            grow();
+        int tail = (head + count) & (times.length - 1);
+        times[tail] = time;
+        values[tail] = value;
+        count++;
+        addToWindow(value);
+
+        evict(time);
+        if(slide == 0 || time >= lastEmission + slide) {
+            emitWindow(time - size, time);
+            lastEmission = time;
+        }
+    }
+
+    @Override
+    protected void onFlush(long time) {
+        evict(time);
+        if(getWindowCount() > 0) {
+            emitWindow(time - size, time);
+            lastEmission = time;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method removes from the window the readings that are older than the window duration.
+     *
+     * @param time The current time, in milliseconds since the epoch.
+     */
+    private void evict(long time) {
+        long limit = time - size;
+        while(count > 0 && times[head] <= limit) {
+            removeFromWindow(values[head]);
+            head = (head + 1) & (times.length - 1);
+            count--;
+        }
+    }
+
+    /**
+     * This method doubles the capacity of the internal buffers, keeping the readings in order.
+     */
+    private void grow() {
+        long[] newTimes = new long[times.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for(int i = 0; i < count; i++) {
+            int j = (head + i) & (times.length - 1);
+            newTimes[i] = times[j];
+            newValues[i] = values[j];
+        }
+        times = newTimes;
+        values = newValues;
+        head = 0;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The duration of the window, in milliseconds.
+     */
+    private final long size;
+
+    /**
+     * The minimum interval between notifications, in milliseconds.
+     */
+    private final long slide;
+
+    /**
+     * The time of the last notification, in milliseconds since the epoch.
+     */
+    private long lastEmission = Long.MIN_VALUE / 2;
+
+    /**
+     * The circular buffer with the times of the readings in the window. Its length is always a
+     * power of two.
+     */
+    private long[] times = new long[16];
+
+    /**
+     * The circular buffer with the numbers of the readings in the window, parallel to times.
+     */
+    private double[] values = new double[16];
+
+    /**
+     * The index of the oldest reading in the circular buffers.
+     */
+    private int head;
+
+    /**
+     * The number of readings in the circular buffers.
+     */
+    private int count;
+}
@@ -0,0 +1,42 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+/**
+ * An aggregate that sums the numbers in a window.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class SumAggregate implements Aggregate {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void add(double value) {
+        sum += value;
+    }
+
+    @Override
+    public void remove(double value) {
+        sum -= value;
+    }
+
+    @Override
+    public void reset() {
+        sum = 0;
+    }
+
+    @Override
+    public double getResult() {
+        return sum;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The sum of the values in the window.
+     */
+    private double sum;
+}
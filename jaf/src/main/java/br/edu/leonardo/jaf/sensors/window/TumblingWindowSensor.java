@@ -0,0 +1,90 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A window sensor that groups readings in consecutive, non-overlapping windows of fixed duration.
+ * The first window starts at the first reading, and each window starts when the previous one ends.
+ * Windows without readings are not notified.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class TumblingWindowSensor extends WindowSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TumblingWindowSensor that aggregates the readings of the given
+     * source sensor in windows with the given duration.
+     *
+     * @param source The source sensor.
+     * @param size The duration of each window.
+     * @param extractor The function that extracts a number from each reading of the source sensor.
+     * @param aggregates The aggregates computed in each window.
+     * @throws IllegalArgumentException If the window duration is shorter than one millisecond.
+     */
+    public TumblingWindowSensor(Sensor source, Duration size, ToDoubleFunction<SensorValue> extractor, Aggregate... aggregates) {
+        super(source, extractor, aggregates);
+        if(size.toMillis() < 1)
+            throw new IllegalArgumentException("The window duration must be at least one millisecond.");
+        this.size = size.toMillis();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onValue(long time, double value) {
+        if(!started) {
+            windowStart = time;
+            started = true;
+        } else if(time >= windowStart + size) {
+            if(getWindowCount() > 0) {
+                emitWindow(windowStart, windowStart + size);
+                clearWindow();
+            }
+            // Skip the empty windows between the last reading and this one.
+            windowStart += ((time - windowStart) / size) * size;
+        }
+        addToWindow(value);
+    }
+
+    /**
+     * This method closes the current window early: its readings are notified and the next readings
+     * start a new group in the same window interval.
+     *
+     * @param time The current time, in milliseconds since the epoch.
+     */
+    @Override
+    protected void onFlush(long time) {
+        if(getWindowCount() > 0) {
+            emitWindow(windowStart, Math.min(time, windowStart + size));
+            clearWindow();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The duration of each window, in milliseconds.
+     */
+    private final long size;
+
+    /**
+     * The time when the current window starts, in milliseconds since the epoch.
+     */
+    private long windowStart;
+
+    /**
+     * True if the first reading has already been received; false otherwise.
+     */
+    private boolean started;
+}
@@ -0,0 +1,94 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+/**
+ * An aggregate that computes the variance of the numbers in a window. The variance is updated
+ * with Welford's algorithm (and its inverse when a number leaves the window), which is
+ * numerically stable.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class VarianceAggregate implements Aggregate {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new VarianceAggregate that computes the population variance.
+     */
+    public VarianceAggregate() {
+        this(false);
+    }
+
+    /**
+     * This constructor builds a new VarianceAggregate that computes the sample variance (divided
+     * by n - 1) or the population variance (divided by n).
+     *
+     * @param sample True if the sample variance must be computed; false for the population
+     *               variance.
+     */
+    public VarianceAggregate(boolean sample) {
+        this.sample = sample;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squares += delta * (value - mean);
+    }
+
+    @Override
+    public void remove(double value) {
+        count--;
+        if(count == 0) {
+            reset();
+        } else {
+            double delta = value - mean;
+            mean -= delta / count;
+            squares = Math.max(0, squares - delta * (value - mean));
+        }
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        mean = 0;
+        squares = 0;
+    }
+
+    @Override
+    public double getResult() {
+        long divisor = sample ? count - 1 : count;
+        return divisor <= 0 ? Double.NaN : squares / divisor;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * True if the sample variance is computed; false for the population variance.
+     */
+    private final boolean sample;
+
+    /**
+     * The number of values in the window.
+     */
+    private long count;
+
+    /**
+     * The running mean of the values in the window.
+     */
+    private double mean;
+
+    /**
+     * The sum of squared differences from the mean of the values in the window.
+     */
+    private double squares;
+}
@@ -0,0 +1,172 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+import br.edu.leonardo.jaf.sensors.DerivedSensor;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorNotification;
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.time.Instant;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A sensor that aggregates the numbers extracted from the readings of a source sensor in windows
+ * and notifies the aggregate results as WindowSensorValue objects. The concrete subclasses define
+ * how readings are grouped in windows. Since a window sensor is a sensor, it can be the source of
+ * another window sensor (see the method <code>resultOf</code>).
+ * <p>
+ * Windows are evaluated when readings arrive: a window that has ended is notified when the first
+ * reading after its end is received, or when the method <code>flush</code> is invoked.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public abstract class WindowSensor extends DerivedSensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new WindowSensor that aggregates the readings of the given source
+     * sensor.
+     *
+     * @param source The source sensor.
+     * @param extractor The function that extracts a number from each reading of the source sensor.
+     * @param aggregates The aggregates computed in each window. The results are notified in the
+     *                   same order.
+     */
+    public WindowSensor(Sensor source, ToDoubleFunction<SensorValue> extractor, Aggregate... aggregates) {
+        super(source);
+        this.extractor = extractor;
+        this.aggregates = aggregates.clone();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method notifies the current window, if it contains readings, without waiting for a new
+     * reading.
+     */
+    public synchronized void flush() {
+        onFlush(System.currentTimeMillis());
+    }
+
+    /**
+     * This method obtains a function that extracts the result of an aggregate from the values
+     * notified by a window sensor. It allows a window sensor to be the source of another one.
+     *
+     * @param index The index of the aggregate.
+     * @return The extractor function.
+     */
+    public static ToDoubleFunction<SensorValue> resultOf(int index) {
+        return new ToDoubleFunction<SensorValue>() {
+            @Override
+            public double applyAsDouble(SensorValue value) {
+                return ((WindowSensorValue) value).getResult(index);
+            }
+        };
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected final synchronized void onSourceReading(SensorNotification notification) {
+        onValue(System.currentTimeMillis(), extractor.applyAsDouble(notification.getValue()));
+    }
+
+    /**
+     * This method must be implemented in concrete subclasses to process a number extracted from
+     * a reading of the source sensor. It is always executed while holding the lock of this sensor.
+     *
+     * @param time The time of the reading, in milliseconds since the epoch.
+     * @param value The extracted number.
+     */
+    protected abstract void onValue(long time, double value);
+
+    /**
+     * This method must be implemented in concrete subclasses to notify the current window when
+     * the method <code>flush</code> is invoked. It is always executed while holding the lock of
+     * this sensor.
+     *
+     * @param time The current time, in milliseconds since the epoch.
+     */
+    protected abstract void onFlush(long time);
+
+    /**
+     * This method adds a number to all aggregates.
+     *
+     * @param value The number.
+     */
+    protected final void addToWindow(double value) {
+        for(Aggregate a : aggregates) {
+            a.add(value);
+        }
+        count++;
+    }
+
+    /**
+     * This method removes the oldest number in the window from all aggregates.
+     *
+     * @param value The number.
+     */
+    protected final void removeFromWindow(double value) {
+        for(Aggregate a : aggregates) {
+            a.remove(value);
+        }
+        count--;
+    }
+
+    /**
+     * This method removes all numbers from all aggregates.
+     */
+    protected final void clearWindow() {
+        for(Aggregate a : aggregates) {
+            a.reset();
+        }
+        count = 0;
+    }
+
+    /**
+     * This method obtains the number of readings in the current window.
+     *
+     * @return The number of readings.
+     */
+    protected final long getWindowCount() {
+        return count;
+    }
+
+    /**
+     * This method notifies the results of the current window to the listeners of this sensor.
+     *
+     * @param start The time when the window starts, in milliseconds since the epoch.
+     * @param end The time when the window ends, in milliseconds since the epoch.
+     */
+    protected final void emitWindow(long start, long end) {
+        double[] results = new double[aggregates.length];
+        for(int i = 0; i < results.length; i++) {
+            results[i] = aggregates[i].getResult();
+        }
+        newReading(new WindowSensorValue(Instant.ofEpochMilli(start), Instant.ofEpochMilli(end), count, results));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The function that extracts a number from each reading of the source sensor.
+     */
+    private final ToDoubleFunction<SensorValue> extractor;
+
+    /**
+     * The aggregates computed in each window.
+     */
+    private final Aggregate[] aggregates;
+
+    /**
+     * The number of readings in the current window.
+     */
+    private long count;
+}
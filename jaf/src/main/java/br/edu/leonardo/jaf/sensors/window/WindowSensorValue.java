@@ -0,0 +1,119 @@
+package br.edu.leonardo.jaf.sensors.window;
+
+import br.edu.leonardo.jaf.sensors.SensorValue;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * A value generated by a window sensor. It contains the interval of the window, the number of
+ * readings in the window, and the results of the window aggregates.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class WindowSensorValue implements SensorValue {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new WindowSensorValue with the given window interval, number of
+     * readings, and aggregate results.
+     *
+     * @param start The instant when the window starts.
+     * @param end The instant when the window ends.
+     * @param count The number of readings in the window.
+     * @param results The results of the aggregates, in the order the aggregates were informed to
+     *                the window sensor.
+     */
+    public WindowSensorValue(Instant start, Instant end, long count, double[] results) {
+        this.start = start;
+        this.end = end;
+        this.count = count;
+        this.results = results;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the instant when the window starts.
+     *
+     * @return The start instant.
+     */
+    public Instant getStart() {
+        return start;
+    }
+
+    /**
+     * This method obtains the instant when the window ends.
+     *
+     * @return The end instant.
+     */
+    public Instant getEnd() {
+        return end;
+    }
+
+    /**
+     * This method obtains the number of readings in the window.
+     *
+     * @return The number of readings.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * This method obtains the result of an aggregate of the window.
+     *
+     * @param index The index of the aggregate, in the order the aggregates were informed to the
+     *              window sensor (the first aggregate is in the index zero).
+     * @return The aggregate result.
+     */
+    public double getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * This method obtains the number of aggregate results in this value.
+     *
+     * @return The number of results.
+     */
+    public int getNumOfResults() {
+        return results.length;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TOSTRING, EQUALS, HASHCODE
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String toString() {
+        return "WindowSensorValue{" + "start=" + start + ", end=" + end + ", count=" + count + ", results=" + Arrays.toString(results) + '}';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The instant when the window starts.
+     */
+    private final Instant start;
+
+    /**
+     * The instant when the window ends.
+     */
+    private final Instant end;
+
+    /**
+     * The number of readings in the window.
+     */
+    private final long count;
+
+    /**
+     * The results of the aggregates.
+     */
+    private final double[] results;
+}
@@ -0,0 +1,160 @@
+package br.edu.leonardo.jaf.simulation;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A reusable barrier for a fixed number of parties that never blocks a thread: each party informs
+ * its arrival and the barrier tells the last party of the phase that all parties have arrived, so
+ * that party can continue the simulation. It is used by a TickSensor to detect the end of the
+ * compute phase of each tick, but it can be used by any lock-step computation.
+ * <p>
+ * The arrivals are counted in a combining tree: each party decrements the counter of its leaf,
+ * and only the last party of each node continues to the parent node. The counters of the nodes
+ * are in different cache lines, so the parties of different leaves do not contend on the same
+ * counter, and the root is decremented only once per child. Each node is reset by its last party,
+ * before the arrival continues to the parent node, so the barrier is ready for the next phase as
+ * soon as the last party arrives.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class TickBarrier {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TickBarrier with nodes of 4 children.
+     *
+     * @param parties The number of parties.
+     * @throws IllegalArgumentException If the number of parties is not positive.
+     */
+    public TickBarrier(int parties) {
+        this(parties, DEFAULT_FAN_IN);
+    }
+
+    /**
+     * This constructor builds a new TickBarrier.
+     *
+     * @param parties The number of parties.
+     * @param fanIn The number of children of each node of the tree (at least 2).
+     * @throws IllegalArgumentException If the number of parties is not positive or the number of
+     *                                  children of the nodes is less than 2.
+     */
+    public TickBarrier(int parties, int fanIn) {
+        if(parties < 1)
+            throw new IllegalArgumentException("The number of parties must be positive.");
+        if(fanIn < 2)
+            throw new IllegalArgumentException("The nodes of the tree must have at least 2 children.");
+        this.parties = parties;
+        this.fanIn = fanIn;
+        int nodes = 0;
+        int width = parties;
+        do {
+            width = (width + fanIn - 1) / fanIn;
+            nodes += width;
+        } while(width > 1);
+        expected = new int[nodes];
+        parent = new int[nodes];
+        counters = new AtomicIntegerArray(nodes * PADDING);
+        int offset = 0;
+        int children = parties;
+        while(offset < nodes) {
+            width = (children + fanIn - 1) / fanIn;
+            for(int j = 0; j < width; j++) {
+                expected[offset + j] = Math.min(fanIn, children - j * fanIn);
+                parent[offset + j] = width == 1 ? -1 : offset + width + j / fanIn;
+                counters.set((offset + j) * PADDING, expected[offset + j]);
+            }
+            offset += width;
+            children = width;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method informs the arrival of a party in the current phase. Each party must arrive
+     * exactly once in each phase, even if its computation fails, since a missing arrival is never
+     * detected and the phase does not end (a TickSensor arrives in a finally block, see
+     * TickSensor.computeAndArrive). The next phase starts when this method returns true. The
+     * writes made by all parties before their arrival are visible to the last party after this
+     * method returns.
+     *
+     * @param party The index of the party (from 0 to the number of parties - 1).
+     * @return True if the party is the last one of the phase; false otherwise.
+     * @throws IndexOutOfBoundsException If the index of the party is invalid.
+     */
+    public boolean arrive(int party) {
+        if(party < 0 || party >= parties)
+            throw new IndexOutOfBoundsException("Invalid party: " + party + ".");
+        int node = party / fanIn;
+        while(counters.decrementAndGet(node * PADDING) == 0) {
+            counters.set(node * PADDING, expected[node]);
+            node = parent[node];
+            if(node < 0)
+                return true;
+        }
+        return false;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the number of parties of this barrier.
+     *
+     * @return The number of parties.
+     */
+    public int getParties() {
+        return parties;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The default number of children of each node of the tree.
+     */
+    private static final int DEFAULT_FAN_IN = 4;
+
+    /**
+     * The distance between the counters of two nodes, in integers (one cache line of 64 bytes).
+     */
+    private static final int PADDING = 16;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of parties.
+     */
+    private final int parties;
+
+    /**
+     * The number of children of each node of the tree.
+     */
+    private final int fanIn;
+
+    /**
+     * The number of arrivals expected by each node in a phase. The leaves are the first nodes,
+     * followed by each level of the tree, up to the root.
+     */
+    private final int[] expected;
+
+    /**
+     * The index of the parent of each node; -1 for the root.
+     */
+    private final int[] parent;
+
+    /**
+     * The number of arrivals still expected by each node in the current phase. The counter of
+     * the node i is the element (i * PADDING).
+     */
+    private final AtomicIntegerArray counters;
+}
@@ -0,0 +1,21 @@
+package br.edu.leonardo.jaf.simulation;
+
+/**
+ * A participant of a lock-step simulation driven by a TickSensor. In the compute phase of each
+ * tick, the participant computes its next state without changing the state seen by the other
+ * participants; in the commit phase, after all participants have computed, the next state becomes
+ * the current one.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+@FunctionalInterface
+public interface TickParticipant {
+
+    /**
+     * This method is executed in the commit phase of each tick. The commits of different
+     * participants are executed in parallel.
+     *
+     * @param tick The number of the tick.
+     */
+    void commit(long tick);
+}
@@ -0,0 +1,428 @@
+package br.edu.leonardo.jaf.simulation;
+
+import br.edu.leonardo.jaf.scheduling.Timeout;
+import br.edu.leonardo.jaf.scheduling.TimingWheel;
+import br.edu.leonardo.jaf.sensors.Sensor;
+import br.edu.leonardo.jaf.sensors.SensorException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A sensor that drives a lock-step (bulk-synchronous) simulation of agents. Each tick has three
+ * phases:
+ * <ol>
+ * <li>Compute: the sensor notifies the tick (a TickSensorValue) and each party computes its next
+ * state in a behaviour, reading only the current state of the simulation, and informs its end with
+ * the method <code>arrive</code>;</li>
+ * <li>Barrier: the arrivals are counted in a TickBarrier, without blocking any thread;</li>
+ * <li>Commit: when the last party arrives, the participants commit their next states in parallel,
+ * in a fork-join pool, and the method <code>onTickCommitted</code> is executed.</li>
+ * </ol>
+ * <p>
+ * A tick starts only after the previous one is committed, so the phases of different ticks never
+ * overlap. The ticks are driven by completion: the next tick starts as soon as the previous one is
+ * committed, or when the minimum period since the start of the previous tick has elapsed, so a
+ * simulation without a minimum period runs at full speed:
+ * <pre>
+ * TickSensor ticks = new TickSensor();
+ * for(Cell cell : cells) {
+ *     int party = ticks.register(cell::commit);
+ *     cell.addBehaviour(n -&gt; ticks.computeAndArrive(party, cell::compute), ticks);
+ *     cell.init(false);
+ * }
+ * ticks.init();
+ * </pre>
+ * <p>
+ * Each party must arrive exactly once in each tick, so its agent must execute a behaviour for
+ * every tick (the sensor does not skip ticks when an agent has no demand). A party that does not
+ * arrive stalls the simulation, so the computations should be executed with the method
+ * <code>computeAndArrive</code>, which always arrives and reports the exceptions of the
+ * computation to the error handler of the sensor (which logs them by default). If a commit or the
+ * method <code>onTickCommitted</code> throws an exception, the sensor is stopped and the error is
+ * reported to its listeners.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class TickSensor extends Sensor {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TickSensor without a minimum period, which starts each tick
+     * as soon as the previous one is committed.
+     */
+    public TickSensor() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * This constructor builds a new TickSensor that commits in the common fork-join pool and uses
+     * the shared timing wheel.
+     *
+     * @param minimumPeriod The minimum amount of time between the start of two ticks. The first
+     *                      tick starts one minimum period after the initialization.
+     */
+    public TickSensor(Duration minimumPeriod) {
+        this(minimumPeriod, ForkJoinPool.commonPool(), TimingWheel.getDefault());
+    }
+
+    /**
+     * This constructor builds a new TickSensor.
+     *
+     * @param minimumPeriod The minimum amount of time between the start of two ticks. The first
+     *                      tick starts one minimum period after the initialization.
+     * @param pool The pool that executes the commit phases.
+     * @param wheel The timing wheel used to delay the ticks that start before the minimum period.
+     * @throws IllegalArgumentException If the minimum period is negative.
+     */
+    public TickSensor(Duration minimumPeriod, ForkJoinPool pool, TimingWheel wheel) {
+        if(minimumPeriod.isNegative())
+            throw new IllegalArgumentException("The minimum period cannot be negative.");
+        this.minimumPeriod = minimumPeriod.toNanos();
+        this.pool = pool;
+        this.wheel = wheel;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method registers a new party that has nothing to commit.
+     *
+     * @return The index of the party, used to inform its arrivals.
+     * @throws IllegalStateException If the sensor has already been initialized.
+     */
+    public int register() {
+        return register(null);
+    }
+
+    /**
+     * This method registers a new party. The parties are indexed in the order of registration,
+     * starting at zero.
+     *
+     * @param participant The participant that commits the next state of the party; null if the
+     *                    party has nothing to commit.
+     * @return The index of the party, used to inform its arrivals.
+     * @throws IllegalStateException If the sensor has already been initialized.
+     */
+    public synchronized int register(TickParticipant participant) {
+        if(participants == null)
+            throw new IllegalStateException("The parties must be registered before the initialization of the sensor.");
+        participants.add(participant);
+        return participants.size() - 1;
+    }
+
+    /**
+     * This method starts the ticks. It has no effect if the ticks have already been started.
+     *
+     * @throws SensorException Never thrown by this implementation.
+     */
+    @Override
+    public synchronized void init() throws SensorException {
+        if(participants == null || stopped)
+            return;
+        if(!participants.isEmpty()) {
+            barrier = new TickBarrier(participants.size());
+            for(TickParticipant p : participants) {
+                if(p != null) {
+                    commits = participants.toArray(new TickParticipant[0]);
+                    break;
+                }
+            }
+        }
+        participants = null;
+        scheduleTick(minimumPeriod);
+    }
+
+    /**
+     * This method stops the ticks. The current tick is completed, but the next one is not
+     * started. A stopped sensor cannot be started again.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if(timeout != null)
+            timeout.cancel();
+    }
+
+    /**
+     * This method informs that a party has computed the current tick. When the last party
+     * arrives, the commit phase of the tick is started.
+     *
+     * @param party The index of the party.
+     * @throws IndexOutOfBoundsException If the index of the party is invalid.
+     */
+    public void arrive(int party) {
+        if(barrier.arrive(party))
+            pool.execute(this::commitTick);
+    }
+
+    /**
+     * This method executes the computation of a party in the current tick and informs its arrival,
+     * even if the computation throws an exception; the exception is reported to the error handler
+     * of this sensor and the tick goes on.
+     *
+     * @param party The index of the party.
+     * @param computation The computation of the party.
+     * @throws IndexOutOfBoundsException If the index of the party is invalid.
+     */
+    public void computeAndArrive(int party, Runnable computation) {
+        try {
+            computation.run();
+        } catch (RuntimeException ex) {
+            fail(party, ex);
+        } finally {
+            arrive(party);
+        }
+    }
+
+    /**
+     * This method reports an exception thrown by the computation of a party in the current tick to
+     * the error handler of this sensor. The party must still arrive in the tick. An exception
+     * thrown by the error handler itself is logged.
+     *
+     * @param party The index of the party.
+     * @param exception The exception.
+     */
+    public void fail(int party, Throwable exception) {
+        try {
+            errorHandler.accept(party, exception);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "The error handler of the tick sensor failed.", ex);
+        }
+    }
+
+    /**
+     * This method sets the handler of the exceptions thrown by the computations of the parties.
+     * The handler is executed in the thread of the computation. By default, the exceptions are
+     * logged with java.util.logging, at the level WARNING.
+     *
+     * @param errorHandler The handler, which receives the index of the party and the exception.
+     */
+    public void setErrorHandler(BiConsumer<Integer, Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the number of the current tick.
+     *
+     * @return The number of the current tick; zero if no tick has started.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * This method obtains the minimum amount of time between the start of two ticks.
+     *
+     * @return The minimum period.
+     */
+    public Duration getMinimumPeriod() {
+        return Duration.ofNanos(minimumPeriod);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R O T E C T E D   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method is executed after the commit phase of each tick, before the next tick starts.
+     * The default implementation does nothing; subclasses can override it to observe the state of
+     * the simulation between ticks.
+     *
+     * @param tick The number of the committed tick.
+     */
+    protected void onTickCommitted(long tick) {
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   M E T H O D S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method starts the next tick: the compute phase is notified to the listeners. A tick
+     * without parties is committed immediately.
+     */
+    private void startTick() {
+        synchronized(this) {
+            if(stopped)
+                return;
+            timeout = null;
+        }
+        tickStart = System.nanoTime();
+        tick++;
+        newReading(new TickSensorValue(tick));
+        if(barrier == null)
+            pool.execute(this::commitTick);
+    }
+
+    /**
+     * This method executes the commit phase of the current tick and schedules the next tick.
+     */
+    private void commitTick() {
+        try {
+            if(commits != null)
+                new CommitTask(0, commits.length).invoke();
+            onTickCommitted(tick);
+        } catch (RuntimeException ex) {
+            stop();
+            reportFatalError(ex);
+            return;
+        }
+        scheduleTick(minimumPeriod - (System.nanoTime() - tickStart));
+    }
+
+    /**
+     * This method schedules the start of the next tick.
+     *
+     * @param delay The delay before the start, in nanoseconds. The tick is started immediately, in
+     *              the pool, if the delay is not positive.
+     */
+    private synchronized void scheduleTick(long delay) {
+        if(stopped)
+            return;
+        if(delay <= 0)
+            pool.execute(this::startTick);
+        else
+            timeout = wheel.schedule(this::startTick, delay, TimeUnit.NANOSECONDS);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   C O N S T A N T S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of participants committed by each task of the commit phase.
+     */
+    private static final int COMMIT_BATCH = 256;
+
+    /**
+     * The logger of the tick sensors.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TickSensor.class.getName());
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The minimum amount of time between the start of two ticks, in nanoseconds.
+     */
+    private final long minimumPeriod;
+
+    /**
+     * The pool that executes the commit phases.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The timing wheel used to delay the ticks.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * The participants registered before the initialization; null after the initialization.
+     */
+    private List<TickParticipant> participants = new ArrayList<>();
+
+    /**
+     * The participants of the commit phase, indexed by party; null if no party has something to
+     * commit.
+     */
+    private TickParticipant[] commits;
+
+    /**
+     * The barrier of the compute phase; null if there are no parties.
+     */
+    private TickBarrier barrier;
+
+    /**
+     * The number of the current tick. It is changed only when no phase is being executed.
+     */
+    private volatile long tick;
+
+    /**
+     * The value of System.nanoTime at the start of the current tick.
+     */
+    private long tickStart;
+
+    /**
+     * The timeout of the next tick; null if the next tick is not delayed.
+     */
+    private Timeout timeout;
+
+    /**
+     * True if the ticks were stopped; false otherwise.
+     */
+    private boolean stopped;
+
+    /**
+     * The handler of the exceptions thrown by the computations of the parties.
+     */
+    private volatile BiConsumer<Integer, Throwable> errorHandler =
+            (party, exception) -> LOGGER.log(Level.WARNING, "The computation of the party " + party + " failed in the tick " + tick + ".", exception);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   I N T E R N A L   C L A S S E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A task that commits a range of participants, splitting the range in halves until each task
+     * has at most COMMIT_BATCH participants.
+     */
+    private class CommitTask extends RecursiveAction {
+
+        /**
+         * The serialization version of the task.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * This constructor builds a new CommitTask.
+         *
+         * @param start The index of the first participant of the range, inclusive.
+         * @param end The index of the last participant of the range, exclusive.
+         */
+        CommitTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start <= COMMIT_BATCH) {
+                long t = tick;
+                for(int i = start; i < end; i++) {
+                    if(commits[i] != null)
+                        commits[i].commit(t);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new CommitTask(start, middle), new CommitTask(middle, end));
+        }
+
+        /**
+         * The index of the first participant of the range, inclusive.
+         */
+        private final int start;
+
+        /**
+         * The index of the last participant of the range, exclusive.
+         */
+        private final int end;
+    }
+}
@@ -0,0 +1,51 @@
+package br.edu.leonardo.jaf.simulation;
+
+import br.edu.leonardo.jaf.sensors.SensorValue;
+
+/**
+ * The value notified by a TickSensor at the start of each tick.
+ *
+ * @author Leonardo Vianna do Nascimento
+ */
+public class TickSensorValue implements SensorValue {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P U B L I C   C O N S T R U C T O R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This constructor builds a new TickSensorValue.
+     *
+     * @param tick The number of the tick (the first tick is 1).
+     */
+    public TickSensorValue(long tick) {
+        this.tick = tick;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // G E T T E R S   A N D   S E T T E R S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * This method obtains the number of the tick.
+     *
+     * @return The number of the tick.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    @Override
+    public String toString() {
+        return "Tick " + tick;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // P R I V A T E   A T T R I B U T E S
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of the tick.
+     */
+    private final long tick;
+}